@@ -0,0 +1,171 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Algorithms over a list with repeated elements, given either as Collection
+ * or as Iterator, so the cost of each overload is visible. Scores are passes
+ * over the whole input per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AlgorithmsBenchmark {
+    private static final Predicate<Integer> NEGATIVE = value -> value < 0;
+    private static final Function<Integer, Integer> LOW_BITS = value -> value & 0xFF;
+
+    private static final MethodHandle MOST_FREQUENT_COLLECTION =
+        Api.statik("Algorithms", "mostFrequentElement", Optional.class, Collection.class);
+    private static final MethodHandle MOST_FREQUENT_ITERATOR =
+        Api.statik("Algorithms", "mostFrequentElement", Optional.class, Iterator.class);
+    private static final MethodHandle UNIQUE_COLLECTION =
+        Api.statik("Algorithms", "numOfUniqueElements", long.class, Collection.class);
+    private static final MethodHandle UNIQUE_ITERATOR =
+        Api.statik("Algorithms", "numOfUniqueElements", long.class, Iterator.class);
+    private static final MethodHandle FIRST_REPEATING_COLLECTION =
+        Api.statik("Algorithms", "firstRepeatingElement", Optional.class, Collection.class);
+    private static final MethodHandle FIRST_REPEATING_ITERATOR =
+        Api.statik("Algorithms", "firstRepeatingElement", Optional.class, Iterator.class);
+    private static final MethodHandle FIRST_NON_REPEATING_COLLECTION =
+        Api.statik("Algorithms", "firstNonRepeatingElement", Optional.class, Collection.class);
+    private static final MethodHandle FIRST_NON_REPEATING_ITERATOR =
+        Api.statik("Algorithms", "firstNonRepeatingElement", Optional.class, Iterator.class);
+    private static final MethodHandle COUNT_IF_COLLECTION =
+        Api.statik("Algorithms", "countIf", long.class, Collection.class, Predicate.class);
+    private static final MethodHandle COUNT_IF_ITERATOR =
+        Api.statik("Algorithms", "countIf", long.class, Iterator.class, Predicate.class);
+    private static final MethodHandle FIND_IF_COLLECTION =
+        Api.statik("Algorithms", "findIf", Optional.class, Collection.class, Predicate.class);
+    private static final MethodHandle FIND_IF_ITERATOR =
+        Api.statik("Algorithms", "findIf", Optional.class, Iterator.class, Predicate.class);
+    private static final MethodHandle EQUALS_AS_MULTISET_COLLECTION =
+        Api.statik("Algorithms", "equalsAsMultiset", boolean.class, Collection.class,
+            Collection.class);
+    private static final MethodHandle EQUALS_AS_MULTISET_ITERATOR =
+        Api.statik("Algorithms", "equalsAsMultiset", boolean.class, Iterator.class,
+            Iterator.class);
+    private static final MethodHandle GROUP_COUNT_COLLECTION =
+        Api.statik("Algorithms", "groupCount", Api.type("ArrayHashMap"), Collection.class,
+            Function.class);
+    private static final MethodHandle GROUP_COUNT_ITERATOR =
+        Api.statik("Algorithms", "groupCount", Api.type("ArrayHashMap"), Iterator.class,
+            Function.class);
+
+    /**
+     * Form in which the input is passed.
+     */
+    public enum Input {
+        COLLECTION,
+        ITERATOR
+    }
+
+    @Param({"COLLECTION", "ITERATOR"})
+    public Input input;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"SEQUENTIAL", "RANDOM"})
+    public Keys keys;
+
+    private List<Integer> data;
+    private List<Integer> shuffled;
+
+    @Setup
+    public void setUp() {
+        // About four occurrences per distinct element
+        data = new ArrayList<>(Arrays.asList(Keys.sample(keys.distinct(Math.max(1, size / 4)), size)));
+        shuffled = new ArrayList<>(data);
+        Collections.shuffle(shuffled, new Random(42));
+    }
+
+    @Benchmark
+    public Optional<?> mostFrequentElement() throws Throwable {
+        return input == Input.COLLECTION
+            ? (Optional<?>) MOST_FREQUENT_COLLECTION.invokeExact((Collection<?>) data)
+            : (Optional<?>) MOST_FREQUENT_ITERATOR.invokeExact((Iterator<?>) data.iterator());
+    }
+
+    @Benchmark
+    public long numOfUniqueElements() throws Throwable {
+        return input == Input.COLLECTION
+            ? (long) UNIQUE_COLLECTION.invokeExact((Collection<?>) data)
+            : (long) UNIQUE_ITERATOR.invokeExact((Iterator<?>) data.iterator());
+    }
+
+    @Benchmark
+    public Optional<?> firstRepeatingElement() throws Throwable {
+        return input == Input.COLLECTION
+            ? (Optional<?>) FIRST_REPEATING_COLLECTION.invokeExact((Collection<?>) data)
+            : (Optional<?>) FIRST_REPEATING_ITERATOR.invokeExact((Iterator<?>) data.iterator());
+    }
+
+    @Benchmark
+    public Optional<?> firstNonRepeatingElement() throws Throwable {
+        return input == Input.COLLECTION
+            ? (Optional<?>) FIRST_NON_REPEATING_COLLECTION.invokeExact((Collection<?>) data)
+            : (Optional<?>) FIRST_NON_REPEATING_ITERATOR.invokeExact((Iterator<?>) data.iterator());
+    }
+
+    @Benchmark
+    public long countIf() throws Throwable {
+        return input == Input.COLLECTION
+            ? (long) COUNT_IF_COLLECTION.invokeExact((Collection<?>) data, NEGATIVE)
+            : (long) COUNT_IF_ITERATOR.invokeExact((Iterator<?>) data.iterator(), NEGATIVE);
+    }
+
+    // No element matches, so the whole input is searched
+    @Benchmark
+    public Optional<?> findIfMissing() throws Throwable {
+        final Predicate<Integer> missing = value -> value == Integer.MIN_VALUE;
+        return input == Input.COLLECTION
+            ? (Optional<?>) FIND_IF_COLLECTION.invokeExact((Collection<?>) data, missing)
+            : (Optional<?>) FIND_IF_ITERATOR.invokeExact((Iterator<?>) data.iterator(), missing);
+    }
+
+    // Equal bags, so the hash pre-check passes and elements are counted
+    @Benchmark
+    public boolean equalsAsMultiset() throws Throwable {
+        return input == Input.COLLECTION
+            ? (boolean) EQUALS_AS_MULTISET_COLLECTION.invokeExact((Collection<?>) data,
+                (Collection<?>) shuffled)
+            : (boolean) EQUALS_AS_MULTISET_ITERATOR.invokeExact((Iterator<?>) data.iterator(),
+                (Iterator<?>) shuffled.iterator());
+    }
+
+    @Benchmark
+    public Object groupCount() throws Throwable {
+        return input == Input.COLLECTION
+            ? (Object) GROUP_COUNT_COLLECTION.invokeExact((Collection<?>) data, LOW_BITS)
+            : (Object) GROUP_COUNT_ITERATOR.invokeExact((Iterator<?>) data.iterator(), LOW_BITS);
+    }
+}
@@ -0,0 +1,108 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Method handles to the library, whose classes live in the unnamed package
+ * and can not be imported. JMH refuses benchmarks in the unnamed package, so
+ * benchmarks resolve the methods they call once. Handles are kept in static
+ * final fields and called with {@code invokeExact}, which the JIT inlines like
+ * a direct call.
+ *
+ * <p>Library types in signatures are erased to Object.
+ */
+final class Api {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    private Api() {
+    }
+
+    /**
+     * @param className  simple name of a library class
+     * @param parameters constructor parameter types
+     * @return handle creating an instance, returning Object
+     */
+    static @NotNull MethodHandle constructor(final @NotNull String className,
+        final Class<?> @NotNull ... parameters) {
+        try {
+            final MethodHandle handle = LOOKUP.findConstructor(type(className),
+                MethodType.methodType(void.class, parameters));
+            return handle.asType(handle.type().changeReturnType(Object.class));
+        }
+        catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param className  simple name of a library class
+     * @param name       method name
+     * @param returnType declared return type
+     * @param parameters declared parameter types
+     * @return handle taking the receiver as Object, library types erased to Object
+     */
+    static @NotNull MethodHandle virtual(final @NotNull String className,
+        final @NotNull String name, final @NotNull Class<?> returnType,
+        final Class<?> @NotNull ... parameters) {
+        try {
+            return erased(LOOKUP.findVirtual(type(className), name,
+                MethodType.methodType(returnType, parameters)));
+        }
+        catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param className  simple name of a library class
+     * @param name       method name
+     * @param returnType declared return type
+     * @param parameters declared parameter types
+     * @return handle with library types erased to Object
+     */
+    static @NotNull MethodHandle statik(final @NotNull String className,
+        final @NotNull String name, final @NotNull Class<?> returnType,
+        final Class<?> @NotNull ... parameters) {
+        try {
+            return erased(LOOKUP.findStatic(type(className), name,
+                MethodType.methodType(returnType, parameters)));
+        }
+        catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static @NotNull Class<?> type(final @NotNull String className) {
+        try {
+            return Class.forName(className);
+        }
+        catch (final ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Replaces every library class in the signature by Object
+    private static @NotNull MethodHandle erased(final @NotNull MethodHandle handle) {
+        MethodType type = handle.type();
+        for (int i = 0; i < type.parameterCount(); ++i) {
+            if (isLibrary(type.parameterType(i))) {
+                type = type.changeParameterType(i, Object.class);
+            }
+        }
+        if (isLibrary(type.returnType())) {
+            type = type.changeReturnType(Object.class);
+        }
+        return handle.asType(type);
+    }
+
+    private static boolean isLibrary(final @NotNull Class<?> type) {
+        return !type.isPrimitive() && type.getPackageName().isEmpty();
+    }
+}
@@ -0,0 +1,103 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Iterator kernels of Algorithms against their BatchIterator variants over
+ * the same list. Scores are passes over the whole input per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchIteratorBenchmark {
+    private static final Predicate<Integer> NEGATIVE = value -> value < 0;
+    private static final Predicate<Integer> MISSING = value -> value == Integer.MIN_VALUE;
+
+    private static final MethodHandle BATCH_OF_LIST =
+        Api.statik("BatchIterator", "of", Api.type("BatchIterator"), List.class);
+    private static final MethodHandle COUNT_IF_ITERATOR =
+        Api.statik("Algorithms", "countIf", long.class, Iterator.class, Predicate.class);
+    private static final MethodHandle COUNT_IF_BATCH =
+        Api.statik("Algorithms", "countIfBatched", long.class, Api.type("BatchIterator"), Predicate.class);
+    private static final MethodHandle FIND_IF_ITERATOR =
+        Api.statik("Algorithms", "findIf", Optional.class, Iterator.class, Predicate.class);
+    private static final MethodHandle FIND_IF_BATCH =
+        Api.statik("Algorithms", "findIfBatched", Optional.class, Api.type("BatchIterator"), Predicate.class);
+    private static final MethodHandle COUNT_ITERATOR =
+        Api.statik("Algorithms", "count", long.class, Iterator.class, Object.class);
+    private static final MethodHandle COUNT_BATCH =
+        Api.statik("Algorithms", "countBatched", long.class, Api.type("BatchIterator"), Object.class);
+
+    /**
+     * Protocol the input is read with.
+     */
+    public enum Input {
+        ITERATOR,
+        BATCH
+    }
+
+    @Param({"ITERATOR", "BATCH"})
+    public Input input;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<Integer> data;
+
+    @Setup
+    public void setUp() {
+        data = new ArrayList<>(Arrays.asList(Keys.sample(Keys.RANDOM.distinct(size), size)));
+    }
+
+    @Benchmark
+    public long countIf() throws Throwable {
+        return input == Input.ITERATOR
+            ? (long) COUNT_IF_ITERATOR.invokeExact((Iterator<?>) data.iterator(), NEGATIVE)
+            : (long) COUNT_IF_BATCH.invokeExact(batches(), NEGATIVE);
+    }
+
+    // No element matches, so the whole input is searched
+    @Benchmark
+    public Optional<?> findIfMissing() throws Throwable {
+        return input == Input.ITERATOR
+            ? (Optional<?>) FIND_IF_ITERATOR.invokeExact((Iterator<?>) data.iterator(), MISSING)
+            : (Optional<?>) FIND_IF_BATCH.invokeExact(batches(), MISSING);
+    }
+
+    @Benchmark
+    public long count() throws Throwable {
+        final Object value = data.get(0);
+        return input == Input.ITERATOR
+            ? (long) COUNT_ITERATOR.invokeExact((Iterator<?>) data.iterator(), value)
+            : (long) COUNT_BATCH.invokeExact(batches(), value);
+    }
+
+    private Object batches() throws Throwable {
+        return (Object) BATCH_OF_LIST.invokeExact(data);
+    }
+}
@@ -0,0 +1,29 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+package benchmarks;
+
+import java.util.Arrays;
+
+import org.openjdk.jmh.Main;
+
+/**
+ * Entry point of benchmarks.jar. Takes the usual JMH arguments and adds the
+ * GC profiler, which reports allocation rate per operation, unless a profiler
+ * is given.
+ */
+public final class BenchmarkRunner {
+    private BenchmarkRunner() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        if (Arrays.asList(args).contains("-prof")) {
+            Main.main(args);
+            return;
+        }
+        final String[] withGc = Arrays.copyOf(args, args.length + 2);
+        withGc[args.length] = "-prof";
+        withGc[args.length + 1] = "gc";
+        Main.main(withGc);
+    }
+}
@@ -0,0 +1,62 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+package benchmarks;
+
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Boxed keys shared by benchmarks, created before measurement so boxing is
+ * not measured.
+ */
+public enum Keys {
+    // 0, 1, 2, ... as produced by counters and ids
+    SEQUENTIAL,
+    // Uniformly random ints
+    RANDOM,
+    // Multiples of 1024, identical low bits stress weak hash mixing
+    STRIDED;
+
+    private static final long SEED = 42;
+
+    /**
+     * @param n number of keys
+     * @return n distinct keys in this distribution
+     */
+    Integer @NotNull [] distinct(final int n) {
+        final Integer[] keys = new Integer[n];
+        if (this == RANDOM) {
+            final HashSet<Integer> seen = new HashSet<>(n * 2);
+            final SplittableRandom random = new SplittableRandom(SEED);
+            for (int i = 0; i < n; ) {
+                final int key = random.nextInt();
+                if (seen.add(key)) {
+                    keys[i++] = key;
+                }
+            }
+            return keys;
+        }
+        final int step = this == STRIDED ? 1024 : 1;
+        for (int i = 0; i < n; ++i) {
+            keys[i] = i * step;
+        }
+        return keys;
+    }
+
+    /**
+     * @param keys keys to draw from
+     * @param n    number of draws
+     * @return n keys drawn from keys with repetition, in random order
+     */
+    static Integer @NotNull [] sample(final Integer @NotNull [] keys, final int n) {
+        final Integer[] sample = new Integer[n];
+        final SplittableRandom random = new SplittableRandom(SEED + 1);
+        for (int i = 0; i < n; ++i) {
+            sample[i] = keys[random.nextInt(keys.length)];
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,148 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * ArrayHashMap against the JDK maps it competes with. Every operation runs
+ * over all keys of a map of the given size, so scores are maps per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapBenchmark {
+    // ArrayHashMap removal is linear, more removals would dominate the run time
+    private static final int REMOVALS = 1000;
+    private static final Predicate<Map.Entry<Integer, Integer>> ODD = entry -> (entry.getKey() & 1) != 0;
+    private static final MethodHandle ARRAY_HASH_MAP = Api.constructor("ArrayHashMap", int.class);
+    private static final MethodHandle ARRAY_HASH_MAP_REMOVE_IF =
+        Api.virtual("ArrayHashMap", "removeIf", boolean.class, Predicate.class);
+
+    @Param({"HashMap", "LinkedHashMap", "ArrayHashMap"})
+    public String impl;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"SEQUENTIAL", "RANDOM", "STRIDED"})
+    public Keys keys;
+
+    private Integer[] distinct;
+    private Integer[] lookups;
+    private Map<Integer, Integer> filled;
+
+    @Setup
+    public void setUp() throws Throwable {
+        distinct = keys.distinct(size);
+        lookups = Keys.sample(distinct, size);
+        fill();
+    }
+
+    /**
+     * Fresh filled map for every removeIf call.
+     */
+    @State(Scope.Thread)
+    public static class Refilled {
+        @Setup(Level.Invocation)
+        public void setUp(final MapBenchmark benchmark) throws Throwable {
+            benchmark.fill();
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> put() throws Throwable {
+        final Map<Integer, Integer> map = create();
+        for (final Integer key : distinct) {
+            map.put(key, key);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public int get() {
+        int sum = 0;
+        for (final Integer key : lookups) {
+            sum += filled.get(key);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int getMissing() {
+        int found = 0;
+        for (final Integer key : lookups) {
+            if (filled.get(key + 1) != null) {
+                ++found;
+            }
+        }
+        return found;
+    }
+
+    // Removes and reinserts up to REMOVALS keys, so the map keeps its size
+    @Benchmark
+    public Map<Integer, Integer> removeAndPut() {
+        for (int i = 0; i < Math.min(REMOVALS, lookups.length); ++i) {
+            final Integer key = lookups[i];
+            filled.remove(key);
+            filled.put(key, key);
+        }
+        return filled;
+    }
+
+    @Benchmark
+    public void iterate(final Blackhole blackhole) {
+        filled.forEach((key, value) -> blackhole.consume(value));
+    }
+
+    // Removes the entries with odd keys, half of them for SEQUENTIAL and RANDOM keys
+    @Benchmark
+    public boolean removeIf(final Refilled refilled) throws Throwable {
+        if ("ArrayHashMap".equals(impl)) {
+            return (boolean) ARRAY_HASH_MAP_REMOVE_IF.invokeExact((Object) filled, ODD);
+        }
+        return filled.entrySet().removeIf(ODD);
+    }
+
+    private void fill() throws Throwable {
+        filled = create();
+        for (final Integer key : distinct) {
+            filled.put(key, key);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Integer, Integer> create() throws Throwable {
+        switch (impl) {
+            case "HashMap":
+                return new HashMap<>();
+            case "LinkedHashMap":
+                return new LinkedHashMap<>();
+            default:
+                return (Map<Integer, Integer>) (Object) ARRAY_HASH_MAP.invokeExact(16);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MappedArrayHashMap against an ArrayHashMap holding the same string entries.
+ * Every operation runs over all keys, so scores are maps per second. The
+ * mapped file is written once per trial and stays in the page cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MappedMapBenchmark {
+    private static final MethodHandle ARRAY_HASH_MAP = Api.constructor("ArrayHashMap", Map.class);
+    private static final MethodHandle STRINGS =
+        Api.statik("Codec", "strings", Api.type("Codec"));
+    private static final MethodHandle WRITE = Api.statik("MappedArrayHashMap", "write", void.class,
+        Path.class, Map.class, Api.type("Codec"), Api.type("Codec"));
+    private static final MethodHandle OPEN = Api.statik("MappedArrayHashMap", "open",
+        Api.type("MappedArrayHashMap"), Path.class, Api.type("Codec"), Api.type("Codec"));
+
+    @Param({"ArrayHashMap", "MappedArrayHashMap"})
+    public String impl;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private String[] lookups;
+    private Map<String, String> map;
+    private Path file;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Throwable {
+        final Integer[] keys = Keys.RANDOM.distinct(size);
+        final Map<String, String> entries = (Map<String, String>) (Object) ARRAY_HASH_MAP.invokeExact(
+            (Map<?, ?>) Map.of());
+        for (final Integer key : keys) {
+            entries.put("key-" + key, "value-" + key);
+        }
+        lookups = new String[size];
+        final Integer[] sample = Keys.sample(keys, size);
+        for (int i = 0; i < size; ++i) {
+            lookups[i] = "key-" + sample[i];
+        }
+        if (impl.equals("MappedArrayHashMap")) {
+            final Object codec = (Object) STRINGS.invokeExact();
+            file = Files.createTempFile("mapped", ".bin");
+            WRITE.invokeExact(file, (Map<?, ?>) entries, codec, codec);
+            map = (Map<String, String>) (Object) OPEN.invokeExact(file, codec, codec);
+        }
+        else {
+            map = entries;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (file != null) {
+            ((AutoCloseable) map).close();
+            Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public int get() {
+        int length = 0;
+        for (final String key : lookups) {
+            length += map.get(key).length();
+        }
+        return length;
+    }
+
+    // Both maps iterate their entries as Iterable, ArrayHashMap has no entry set
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public int iterate() {
+        int length = 0;
+        for (final Map.Entry<String, String> entry : (Iterable<Map.Entry<String, String>>) map) {
+            length += entry.getValue().length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,103 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups that mostly miss, with and without the Bloom prefilter of
+ * ArrayHashSet and UniqueArray. Every operation looks up as many keys as the
+ * container holds, one in sixteen of them present.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrefilterBenchmark {
+    private static final MethodHandle ARRAY_HASH_SET =
+        Api.constructor("ArrayHashSet", int.class, float.class, boolean.class);
+    private static final MethodHandle UNIQUE_ARRAY = Api.constructor("UniqueArray", int.class,
+        Api.type("HashStrategy"), Api.type("HashEngine"), boolean.class);
+    private static final MethodHandle NATURAL =
+        Api.statik("HashStrategy", "natural", Api.type("HashStrategy"));
+    private static final MethodHandle UNIQUE_ADD =
+        Api.virtual("UniqueArray", "add", int.class, Object.class);
+    private static final MethodHandle UNIQUE_ID_FOR =
+        Api.virtual("UniqueArray", "idFor", int.class, Object.class);
+
+    @Param({"ArrayHashSet", "UniqueArray"})
+    public String impl;
+
+    @Param({"false", "true"})
+    public boolean prefilter;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private Integer[] lookups;
+    // Exactly one of set and unique is used, depending on impl
+    private Set<Integer> set;
+    private Object unique;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Throwable {
+        // First half of keys is added, lookups take every sixteenth key from it
+        final Integer[] keys = Keys.RANDOM.distinct(size * 2);
+        lookups = new Integer[size];
+        for (int i = 0; i < size; ++i) {
+            lookups[i] = i % 16 == 0 ? keys[i] : keys[size + i];
+        }
+        if (impl.equals("UniqueArray")) {
+            final Object engine = Enum.valueOf(Api.type("HashEngine").asSubclass(Enum.class),
+                "LINEAR_PROBING");
+            unique = UNIQUE_ARRAY.invoke(size, (Object) NATURAL.invokeExact(), engine, prefilter);
+            for (int i = 0; i < size; ++i) {
+                final int id = (int) UNIQUE_ADD.invokeExact(unique, (Object) keys[i]);
+            }
+        }
+        else {
+            set = (Set<Integer>) (Object) ARRAY_HASH_SET.invokeExact(size, 0.75F, prefilter);
+            for (int i = 0; i < size; ++i) {
+                set.add(keys[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public int lookUp() throws Throwable {
+        int found = 0;
+        if (unique != null) {
+            for (final Integer key : lookups) {
+                if ((int) UNIQUE_ID_FOR.invokeExact(unique, (Object) key) != 0) {
+                    ++found;
+                }
+            }
+        }
+        else {
+            for (final Integer key : lookups) {
+                if (set.contains(key)) {
+                    ++found;
+                }
+            }
+        }
+        return found;
+    }
+}
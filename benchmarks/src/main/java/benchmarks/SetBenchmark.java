@@ -0,0 +1,191 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * ArrayHashSet and UniqueArray against the JDK sets. Every operation runs
+ * over all keys of a set of the given size, so scores are sets per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SetBenchmark {
+    // ArrayHashSet removal is linear, more removals would dominate the run time
+    private static final int REMOVALS = 1000;
+    private static final Predicate<Integer> ODD = key -> (key & 1) != 0;
+
+    private static final MethodHandle ARRAY_HASH_SET = Api.constructor("ArrayHashSet", int.class);
+    private static final MethodHandle UNIQUE_ARRAY = Api.constructor("UniqueArray", int.class);
+    private static final MethodHandle UNIQUE_ADD =
+        Api.virtual("UniqueArray", "add", int.class, Object.class);
+    private static final MethodHandle UNIQUE_CONTAINS =
+        Api.virtual("UniqueArray", "contains", boolean.class, Object.class);
+    private static final MethodHandle UNIQUE_REMOVE =
+        Api.virtual("UniqueArray", "remove", boolean.class, Object.class);
+    private static final MethodHandle UNIQUE_REMOVE_IF =
+        Api.virtual("UniqueArray", "removeIf", boolean.class, Predicate.class);
+    private static final MethodHandle UNIQUE_FOR_EACH =
+        Api.virtual("UniqueArray", "forEach", void.class, Consumer.class);
+
+    @Param({"HashSet", "LinkedHashSet", "ArrayHashSet", "UniqueArray"})
+    public String impl;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    @Param({"SEQUENTIAL", "RANDOM", "STRIDED"})
+    public Keys keys;
+
+    private Integer[] distinct;
+    private Integer[] lookups;
+    // Exactly one of set and unique is used, depending on impl
+    private Set<Integer> set;
+    private Object unique;
+
+    @Setup
+    public void setUp() throws Throwable {
+        distinct = keys.distinct(size);
+        lookups = Keys.sample(distinct, size);
+        fill();
+    }
+
+    /**
+     * Fresh filled container for every removeIf call.
+     */
+    @State(Scope.Thread)
+    public static class Refilled {
+        @Setup(Level.Invocation)
+        public void setUp(final SetBenchmark benchmark) throws Throwable {
+            benchmark.fill();
+        }
+    }
+
+    @Benchmark
+    public Object add() throws Throwable {
+        if (isUniqueArray()) {
+            final Object array = (Object) UNIQUE_ARRAY.invokeExact(16);
+            for (final Integer key : distinct) {
+                final int id = (int) UNIQUE_ADD.invokeExact(array, (Object) key);
+            }
+            return array;
+        }
+        final Set<Integer> result = create();
+        for (final Integer key : distinct) {
+            result.add(key);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int contains() throws Throwable {
+        int found = 0;
+        if (isUniqueArray()) {
+            for (final Integer key : lookups) {
+                if ((boolean) UNIQUE_CONTAINS.invokeExact(unique, (Object) key)) {
+                    ++found;
+                }
+            }
+            return found;
+        }
+        for (final Integer key : lookups) {
+            if (set.contains(key)) {
+                ++found;
+            }
+        }
+        return found;
+    }
+
+    // Removes and reinserts up to REMOVALS keys, so the set keeps its size
+    @Benchmark
+    public Object removeAndAdd() throws Throwable {
+        final int n = Math.min(REMOVALS, lookups.length);
+        if (isUniqueArray()) {
+            for (int i = 0; i < n; ++i) {
+                final boolean removed = (boolean) UNIQUE_REMOVE.invokeExact(unique, (Object) lookups[i]);
+                final int id = (int) UNIQUE_ADD.invokeExact(unique, (Object) lookups[i]);
+            }
+            return unique;
+        }
+        for (int i = 0; i < n; ++i) {
+            set.remove(lookups[i]);
+            set.add(lookups[i]);
+        }
+        return set;
+    }
+
+    @Benchmark
+    public void iterate(final Blackhole blackhole) throws Throwable {
+        final Consumer<Integer> consumer = blackhole::consume;
+        if (isUniqueArray()) {
+            UNIQUE_FOR_EACH.invokeExact(unique, consumer);
+        }
+        else {
+            set.forEach(consumer);
+        }
+    }
+
+    @Benchmark
+    public boolean removeIf(final Refilled refilled) throws Throwable {
+        if (isUniqueArray()) {
+            return (boolean) UNIQUE_REMOVE_IF.invokeExact(unique, ODD);
+        }
+        return set.removeIf(ODD);
+    }
+
+    private void fill() throws Throwable {
+        if (isUniqueArray()) {
+            unique = (Object) UNIQUE_ARRAY.invokeExact(size);
+            for (final Integer key : distinct) {
+                final int id = (int) UNIQUE_ADD.invokeExact(unique, (Object) key);
+            }
+        }
+        else {
+            set = create();
+            for (final Integer key : distinct) {
+                set.add(key);
+            }
+        }
+    }
+
+    private boolean isUniqueArray() {
+        return "UniqueArray".equals(impl);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Integer> create() throws Throwable {
+        switch (impl) {
+            case "HashSet":
+                return new HashSet<>();
+            case "LinkedHashSet":
+                return new LinkedHashSet<>();
+            default:
+                return (Set<Integer>) (Object) ARRAY_HASH_SET.invokeExact(16);
+        }
+    }
+}
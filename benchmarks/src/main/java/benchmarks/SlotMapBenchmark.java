@@ -0,0 +1,163 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * SlotMap against a HashMap keyed by a counter, the usual way to hand out
+ * stable handles. Every operation runs over all handles of a map of the
+ * given size, so scores are maps per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SlotMapBenchmark {
+    private static final Predicate<Integer> ODD = value -> (value & 1) != 0;
+    private static final MethodHandle SLOT_MAP = Api.constructor("SlotMap", int.class);
+    private static final MethodHandle PUT =
+        Api.virtual("SlotMap", "put", Api.type("Pair"), Object.class);
+    private static final MethodHandle GET =
+        Api.virtual("SlotMap", "get", Object.class, Api.type("Pair"));
+    private static final MethodHandle REMOVE =
+        Api.virtual("SlotMap", "remove", Optional.class, Api.type("Pair"));
+    private static final MethodHandle FOR_EACH =
+        Api.virtual("SlotMap", "forEach", void.class, Consumer.class);
+    private static final MethodHandle REMOVE_IF =
+        Api.virtual("SlotMap", "removeIf", boolean.class, Predicate.class);
+
+    @Param({"HashMap", "SlotMap"})
+    public String impl;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Integer[] values;
+    private Object slotMap;
+    private Object[] handles;
+    private HashMap<Integer, Integer> hashMap;
+    private int nextKey;
+
+    @Setup
+    public void setUp() throws Throwable {
+        values = Keys.SEQUENTIAL.distinct(size);
+        fill();
+    }
+
+    /**
+     * Fresh filled map for every removeIf call.
+     */
+    @State(Scope.Thread)
+    public static class Refilled {
+        @Setup(Level.Invocation)
+        public void setUp(final SlotMapBenchmark benchmark) throws Throwable {
+            benchmark.fill();
+        }
+    }
+
+    private void fill() throws Throwable {
+        slotMap = (Object) SLOT_MAP.invokeExact(size);
+        handles = new Object[size];
+        hashMap = new HashMap<>();
+        for (int i = 0; i < size; ++i) {
+            handles[i] = (Object) PUT.invokeExact(slotMap, (Object) values[i]);
+            hashMap.put(i, values[i]);
+        }
+        nextKey = size;
+    }
+
+    @Benchmark
+    public Object put() throws Throwable {
+        if (isSlotMap()) {
+            final Object map = (Object) SLOT_MAP.invokeExact(16);
+            for (final Integer value : values) {
+                final Object handle = (Object) PUT.invokeExact(map, (Object) value);
+            }
+            return map;
+        }
+        final HashMap<Integer, Integer> map = new HashMap<>();
+        for (int i = 0; i < values.length; ++i) {
+            map.put(i, values[i]);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public int get() throws Throwable {
+        int sum = 0;
+        if (isSlotMap()) {
+            for (final Object handle : handles) {
+                sum += (Integer) (Object) GET.invokeExact(slotMap, handle);
+            }
+            return sum;
+        }
+        for (int i = 0; i < size; ++i) {
+            sum += hashMap.get(i);
+        }
+        return sum;
+    }
+
+    // Removes every element and inserts it again under a new handle
+    @Benchmark
+    public Object removeAndPut() throws Throwable {
+        if (isSlotMap()) {
+            for (int i = 0; i < handles.length; ++i) {
+                final Optional<?> removed = (Optional<?>) REMOVE.invokeExact(slotMap, handles[i]);
+                handles[i] = (Object) PUT.invokeExact(slotMap, (Object) values[i]);
+            }
+            return slotMap;
+        }
+        for (int i = 0; i < values.length; ++i) {
+            hashMap.remove(nextKey - size);
+            hashMap.put(nextKey++, values[i]);
+        }
+        return hashMap;
+    }
+
+    @Benchmark
+    public void iterate(final Blackhole blackhole) throws Throwable {
+        if (isSlotMap()) {
+            final Consumer<Object> consumer = blackhole::consume;
+            FOR_EACH.invokeExact(slotMap, consumer);
+        }
+        else {
+            hashMap.forEach((key, value) -> blackhole.consume(value));
+        }
+    }
+
+    // Removes the odd half of the values
+    @Benchmark
+    public boolean removeIf(final Refilled refilled) throws Throwable {
+        if (isSlotMap()) {
+            return (boolean) REMOVE_IF.invokeExact(slotMap, ODD);
+        }
+        return hashMap.values().removeIf(ODD);
+    }
+
+    private boolean isSlotMap() {
+        return "SlotMap".equals(impl);
+    }
+}
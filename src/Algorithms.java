@@ -6,21 +6,36 @@
  * Created by Rijad 13-Mar-20
  */
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.jetbrains.annotations.NotNull;
 
 @NotNull
 public final class Algorithms {
+    // Elements per batch of the BatchIterator kernels
+    private static final int BATCH_SIZE = 256;
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+
     private Algorithms() {
     }
 
@@ -60,6 +75,34 @@ public final class Algorithms {
         return mostFrequentElement(map);
     }
 
+    /**
+     * @param iterator           iterator of elements
+     * @param codec              serializer used when distinct elements are spilled to disk
+     * @param maxEntriesInMemory number of distinct elements held on heap before spilling
+     * @param <T>                Any type that is hashable
+     * @return Optional of most frequent element, if iterator
+     * is null or there are no next iterator returns Optional.empty()
+     * @throws java.io.UncheckedIOException if spill files can not be written or read
+     */
+    public static <T> Optional<T> mostFrequentElement(final Iterator<T> iterator,
+            final @NotNull Codec<T> codec, final int maxEntriesInMemory) {
+        if (iterator == null || !iterator.hasNext()) {
+            return Optional.empty();
+        }
+
+        try (ExternalCounter<T> counter = new ExternalCounter<>(codec, maxEntriesInMemory)) {
+            iterator.forEachRemaining(counter::add);
+            final Pair<T, Long> best = new Pair<>(null, 0L);
+            counter.forEach((elem, count) -> {
+                if (count > best.getSecond()) {
+                    best.setFirst(elem);
+                    best.setSecond(count);
+                }
+            });
+            return Optional.ofNullable(best.getFirst());
+        }
+    }
+
     /**
      * @param map Map of elements ond number of their occurrences
      * @param <T> Any type that is hashable
@@ -197,6 +240,89 @@ public final class Algorithms {
         return !iterator1.hasNext() && !iterator2.hasNext();
     }
 
+    /**
+     * @param iterator1 batch iterator to elements
+     * @param iterator2 batch iterator to elements
+     * @param <T>       equality comparable
+     * @return returns true if two iterators have same elements
+     */
+    public static <T> boolean equals(
+            final BatchIterator<T> iterator1, final BatchIterator<T> iterator2) {
+        if (iterator1 == null || iterator2 == null) {
+            return iterator1 == null && iterator2 == null;
+        }
+        final T[] buffer1 = batchBuffer();
+        final T[] buffer2 = batchBuffer();
+        int n1 = 0;
+        int n2 = 0;
+        int p1 = 0;
+        int p2 = 0;
+        while (true) {
+            if (p1 == n1) {
+                n1 = iterator1.nextBatch(buffer1);
+                p1 = 0;
+            }
+            if (p2 == n2) {
+                n2 = iterator2.nextBatch(buffer2);
+                p2 = 0;
+            }
+            if (n1 == 0 || n2 == 0) {
+                return n1 == n2;
+            }
+            // Batches may differ in size, compare their common part
+            final int m = Math.min(n1 - p1, n2 - p2);
+            for (int i = 0; i < m; ++i) {
+                if (!buffer1[p1 + i].equals(buffer2[p2 + i])) {
+                    return false;
+                }
+            }
+            p1 += m;
+            p2 += m;
+        }
+    }
+
+    /**
+     * Unordered comparison: an order independent hash of both collections,
+     * computed over spliterators in parallel for large collections, rejects
+     * most unequal pairs, only equal hashes are confirmed by counting.
+     *
+     * @param collection1 collection of elements
+     * @param collection2 collection of elements
+     * @param <T>         Any type that is hashable
+     * @return true if both collections hold the same elements the same number of times
+     */
+    public static <T> boolean equalsAsMultiset(
+            final Collection<T> collection1, final Collection<T> collection2) {
+        if (collection1 == null || collection2 == null) {
+            return collection1 == null && collection2 == null;
+        }
+        if (collection1.size() != collection2.size()) {
+            return false;
+        }
+        final boolean parallel = collection1.size() >= PARALLEL_THRESHOLD;
+        if (multisetHash(collection1, parallel) != multisetHash(collection2, parallel)) {
+            return false;
+        }
+        return sameCounts(collection1, collection2);
+    }
+
+    /**
+     * @param iterator1 iterator to elements
+     * @param iterator2 iterator to elements
+     * @param <T>       Any type that is hashable
+     * @return true if both iterators hold the same elements the same number of
+     * times, see {@link #equalsAsMultiset(Collection, Collection)}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> boolean equalsAsMultiset(
+            final Iterator<T> iterator1, final Iterator<T> iterator2) {
+        if (iterator1 == null || iterator2 == null) {
+            return iterator1 == null && iterator2 == null;
+        }
+        return equalsAsMultiset((List<T>) Arrays.asList(toArray(iterator1)),
+            (List<T>) Arrays.asList(toArray(iterator2)));
+    }
+
     /**
      * @param collection collection of elements
      * @param <T>        Any type that is hashable
@@ -225,6 +351,110 @@ public final class Algorithms {
         return set.size();
     }
 
+    /**
+     * @param iterator           iterator of elements
+     * @param codec              serializer used when distinct elements are spilled to disk
+     * @param maxEntriesInMemory number of distinct elements held on heap before spilling
+     * @param <T>                Any type that is hashable
+     * @return Returns number of elements that are unique in iterator range
+     * @throws java.io.UncheckedIOException if spill files can not be written or read
+     */
+    public static <T> long numOfUniqueElements(final Iterator<T> iterator,
+            final @NotNull Codec<T> codec, final int maxEntriesInMemory) {
+        if (iterator == null || !iterator.hasNext()) {
+            return 0;
+        }
+        try (ExternalCounter<T> counter = new ExternalCounter<>(codec, maxEntriesInMemory)) {
+            iterator.forEachRemaining(counter::add);
+            final long[] unique = new long[1];
+            counter.forEach((elem, count) -> ++unique[0]);
+            return unique[0];
+        }
+    }
+
+    /**
+     * @param iterator iterator of elements
+     * @param <T>      Any type that is hashable
+     * @return lazy iterator over first occurrences of elements in iteration
+     * order, remembers every distinct element it passed
+     */
+    public static <T> @NotNull Iterator<T> distinct(final Iterator<T> iterator) {
+        if (iterator == null) {
+            return Collections.emptyIterator();
+        }
+        return Distinct.all(iterator);
+    }
+
+    /**
+     * Deduplication in constant memory: an element is dropped if it equals one
+     * of the window elements before it, whether those were passed or dropped.
+     *
+     * @param iterator iterator of elements
+     * @param window   number of preceding elements an element is compared with
+     * @param <T>      Any type that is hashable
+     * @return lazy iterator over elements not repeated within window, in iteration order
+     * @throws IllegalArgumentException if window is not positive
+     */
+    public static <T> @NotNull Iterator<T> distinct(final Iterator<T> iterator, final int window) {
+        if (iterator == null) {
+            return Collections.emptyIterator();
+        }
+        return Distinct.lastCount(iterator, window);
+    }
+
+    /**
+     * Deduplication remembering elements of the last window of time: an
+     * element is dropped if an equal one occurred less than window before it.
+     *
+     * @param iterator iterator of elements
+     * @param window   time an element is remembered after its last occurrence
+     * @param unit     unit of window
+     * @param <T>      Any type that is hashable
+     * @return lazy iterator over elements not repeated within window, in iteration order
+     * @throws IllegalArgumentException if window is not positive
+     */
+    public static <T> @NotNull Iterator<T> distinct(final Iterator<T> iterator, final long window,
+            final @NotNull TimeUnit unit) {
+        return distinct(iterator, window, unit, System::nanoTime);
+    }
+
+    /**
+     * @param iterator iterator of elements
+     * @param window   time an element is remembered after its last occurrence
+     * @param unit     unit of window
+     * @param clock    source of time in nanoseconds
+     * @param <T>      Any type that is hashable
+     * @return lazy iterator over elements not repeated within window, see
+     * {@link #distinct(Iterator, long, TimeUnit)}
+     * @throws IllegalArgumentException if window is not positive
+     */
+    public static <T> @NotNull Iterator<T> distinct(final Iterator<T> iterator, final long window,
+            final @NotNull TimeUnit unit, final @NotNull LongSupplier clock) {
+        if (iterator == null) {
+            return Collections.emptyIterator();
+        }
+        return Distinct.lastTime(iterator, window, unit, clock);
+    }
+
+    /**
+     * Deduplication in a few bits per distinct element with a scalable
+     * {@link BloomFilter}. Repeated elements are always dropped, a first
+     * occurrence is wrongly dropped with probability below falsePositiveRate.
+     *
+     * @param iterator          iterator of elements
+     * @param falsePositiveRate bound of the rate of first occurrences dropped, in (0, 1)
+     * @param <T>               Any type that is hashable
+     * @return lazy iterator over first occurrences, in iteration order
+     * @throws IllegalArgumentException if falsePositiveRate is not in (0, 1)
+     */
+    public static <T> @NotNull Iterator<T> distinctApproximately(final Iterator<T> iterator,
+            final double falsePositiveRate) {
+        if (iterator == null) {
+            return Collections.emptyIterator();
+        }
+        return Distinct.approximate(iterator, falsePositiveRate);
+    }
+
     /**
      * @param collection collection of elements
      * @param count
@@ -300,6 +530,29 @@ public final class Algorithms {
         return count;
     }
 
+    /**
+     * @param iterator  batch iterator to elements
+     * @param predicate predicate returns true if element should be counted
+     * @param <T>       no requirements
+     * @return return number of elements for which predicate.test() returns true
+     */
+    public static <T> long countIfBatched(
+            final BatchIterator<T> iterator, final @NotNull Predicate<T> predicate) {
+        if (iterator == null) {
+            return 0;
+        }
+        final T[] buffer = batchBuffer();
+        long count = 0;
+        for (int n = iterator.nextBatch(buffer); n != 0; n = iterator.nextBatch(buffer)) {
+            for (int i = 0; i < n; ++i) {
+                if (predicate.test(buffer[i])) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
     /**
      * @param collection collection to elements
      * @param count
@@ -466,6 +719,32 @@ public final class Algorithms {
         return Optional.empty();
     }
 
+    /**
+     * @param iterator  batch iterator, elements after the match may be consumed
+     * @param predicate predicate – a non-interfering, stateless predicate to
+     *                  apply to each element to determine
+     *                  if it should be returned
+     * @param <T>       no requirements
+     * @return Optional of first element that satisfies predicate, or empty if
+     * iterator is null or empty or none of elements satisfies predicate
+     * @throws NullPointerException if specified predicate is null
+     */
+    public static <T> Optional<T> findIfBatched(
+            final BatchIterator<T> iterator, final @NotNull Predicate<T> predicate) {
+        if (iterator == null) {
+            return Optional.empty();
+        }
+        final T[] buffer = batchBuffer();
+        for (int n = iterator.nextBatch(buffer); n != 0; n = iterator.nextBatch(buffer)) {
+            for (int i = 0; i < n; ++i) {
+                if (predicate.test(buffer[i])) {
+                    return Optional.of(buffer[i]);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
     /**
      * @param iterator iterator to elements
      * @param value    value to be counted
@@ -485,6 +764,28 @@ public final class Algorithms {
         return count;
     }
 
+    /**
+     * @param iterator batch iterator to elements
+     * @param value    value to be counted
+     * @param <T>      no requirements
+     * @return number of occurrence's of value in iterator range
+     */
+    public static <T> long countBatched(final BatchIterator<T> iterator, final T value) {
+        if (iterator == null) {
+            return 0;
+        }
+        final T[] buffer = batchBuffer();
+        long count = 0;
+        for (int n = iterator.nextBatch(buffer); n != 0; n = iterator.nextBatch(buffer)) {
+            for (int i = 0; i < n; ++i) {
+                if (buffer[i].equals(value)) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
     /**
      * @param collection collection of elements
      * @param value      value to be counted
@@ -526,6 +827,845 @@ public final class Algorithms {
         return getStreamOrEmpty(collection).filter(val -> val.equals(value)).findFirst();
     }
 
+    /**
+     * @param array array of elements
+     * @param value value to be counted
+     * @return number of occurrences of value in array, 0 if array is null
+     */
+    public static long count(final int[] array, final int value) {
+        if (array == null) {
+            return 0;
+        }
+        final int n = array.length;
+        long c0 = 0;
+        long c1 = 0;
+        long c2 = 0;
+        long c3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            c0 += array[i] == value ? 1 : 0;
+            c1 += array[i + 1] == value ? 1 : 0;
+            c2 += array[i + 2] == value ? 1 : 0;
+            c3 += array[i + 3] == value ? 1 : 0;
+        }
+        for (; i < n; ++i) {
+            c0 += array[i] == value ? 1 : 0;
+        }
+        return c0 + c1 + c2 + c3;
+    }
+
+    /**
+     * @param array array of elements
+     * @param bound exclusive upper bound
+     * @return number of elements smaller than bound, 0 if array is null
+     */
+    public static long countLessThan(final int[] array, final int bound) {
+        if (array == null) {
+            return 0;
+        }
+        final int n = array.length;
+        long c0 = 0;
+        long c1 = 0;
+        long c2 = 0;
+        long c3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            c0 += array[i] < bound ? 1 : 0;
+            c1 += array[i + 1] < bound ? 1 : 0;
+            c2 += array[i + 2] < bound ? 1 : 0;
+            c3 += array[i + 3] < bound ? 1 : 0;
+        }
+        for (; i < n; ++i) {
+            c0 += array[i] < bound ? 1 : 0;
+        }
+        return c0 + c1 + c2 + c3;
+    }
+
+    /**
+     * @param array array of elements
+     * @param low   inclusive lower bound
+     * @param high  inclusive upper bound
+     * @return number of elements in [low, high], 0 if array is null or low > high
+     */
+    public static long countInRange(final int[] array, final int low, final int high) {
+        if (array == null || !(low <= high)) {
+            return 0;
+        }
+        final int span = high - low;
+        final int n = array.length;
+        long c0 = 0;
+        long c1 = 0;
+        long c2 = 0;
+        long c3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            c0 += Integer.compareUnsigned(array[i] - low, span) <= 0 ? 1 : 0;
+            c1 += Integer.compareUnsigned(array[i + 1] - low, span) <= 0 ? 1 : 0;
+            c2 += Integer.compareUnsigned(array[i + 2] - low, span) <= 0 ? 1 : 0;
+            c3 += Integer.compareUnsigned(array[i + 3] - low, span) <= 0 ? 1 : 0;
+        }
+        for (; i < n; ++i) {
+            c0 += Integer.compareUnsigned(array[i] - low, span) <= 0 ? 1 : 0;
+        }
+        return c0 + c1 + c2 + c3;
+    }
+
+    /**
+     * @param array array of elements
+     * @param value value to be found
+     * @return index of first occurrence of value, -1 if array is null or there is no value
+     */
+    public static int find(final int[] array, final int value) {
+        if (array == null) {
+            return -1;
+        }
+        final int n = array.length;
+        int i = 0;
+        // Test whole blocks without branching, then locate the hit inside the block
+        for (; i + 7 < n; i += 8) {
+            if (array[i] == value | array[i + 1] == value | array[i + 2] == value
+                | array[i + 3] == value | array[i + 4] == value | array[i + 5] == value
+                | array[i + 6] == value | array[i + 7] == value) {
+                break;
+            }
+        }
+        for (; i < n; ++i) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param array array of elements
+     * @param low   inclusive lower bound
+     * @param high  inclusive upper bound
+     * @return index of first element in [low, high], -1 if array is null or there is no
+     * such element. anyMatch is {@code findInRange(...) >= 0}, noneMatch is {@code < 0}
+     */
+    public static int findInRange(final int[] array, final int low, final int high) {
+        if (array == null || !(low <= high)) {
+            return -1;
+        }
+        final int span = high - low;
+        final int n = array.length;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            if (Integer.compareUnsigned(array[i] - low, span) <= 0
+                | Integer.compareUnsigned(array[i + 1] - low, span) <= 0
+                | Integer.compareUnsigned(array[i + 2] - low, span) <= 0
+                | Integer.compareUnsigned(array[i + 3] - low, span) <= 0) {
+                break;
+            }
+        }
+        for (; i < n; ++i) {
+            if (Integer.compareUnsigned(array[i] - low, span) <= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param array array of elements
+     * @param low   inclusive lower bound
+     * @param high  inclusive upper bound
+     * @return true if every element is in [low, high], false if array is null
+     */
+    public static boolean allInRange(final int[] array, final int low, final int high) {
+        if (array == null) {
+            return false;
+        }
+        if (!(low <= high)) {
+            return array.length == 0;
+        }
+        final int span = high - low;
+        final int n = array.length;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            if (!(Integer.compareUnsigned(array[i] - low, span) <= 0
+                  & Integer.compareUnsigned(array[i + 1] - low, span) <= 0
+                  & Integer.compareUnsigned(array[i + 2] - low, span) <= 0
+                  & Integer.compareUnsigned(array[i + 3] - low, span) <= 0)) {
+                return false;
+            }
+        }
+        for (; i < n; ++i) {
+            if (!(Integer.compareUnsigned(array[i] - low, span) <= 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param array array of elements
+     * @param value value to be counted
+     * @return number of occurrences of value in array, 0 if array is null
+     */
+    public static long count(final long[] array, final long value) {
+        if (array == null) {
+            return 0;
+        }
+        final int n = array.length;
+        long c0 = 0;
+        long c1 = 0;
+        long c2 = 0;
+        long c3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            c0 += array[i] == value ? 1 : 0;
+            c1 += array[i + 1] == value ? 1 : 0;
+            c2 += array[i + 2] == value ? 1 : 0;
+            c3 += array[i + 3] == value ? 1 : 0;
+        }
+        for (; i < n; ++i) {
+            c0 += array[i] == value ? 1 : 0;
+        }
+        return c0 + c1 + c2 + c3;
+    }
+
+    /**
+     * @param array array of elements
+     * @param bound exclusive upper bound
+     * @return number of elements smaller than bound, 0 if array is null
+     */
+    public static long countLessThan(final long[] array, final long bound) {
+        if (array == null) {
+            return 0;
+        }
+        final int n = array.length;
+        long c0 = 0;
+        long c1 = 0;
+        long c2 = 0;
+        long c3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            c0 += array[i] < bound ? 1 : 0;
+            c1 += array[i + 1] < bound ? 1 : 0;
+            c2 += array[i + 2] < bound ? 1 : 0;
+            c3 += array[i + 3] < bound ? 1 : 0;
+        }
+        for (; i < n; ++i) {
+            c0 += array[i] < bound ? 1 : 0;
+        }
+        return c0 + c1 + c2 + c3;
+    }
+
+    /**
+     * @param array array of elements
+     * @param low   inclusive lower bound
+     * @param high  inclusive upper bound
+     * @return number of elements in [low, high], 0 if array is null or low > high
+     */
+    public static long countInRange(final long[] array, final long low, final long high) {
+        if (array == null || !(low <= high)) {
+            return 0;
+        }
+        final long span = high - low;
+        final int n = array.length;
+        long c0 = 0;
+        long c1 = 0;
+        long c2 = 0;
+        long c3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            c0 += Long.compareUnsigned(array[i] - low, span) <= 0 ? 1 : 0;
+            c1 += Long.compareUnsigned(array[i + 1] - low, span) <= 0 ? 1 : 0;
+            c2 += Long.compareUnsigned(array[i + 2] - low, span) <= 0 ? 1 : 0;
+            c3 += Long.compareUnsigned(array[i + 3] - low, span) <= 0 ? 1 : 0;
+        }
+        for (; i < n; ++i) {
+            c0 += Long.compareUnsigned(array[i] - low, span) <= 0 ? 1 : 0;
+        }
+        return c0 + c1 + c2 + c3;
+    }
+
+    /**
+     * @param array array of elements
+     * @param value value to be found
+     * @return index of first occurrence of value, -1 if array is null or there is no value
+     */
+    public static int find(final long[] array, final long value) {
+        if (array == null) {
+            return -1;
+        }
+        final int n = array.length;
+        int i = 0;
+        // Test whole blocks without branching, then locate the hit inside the block
+        for (; i + 7 < n; i += 8) {
+            if (array[i] == value | array[i + 1] == value | array[i + 2] == value
+                | array[i + 3] == value | array[i + 4] == value | array[i + 5] == value
+                | array[i + 6] == value | array[i + 7] == value) {
+                break;
+            }
+        }
+        for (; i < n; ++i) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param array array of elements
+     * @param low   inclusive lower bound
+     * @param high  inclusive upper bound
+     * @return index of first element in [low, high], -1 if array is null or there is no
+     * such element. anyMatch is {@code findInRange(...) >= 0}, noneMatch is {@code < 0}
+     */
+    public static int findInRange(final long[] array, final long low, final long high) {
+        if (array == null || !(low <= high)) {
+            return -1;
+        }
+        final long span = high - low;
+        final int n = array.length;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            if (Long.compareUnsigned(array[i] - low, span) <= 0
+                | Long.compareUnsigned(array[i + 1] - low, span) <= 0
+                | Long.compareUnsigned(array[i + 2] - low, span) <= 0
+                | Long.compareUnsigned(array[i + 3] - low, span) <= 0) {
+                break;
+            }
+        }
+        for (; i < n; ++i) {
+            if (Long.compareUnsigned(array[i] - low, span) <= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param array array of elements
+     * @param low   inclusive lower bound
+     * @param high  inclusive upper bound
+     * @return true if every element is in [low, high], false if array is null
+     */
+    public static boolean allInRange(final long[] array, final long low, final long high) {
+        if (array == null) {
+            return false;
+        }
+        if (!(low <= high)) {
+            return array.length == 0;
+        }
+        final long span = high - low;
+        final int n = array.length;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            if (!(Long.compareUnsigned(array[i] - low, span) <= 0
+                  & Long.compareUnsigned(array[i + 1] - low, span) <= 0
+                  & Long.compareUnsigned(array[i + 2] - low, span) <= 0
+                  & Long.compareUnsigned(array[i + 3] - low, span) <= 0)) {
+                return false;
+            }
+        }
+        for (; i < n; ++i) {
+            if (!(Long.compareUnsigned(array[i] - low, span) <= 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param array array of elements
+     * @param value value to be counted
+     * @return number of occurrences of value in array, 0 if array is null.
+     * Elements are compared with ==, so NaN is never counted
+     */
+    public static long count(final double[] array, final double value) {
+        if (array == null) {
+            return 0;
+        }
+        final int n = array.length;
+        long c0 = 0;
+        long c1 = 0;
+        long c2 = 0;
+        long c3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            c0 += array[i] == value ? 1 : 0;
+            c1 += array[i + 1] == value ? 1 : 0;
+            c2 += array[i + 2] == value ? 1 : 0;
+            c3 += array[i + 3] == value ? 1 : 0;
+        }
+        for (; i < n; ++i) {
+            c0 += array[i] == value ? 1 : 0;
+        }
+        return c0 + c1 + c2 + c3;
+    }
+
+    /**
+     * @param array array of elements
+     * @param bound exclusive upper bound
+     * @return number of elements smaller than bound, 0 if array is null
+     */
+    public static long countLessThan(final double[] array, final double bound) {
+        if (array == null) {
+            return 0;
+        }
+        final int n = array.length;
+        long c0 = 0;
+        long c1 = 0;
+        long c2 = 0;
+        long c3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            c0 += array[i] < bound ? 1 : 0;
+            c1 += array[i + 1] < bound ? 1 : 0;
+            c2 += array[i + 2] < bound ? 1 : 0;
+            c3 += array[i + 3] < bound ? 1 : 0;
+        }
+        for (; i < n; ++i) {
+            c0 += array[i] < bound ? 1 : 0;
+        }
+        return c0 + c1 + c2 + c3;
+    }
+
+    /**
+     * @param array array of elements
+     * @param low   inclusive lower bound
+     * @param high  inclusive upper bound
+     * @return number of elements in [low, high], 0 if array is null or low > high
+     */
+    public static long countInRange(final double[] array, final double low, final double high) {
+        if (array == null || !(low <= high)) {
+            return 0;
+        }
+        final int n = array.length;
+        long c0 = 0;
+        long c1 = 0;
+        long c2 = 0;
+        long c3 = 0;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            c0 += array[i] >= low & array[i] <= high ? 1 : 0;
+            c1 += array[i + 1] >= low & array[i + 1] <= high ? 1 : 0;
+            c2 += array[i + 2] >= low & array[i + 2] <= high ? 1 : 0;
+            c3 += array[i + 3] >= low & array[i + 3] <= high ? 1 : 0;
+        }
+        for (; i < n; ++i) {
+            c0 += array[i] >= low & array[i] <= high ? 1 : 0;
+        }
+        return c0 + c1 + c2 + c3;
+    }
+
+    /**
+     * @param array array of elements
+     * @param value value to be found
+     * @return index of first occurrence of value, -1 if array is null or there is no value
+     */
+    public static int find(final double[] array, final double value) {
+        if (array == null) {
+            return -1;
+        }
+        final int n = array.length;
+        int i = 0;
+        // Test whole blocks without branching, then locate the hit inside the block
+        for (; i + 7 < n; i += 8) {
+            if (array[i] == value | array[i + 1] == value | array[i + 2] == value
+                | array[i + 3] == value | array[i + 4] == value | array[i + 5] == value
+                | array[i + 6] == value | array[i + 7] == value) {
+                break;
+            }
+        }
+        for (; i < n; ++i) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param array array of elements
+     * @param low   inclusive lower bound
+     * @param high  inclusive upper bound
+     * @return index of first element in [low, high], -1 if array is null or there is no
+     * such element. anyMatch is {@code findInRange(...) >= 0}, noneMatch is {@code < 0}
+     */
+    public static int findInRange(final double[] array, final double low, final double high) {
+        if (array == null || !(low <= high)) {
+            return -1;
+        }
+        final int n = array.length;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            if ((array[i] >= low & array[i] <= high)
+                | (array[i + 1] >= low & array[i + 1] <= high)
+                | (array[i + 2] >= low & array[i + 2] <= high)
+                | (array[i + 3] >= low & array[i + 3] <= high)) {
+                break;
+            }
+        }
+        for (; i < n; ++i) {
+            if (array[i] >= low & array[i] <= high) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param array array of elements
+     * @param low   inclusive lower bound
+     * @param high  inclusive upper bound
+     * @return true if every element is in [low, high], false if array is null
+     */
+    public static boolean allInRange(final double[] array, final double low, final double high) {
+        if (array == null) {
+            return false;
+        }
+        if (!(low <= high)) {
+            return array.length == 0;
+        }
+        final int n = array.length;
+        int i = 0;
+        for (; i + 3 < n; i += 4) {
+            if (!((array[i] >= low & array[i] <= high)
+                  & (array[i + 1] >= low & array[i + 1] <= high)
+                  & (array[i + 2] >= low & array[i + 2] <= high)
+                  & (array[i + 3] >= low & array[i + 3] <= high))) {
+                return false;
+            }
+        }
+        for (; i < n; ++i) {
+            if (!(array[i] >= low & array[i] <= high)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param collection collection of elements
+     * @param <T>        no requirements
+     * @return Scan that evaluates registered checks in one pass over collection,
+     * null collection is scanned as empty
+     */
+    public static <T> @NotNull Scan<T> scan(final Collection<T> collection) {
+        return new Scan<>(collection == null ? null : collection.iterator());
+    }
+
+    /**
+     * @param iterator iterator to elements
+     * @param <T>      no requirements
+     * @return Scan that evaluates registered checks in one pass over iterator,
+     * null iterator is scanned as empty
+     */
+    public static <T> @NotNull Scan<T> scan(final Iterator<T> iterator) {
+        return new Scan<>(iterator);
+    }
+
+    /**
+     * @param collection collection of elements
+     * @param key        key of an element
+     * @param <T>        no requirements
+     * @param <K>        Any type that is hashable
+     * @return elements grouped by key, keys and elements of a key in collection order,
+     * null collection is grouped as empty
+     */
+    public static <T, K> @NotNull ArrayMultimap<K, T> groupBy(final Collection<T> collection,
+            final @NotNull Function<? super T, ? extends K> key) {
+        return groupBy(collection, key, Function.identity(), false);
+    }
+
+    /**
+     * @param collection collection of elements
+     * @param key        key of an element, must be thread safe if parallel
+     * @param value      value stored for an element, must be thread safe if parallel
+     * @param parallel   group chunks of collection in parallel, worth it for large collections
+     * @param <T>        no requirements
+     * @param <K>        Any type that is hashable
+     * @param <V>        no requirements
+     * @return values grouped by key, keys and values of a key in collection order,
+     * null collection is grouped as empty
+     */
+    public static <T, K, V> @NotNull ArrayMultimap<K, V> groupBy(final Collection<T> collection,
+            final @NotNull Function<? super T, ? extends K> key,
+            final @NotNull Function<? super T, ? extends V> value, final boolean parallel) {
+        final Object[] rows = toArray(collection);
+        return groupBy(rows, Grouping.of(rows, rows.length, key, parallel), value, parallel);
+    }
+
+    /**
+     * @param iterator iterator to elements
+     * @param key      key of an element
+     * @param <T>      no requirements
+     * @param <K>      Any type that is hashable
+     * @return remaining elements grouped by key, keys and elements of a key in iteration
+     * order, null iterator is grouped as empty
+     */
+    public static <T, K> @NotNull ArrayMultimap<K, T> groupBy(final Iterator<T> iterator,
+            final @NotNull Function<? super T, ? extends K> key) {
+        final Object[] rows = toArray(iterator);
+        return groupBy(rows, Grouping.of(rows, rows.length, key, false), Function.identity(), false);
+    }
+
+    /**
+     * @param collection collection of elements
+     * @param key        key of an element
+     * @param <T>        no requirements
+     * @param <K>        Any type that is hashable
+     * @return number of elements of every key, keys in collection order
+     */
+    public static <T, K> @NotNull ArrayHashMap<K, Long> groupCount(
+            final Collection<T> collection, final @NotNull Function<? super T, ? extends K> key) {
+        return groupCount(collection, key, false);
+    }
+
+    /**
+     * @param collection collection of elements
+     * @param key        key of an element, must be thread safe if parallel
+     * @param parallel   group chunks of collection in parallel, worth it for large collections
+     * @param <T>        no requirements
+     * @param <K>        Any type that is hashable
+     * @return number of elements of every key, keys in collection order
+     */
+    public static <T, K> @NotNull ArrayHashMap<K, Long> groupCount(final Collection<T> collection,
+            final @NotNull Function<? super T, ? extends K> key, final boolean parallel) {
+        final Object[] rows = toArray(collection);
+        return groupCount(Grouping.of(rows, rows.length, key, parallel));
+    }
+
+    /**
+     * @param iterator iterator to elements
+     * @param key      key of an element
+     * @param <T>      no requirements
+     * @param <K>      Any type that is hashable
+     * @return number of remaining elements of every key, keys in iteration order
+     */
+    public static <T, K> @NotNull ArrayHashMap<K, Long> groupCount(final Iterator<T> iterator,
+            final @NotNull Function<? super T, ? extends K> key) {
+        if (iterator == null) {
+            return new ArrayHashMap<>();
+        }
+        return groupCount(Grouping.of(iterator, key));
+    }
+
+    /**
+     * @param collection collection of elements
+     * @param key        key of an element, must be thread safe if parallel
+     * @param mapper     value of an element, must be thread safe if parallel
+     * @param reducer    associative function combining values of a key in collection order
+     * @param parallel   reduce chunks of collection in parallel, worth it for large collections
+     * @param <T>        no requirements
+     * @param <K>        Any type that is hashable
+     * @param <R>        no requirements
+     * @return reduced value of every key, keys in collection order
+     */
+    public static <T, K, R> @NotNull ArrayHashMap<K, R> groupReduce(
+            final Collection<T> collection, final @NotNull Function<? super T, ? extends K> key,
+            final @NotNull Function<? super T, ? extends R> mapper,
+            final @NotNull BinaryOperator<R> reducer, final boolean parallel) {
+        final Object[] rows = toArray(collection);
+        final Grouping<K> grouping = Grouping.of(rows, rows.length, key, parallel);
+        return grouping.toMap(grouping.reduce(rows, mapper, reducer, parallel));
+    }
+
+    /**
+     * @param iterator iterator to elements
+     * @param key      key of an element
+     * @param mapper   value of an element
+     * @param reducer  associative function combining values of a key in iteration order
+     * @param <T>      no requirements
+     * @param <K>      Any type that is hashable
+     * @param <R>      no requirements
+     * @return reduced value of every key, keys in iteration order
+     */
+    public static <T, K, R> @NotNull ArrayHashMap<K, R> groupReduce(final Iterator<T> iterator,
+            final @NotNull Function<? super T, ? extends K> key,
+            final @NotNull Function<? super T, ? extends R> mapper,
+            final @NotNull BinaryOperator<R> reducer) {
+        final Object[] rows = toArray(iterator);
+        final Grouping<K> grouping = Grouping.of(rows, rows.length, key, false);
+        return grouping.toMap(grouping.reduce(rows, mapper, reducer, false));
+    }
+
+    /**
+     * Blocks until publisher completes, see {@link FlowAggregator#await()}.
+     *
+     * @param publisher publisher of elements
+     * @param value     value to be counted
+     * @param <T>       no requirements
+     * @return number of occurrences of value in published elements
+     * @throws java.util.concurrent.CompletionException if publisher failed
+     */
+    public static <T> long count(final Flow.Publisher<T> publisher, final T value) {
+        if (publisher == null) {
+            return 0;
+        }
+        return FlowAggregator.<T>count(value, FlowAggregator.DEFAULT_BATCH_SIZE)
+            .aggregate(publisher).join();
+    }
+
+    /**
+     * Blocks until publisher completes, see {@link FlowAggregator#await()}.
+     *
+     * @param publisher publisher of elements
+     * @param predicate predicate returns true if element should be counted
+     * @param <T>       no requirements
+     * @return number of published elements for which predicate.test() returns true
+     * @throws java.util.concurrent.CompletionException if publisher or predicate failed
+     */
+    public static <T> long countIf(
+            final Flow.Publisher<T> publisher, final @NotNull Predicate<T> predicate) {
+        if (publisher == null) {
+            return 0;
+        }
+        return FlowAggregator.countIf(predicate, FlowAggregator.DEFAULT_BATCH_SIZE)
+            .aggregate(publisher).join();
+    }
+
+    /**
+     * Blocks until publisher completes, see {@link FlowAggregator#await()}.
+     *
+     * @param publisher publisher of elements
+     * @param <T>       Any type that is hashable
+     * @return number of distinct published elements
+     * @throws java.util.concurrent.CompletionException if publisher failed
+     */
+    public static <T> long numOfUniqueElements(final Flow.Publisher<T> publisher) {
+        if (publisher == null) {
+            return 0;
+        }
+        return FlowAggregator.<T>numOfUniqueElements(FlowAggregator.DEFAULT_BATCH_SIZE)
+            .aggregate(publisher).join();
+    }
+
+    /**
+     * Blocks until publisher completes, see {@link FlowAggregator#await()}.
+     *
+     * @param publisher publisher of elements
+     * @param <T>       Any type that is hashable
+     * @return distinct published elements in order of first occurrence
+     * @throws java.util.concurrent.CompletionException if publisher failed
+     */
+    public static <T> @NotNull ArrayHashSet<T> distinct(final Flow.Publisher<T> publisher) {
+        if (publisher == null) {
+            return new ArrayHashSet<>();
+        }
+        return FlowAggregator.<T>distinct(FlowAggregator.DEFAULT_BATCH_SIZE)
+            .aggregate(publisher).join();
+    }
+
+    /**
+     * Blocks until publisher completes, see {@link FlowAggregator#await()}.
+     *
+     * @param publisher publisher of elements
+     * @param <T>       Any type that is hashable
+     * @return Optional of most frequent published element, empty if publisher
+     * is null or publishes nothing
+     * @throws java.util.concurrent.CompletionException if publisher failed
+     */
+    public static <T> Optional<T> mostFrequentElement(final Flow.Publisher<T> publisher) {
+        if (publisher == null) {
+            return Optional.empty();
+        }
+        return FlowAggregator.<T>mostFrequentElement(FlowAggregator.DEFAULT_BATCH_SIZE)
+            .aggregate(publisher).join();
+    }
+
+    /**
+     * Blocks until an element matches or publisher completes, the subscription
+     * is cancelled once an element matches.
+     *
+     * @param publisher publisher of elements
+     * @param predicate predicate returns true for element that should be returned
+     * @param <T>       no requirements
+     * @return Optional of first published element that satisfies predicate
+     * @throws java.util.concurrent.CompletionException if publisher or predicate failed
+     */
+    public static <T> Optional<T> findIf(
+            final Flow.Publisher<T> publisher, final @NotNull Predicate<T> predicate) {
+        if (publisher == null) {
+            return Optional.empty();
+        }
+        return FlowAggregator.findIf(predicate, FlowAggregator.DEFAULT_BATCH_SIZE)
+            .aggregate(publisher).join();
+    }
+
+    // Counting sort of values by group, values of a group keep row order
+    @SuppressWarnings("unchecked")
+    private static <T, K, V> @NotNull ArrayMultimap<K, V> groupBy(final Object @NotNull [] rows,
+            final @NotNull Grouping<K> grouping,
+            final @NotNull Function<? super T, ? extends V> value, final boolean parallel) {
+        final int[] offsets = grouping.offsets();
+        final int[] order = grouping.order(offsets);
+        final Object[] values = new Object[rows.length];
+        IntStream range = IntStream.range(0, rows.length);
+        if (parallel) {
+            range = range.parallel();
+        }
+        range.forEach(p -> values[p] = value.apply((T) rows[order[p]]));
+        return new ArrayMultimap<>(grouping, offsets, values);
+    }
+
+    private static <K> @NotNull ArrayHashMap<K, Long> groupCount(final @NotNull Grouping<K> grouping) {
+        final long[] counts = grouping.counts();
+        final Object[] boxed = new Object[counts.length];
+        for (int g = 0; g < counts.length; ++g) {
+            boxed[g] = counts[g];
+        }
+        return grouping.toMap(boxed);
+    }
+
+    private static Object @NotNull [] toArray(final Collection<?> collection) {
+        return collection == null ? new Object[0] : collection.toArray();
+    }
+
+    private static Object @NotNull [] toArray(final Iterator<?> iterator) {
+        if (iterator == null) {
+            return new Object[0];
+        }
+        Object[] rows = new Object[16];
+        int n = 0;
+        while (iterator.hasNext()) {
+            if (n == rows.length) {
+                rows = Arrays.copyOf(rows, n * 2);
+            }
+            rows[n++] = iterator.next();
+        }
+        return Arrays.copyOf(rows, n);
+    }
+
+    // Sum of mixed element hashes, equal for equal multisets whatever the order
+    private static long multisetHash(final @NotNull Collection<?> collection,
+            final boolean parallel) {
+        return StreamSupport.stream(collection.spliterator(), parallel)
+                .mapToLong(elem -> {
+                    long h = Objects.hashCode(elem) * 0x9E3779B97F4A7C15L;
+                    h = (h ^ (h >>> 32)) * 0xD6E8FEB86659FD93L;
+                    return h ^ (h >>> 32);
+                })
+                .sum();
+    }
+
+    // Counts elements of the first collection down by the second, sizes are equal
+    private static <T> boolean sameCounts(final @NotNull Collection<T> collection1,
+            final @NotNull Collection<T> collection2) {
+        final HashMap<T, long[]> counts = new HashMap<>((int) (collection1.size() / 0.75F) + 1);
+        for (final T elem : collection1) {
+            ++counts.computeIfAbsent(elem, key -> new long[1])[0];
+        }
+        for (final T elem : collection2) {
+            final long[] count = counts.get(elem);
+            if (count == null || --count[0] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T @NotNull [] batchBuffer() {
+        return (T[]) new Object[BATCH_SIZE];
+    }
+
     private static <T> Stream<T> getStreamOrEmpty(final Collection<T> collection) {
         if (collection == null) {
             return Stream.empty();
@@ -564,6 +1704,36 @@ public final class Algorithms {
         forEachNUnchecked(collection.iterator(), count, action);
     }
 
+    /**
+     * @param iterator batch iterator to elements, exactly count of them are consumed
+     * @param count    number of times action will be applied
+     * @param <T>      no requirements
+     * @param action   The action to be performed for each element
+     * @throws NullPointerException   if specified action is null
+     * @throws NoSuchElementException if iterator has less than count elements
+     */
+    public static <T> void forEachN(
+            final BatchIterator<T> iterator, long count, final @NotNull Consumer<T> action) {
+        if (iterator == null || count <= 0) {
+            return;
+        }
+        T[] buffer = batchBuffer();
+        while (count != 0) {
+            if (count < buffer.length) {
+                // Last batch must not take elements beyond count
+                buffer = Arrays.copyOf(buffer, (int) count);
+            }
+            final int n = iterator.nextBatch(buffer);
+            if (n == 0) {
+                throw new NoSuchElementException();
+            }
+            for (int i = 0; i < n; ++i) {
+                action.accept(buffer[i]);
+            }
+            count -= n;
+        }
+    }
+
     /**
      * @param iterator iterator to elements
      * @param count    number of times action will be applied
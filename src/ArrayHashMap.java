@@ -13,7 +13,13 @@ import java.util.stream.StreamSupport;
 import org.jetbrains.annotations.NotNull;
 
 public class ArrayHashMap<K, V> extends HashMap<K, V> implements Iterable<Map.Entry<K, V>> {
+    private static final int MAX_TABLE_CAPACITY = 1 << 30;
+
     private final ArrayList<K> storage;
+    private final float loadFactor;
+    // Mirrors of capacities the JDK hides, used to report resizes to JFR and stats
+    private int tableCapacity;
+    private int storageCapacity;
 
     public ArrayHashMap() {
         this(16);
@@ -29,16 +35,121 @@ public class ArrayHashMap<K, V> extends HashMap<K, V> implements Iterable<Map.En
     }
 
     public ArrayHashMap(final int initialCapacity, final float loadFactor) {
-        super(initialCapacity, loadFactor);
-        storage = new ArrayList<>(initialCapacity);
+        this(initialCapacity, initialCapacity, loadFactor);
+    }
+
+    private ArrayHashMap(final int tableCapacity, final int storageCapacity,
+        final float loadFactor) {
+        super(tableCapacity, loadFactor);
+        storage = new ArrayList<>(storageCapacity);
+        this.loadFactor = loadFactor;
+        this.tableCapacity = ContainerEvents.tableCapacity(tableCapacity);
+        this.storageCapacity = storageCapacity;
+    }
+
+    /**
+     * @param strategy hash and equality used for keys
+     * @param <K>      type hashed by strategy
+     * @param <V>      no requirements
+     * @return empty insertion-ordered map hashing keys by strategy, e.g. byte[] keys by content
+     */
+    public static <K, V> @NotNull CustomArrayHashMap<K, V> withStrategy(
+        final @NotNull HashStrategy<? super K> strategy) {
+        return new CustomArrayHashMap<>(strategy);
+    }
+
+    /**
+     * @param keys   keys in insertion order, duplicates keep their first position
+     * @param values values of keys, same length as keys
+     * @param <K>    Any type that is hashable
+     * @param <V>    no requirements
+     * @return map with every key mapped to its last value
+     * @throws IllegalArgumentException if arrays have different lengths
+     */
+    public static <K, V> @NotNull ArrayHashMap<K, V> fromArrays(
+        final K @NotNull [] keys, final V @NotNull [] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException(
+                "Keys and values differ in length: " + keys.length + " != " + values.length);
+        }
+        final ArrayHashMap<K, V> map = new ArrayHashMap<>(capacityFor(keys.length), keys.length, 0.75F);
+        for (int i = 0; i < keys.length; ++i) {
+            map.put(keys[i], values[i]);
+        }
+        return map;
+    }
+
+    /**
+     * Equal keys are adjacent in sorted input, so a repeat is found by comparing
+     * with the previous key, and each distinct key takes a single table probe.
+     *
+     * @param keys   keys sorted, or at least grouped so that equal keys are adjacent
+     * @param values values of keys, same size as keys
+     * @param <K>    Any type that is hashable
+     * @param <V>    no requirements
+     * @return map with every key mapped to its last value, in key order
+     * @throws IllegalArgumentException if lists have different sizes or equal keys are not adjacent
+     */
+    public static <K, V> @NotNull ArrayHashMap<K, V> fromSortedKeys(
+        final @NotNull List<? extends K> keys, final @NotNull List<? extends V> values) {
+        if (keys.size() != values.size()) {
+            throw new IllegalArgumentException(
+                "Keys and values differ in size: " + keys.size() + " != " + values.size());
+        }
+        final ArrayHashMap<K, V> map = new ArrayHashMap<>(capacityFor(keys.size()), keys.size(), 0.75F);
+        final Iterator<? extends K> keyIt = keys.iterator();
+        final Iterator<? extends V> valueIt = values.iterator();
+        if (!keyIt.hasNext()) {
+            return map;
+        }
+        K run = keyIt.next();
+        V last = valueIt.next();
+        while (keyIt.hasNext()) {
+            final K key = keyIt.next();
+            final V value = valueIt.next();
+            // Repeats of the run key only replace the value that will be stored
+            if (!Objects.equals(key, run)) {
+                map.putNew(run, last);
+                run = key;
+            }
+            last = value;
+        }
+        map.putNew(run, last);
+        return map;
     }
 
     @Override
     public void putAll(final Map<? extends K, ? extends V> m) {
-        if (m != null) {
-            storage.ensureCapacity(storage.size() + m.size());
-            this.forEach(this::put);
+        if (m == null || m.isEmpty()) {
+            return;
         }
+        reserveStorage(storage.size() + m.size());
+        if (storage.isEmpty()) {
+            // Every key is new: presize the table once, then insert in the order of m
+            tableCapacity = Math.max(tableCapacity, ContainerEvents.tableCapacity(
+                (int) Math.min(m.size() / loadFactor + 1.0F, MAX_TABLE_CAPACITY)));
+            super.putAll(new SizeHint<K, V>(m.size()));
+            m.forEach((key, value) -> {
+                super.put(key, value);
+                storage.add(key);
+            });
+            return;
+        }
+        m.forEach(this::put);
+    }
+
+    /**
+     * @param m               entries to be merged, iterated in its order
+     * @param mappingFunction function combining present value with value from m,
+     *                        null result removes entry
+     */
+    public void mergeAll(final Map<? extends K, ? extends V> m,
+        final @NotNull BiFunction<? super V, ? super V, ? extends V> mappingFunction) {
+        if (m == null || m.isEmpty()) {
+            return;
+        }
+        reserveStorage(storage.size() + m.size());
+        m.forEach((key, value) -> this.merge(key, value, mappingFunction));
     }
 
     @Override
@@ -62,6 +173,22 @@ public class ArrayHashMap<K, V> extends HashMap<K, V> implements Iterable<Map.En
         return storage.isEmpty();
     }
 
+    /**
+     * @return collision chains, load and footprint of the map, entries excluded
+     */
+    public @NotNull ContainerStats stats() {
+        syncTableCapacity(super.size());
+        return ContainerStats.chained("ArrayHashMap", storage, super.size(), tableCapacity,
+            4 * 4 + ContainerStats.listBytes(storageCapacity));
+    }
+
+    /**
+     * @return batch iterator over keys in insertion order, a batch per array copy
+     */
+    public @NotNull BatchIterator<K> keyBatchIterator() {
+        return BatchIterator.of(storage);
+    }
+
     @Override
     public @NotNull Iterator<Map.Entry<K, V>> iterator() {
         return new MapListIterator();
@@ -76,7 +203,7 @@ public class ArrayHashMap<K, V> extends HashMap<K, V> implements Iterable<Map.En
             return this.remove(key);
         }
         if (!super.containsKey(key)) {
-            storage.add(key);
+            addToStorage(key);
         }
         return super.put(key, value);
     }
@@ -94,28 +221,42 @@ public class ArrayHashMap<K, V> extends HashMap<K, V> implements Iterable<Map.En
     @Override
     public V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) {
         if (!super.containsKey(key)) {
-            storage.add(key);
+            addToStorage(key);
         }
         return super.computeIfAbsent(key, mappingFunction);
     }
 
     @Override
     public V remove(final Object key) {
-        storage.remove(key);
+        removeFromStorage(key);
         return super.remove(key);
     }
 
     @Override
     public boolean remove(final Object key, final Object value) {
-        return super.remove(key, value) && storage.remove(key);
+        return super.remove(key, value) && removeFromStorage(key);
     }
 
     @Override
     public V put(final K key, final V value) {
-        if (!super.containsKey(key)) {
-            storage.add(key);
+        final int oldSize = super.size();
+        final ContainerEvents.Resize rehash = beginRehash(oldSize);
+        final V old = super.put(key, value);
+        if (super.size() != oldSize) {
+            commitRehash(rehash);
+            addToStorage(key);
         }
-        return super.put(key, value);
+        return old;
+    }
+
+    // Appends a key that must be new, with one table probe
+    private void putNew(final K key, final V value) {
+        final int oldSize = super.size();
+        super.put(key, value);
+        if (super.size() == oldSize) {
+            throw new IllegalArgumentException("Equal keys are not adjacent: " + key);
+        }
+        storage.add(key);
     }
 
     @Override
@@ -130,7 +271,7 @@ public class ArrayHashMap<K, V> extends HashMap<K, V> implements Iterable<Map.En
             v = value;
         }
         if (v != null) {
-            super.replace(key, v);
+            this.put(key, v);
         }
         else {
             this.remove(key);
@@ -140,33 +281,116 @@ public class ArrayHashMap<K, V> extends HashMap<K, V> implements Iterable<Map.En
 
     @Override
     public V putIfAbsent(final K key, final V value) {
-        if (!super.containsKey(key)) {
-            storage.add(key);
+        final int oldSize = super.size();
+        final ContainerEvents.Resize rehash = beginRehash(oldSize);
+        final V old = super.putIfAbsent(key, value);
+        if (super.size() != oldSize) {
+            commitRehash(rehash);
+            addToStorage(key);
+        }
+        return old;
+    }
+
+    // Event timing an insert that makes HashMap double its table, null if none is due
+    private ContainerEvents.Resize beginRehash(final int size) {
+        syncTableCapacity(size);
+        if (size < threshold() || tableCapacity == MAX_TABLE_CAPACITY) {
+            return null;
+        }
+        final ContainerEvents.Resize event = new ContainerEvents.Resize();
+        event.begin();
+        return event;
+    }
+
+    private void commitRehash(final ContainerEvents.Resize event) {
+        if (event != null) {
+            ContainerEvents.commit(event, "ArrayHashMap", "table", tableCapacity, tableCapacity << 1);
+            tableCapacity <<= 1;
+        }
+    }
+
+    // Catches up with growth of inserts that were not timed, e.g. inside super.putAll
+    private void syncTableCapacity(final int size) {
+        while (size > threshold() && tableCapacity < MAX_TABLE_CAPACITY) {
+            tableCapacity <<= 1;
+        }
+    }
+
+    private int threshold() {
+        return (int) (tableCapacity * loadFactor);
+    }
+
+    private void addToStorage(final K key) {
+        storageCapacity = ContainerEvents.ensureRoom(storage, storageCapacity, "ArrayHashMap", "storage");
+        storage.add(key);
+    }
+
+    private void reserveStorage(final int capacity) {
+        storage.ensureCapacity(capacity);
+        storageCapacity = Math.max(storageCapacity, capacity);
+    }
+
+    private boolean removeFromStorage(final Object key) {
+        final int index = storage.indexOf(key);
+        if (index < 0) {
+            return false;
         }
-        return super.putIfAbsent(key, value);
+        // Times the shift of later keys, the pause a removal causes
+        final ContainerEvents.Removal event = new ContainerEvents.Removal();
+        event.begin();
+        storage.remove(index);
+        ContainerEvents.commit(event, "ArrayHashMap", index, storage.size() - index);
+        return true;
     }
 
-    boolean removeIf(final Predicate<Map.Entry<K, V>> predicate) {
-        int i = 0;
+    /**
+     * @param predicate test of entries to be removed
+     * @return true if any entry was removed
+     */
+    public boolean removeIf(final @NotNull Predicate<? super Map.Entry<K, V>> predicate) {
+        final ContainerEvents.Compaction event = new ContainerEvents.Compaction();
+        event.begin();
+        final int oldSize = storage.size();
+        // Kept keys are moved down in insertion order, removed ones dropped from the table
         int j = 0;
-        boolean removed = false;
-        for (final Map.Entry<K, V> elem : super.entrySet()) {
-            if (predicate.test(elem)) {
-                removed = true;
-                super.remove(elem.getKey());
-                ++i;
+        for (int i = 0; i < oldSize; ++i) {
+            final K key = storage.get(i);
+            if (predicate.test(new AbstractMap.SimpleImmutableEntry<>(key, super.get(key)))) {
+                super.remove(key);
                 continue;
             }
-            if (i != j) {
-                storage.set(j, elem.getKey());
-            }
-            ++j;
-            ++i;
+            storage.set(j++, key);
         }
-        storage.subList(j, storage.size()).clear();
+        storage.subList(j, oldSize).clear();
+        final boolean removed = j != oldSize;
+        ContainerEvents.commit(event, "ArrayHashMap", oldSize, storage.size());
         return removed;
     }
 
+    // Empty map of a given size, HashMap.putAll grows its table for it and inserts nothing
+    private static final class SizeHint<K, V> extends AbstractMap<K, V> {
+        private final int size;
+
+        private SizeHint(final int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public @NotNull Set<Entry<K, V>> entrySet() {
+            return Collections.emptySet();
+        }
+    }
+
+    // Table capacity that holds expectedSize entries without resizing
+    private static int capacityFor(final int expectedSize) {
+        return (int) Math.min(expectedSize / 0.75F + 1.0F, Integer.MAX_VALUE);
+    }
+
     Stream<Entry<K, V>> stream() {
         return StreamSupport.stream(this.spliterator(), false);
     }
@@ -9,15 +9,26 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Objects;
 import java.util.Spliterator;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.jetbrains.annotations.NotNull;
 
 public class ArrayHashSet<T> extends HashSet<T> implements Iterable<T> {
-    private ArrayList<T> storage;
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+    private static final int MAX_TABLE_CAPACITY = 1 << 30;
+
+    private final ArrayList<T> storage;
+    private final float loadFactor;
+    // Mirrors of capacities the JDK hides, used to report resizes to JFR and stats
+    private int tableCapacity;
+    private int storageCapacity;
+    // Answers most misses before the table is probed, null if disabled
+    private BlockedBloomFilter prefilter;
 
     public ArrayHashSet() {
         this(16, 0.75F);
@@ -28,11 +39,39 @@ public class ArrayHashSet<T> extends HashSet<T> implements Iterable<T> {
     }
 
     public ArrayHashSet(final int capacity, final float loadFactor) {
+        this(capacity, loadFactor, false);
+    }
+
+    /**
+     * @param capacity   initial table capacity
+     * @param loadFactor load factor of the table
+     * @param prefilter  keep a blocked Bloom filter of the elements, so contains and
+     *                   remove of absent elements mostly skip the table, worth it
+     *                   when most lookups miss
+     */
+    public ArrayHashSet(final int capacity, final float loadFactor, final boolean prefilter) {
         super(capacity, loadFactor);
         storage = new ArrayList<>(capacity);
+        this.loadFactor = loadFactor;
+        tableCapacity = ContainerEvents.tableCapacity(capacity);
+        storageCapacity = capacity;
+        if (prefilter) {
+            this.prefilter = new BlockedBloomFilter(capacity);
+        }
+    }
+
+    /**
+     * @param strategy hash and equality used for elements
+     * @param <T>      type hashed by strategy
+     * @return empty insertion-ordered set hashing elements by strategy, e.g. byte[] by content
+     */
+    public static <T> @NotNull CustomArrayHashSet<T> withStrategy(
+        final @NotNull HashStrategy<? super T> strategy) {
+        return new CustomArrayHashSet<>(strategy);
     }
 
     public ArrayHashSet(final Collection<? extends T> collection) {
+        this(Math.max(capacityFor(collection.size()), 16), 0.75F);
         this.addAll(collection);
     }
 
@@ -45,12 +84,51 @@ public class ArrayHashSet<T> extends HashSet<T> implements Iterable<T> {
 
     @Override
     public boolean add(final T value) {
-        return super.add(value) && storage.add(value);
+        final ContainerEvents.Resize rehash = beginRehash(super.size());
+        if (!super.add(value)) {
+            return false;
+        }
+        commitRehash(rehash);
+        storageCapacity = ContainerEvents.ensureRoom(storage, storageCapacity, "ArrayHashSet", "storage");
+        storage.add(value);
+        if (prefilter != null) {
+            prefilter.add(Objects.hashCode(value));
+            if (prefilter.isFull()) {
+                rebuildPrefilter();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return (prefilter == null || prefilter.mightContain(Objects.hashCode(o))) && super.contains(o);
     }
 
     public void clear() {
         super.clear();
         storage.clear();
+        if (prefilter != null) {
+            prefilter = new BlockedBloomFilter(prefilter.capacity());
+        }
+    }
+
+    /**
+     * @return collision chains, load and footprint of the set, elements excluded
+     */
+    public @NotNull ContainerStats stats() {
+        syncTableCapacity(super.size());
+        return ContainerStats.chained("ArrayHashSet", storage, super.size(), tableCapacity,
+            ContainerStats.objectBytes(6 * 4) + ContainerStats.listBytes(storageCapacity)
+                + (prefilter == null ? 0 : prefilter.sizeInBytes()));
+    }
+
+    // Sized for twice the elements, hashes of removed elements are dropped
+    private void rebuildPrefilter() {
+        prefilter = new BlockedBloomFilter(Math.max(prefilter.capacity(), storage.size() * 2));
+        for (final T elem : storage) {
+            prefilter.add(Objects.hashCode(elem));
+        }
     }
 
     @Override
@@ -63,6 +141,13 @@ public class ArrayHashSet<T> extends HashSet<T> implements Iterable<T> {
         return storage.spliterator();
     }
 
+    /**
+     * @return batch iterator over elements in insertion order, a batch per array copy
+     */
+    public @NotNull BatchIterator<T> batchIterator() {
+        return BatchIterator.of(storage);
+    }
+
     @Override
     public boolean retainAll(final @NotNull Collection<?> collection) {
         return this.removeIf(elem -> !collection.contains(elem));
@@ -75,15 +160,129 @@ public class ArrayHashSet<T> extends HashSet<T> implements Iterable<T> {
 
     @Override
     public boolean removeIf(final Predicate<? super T> filter) {
+        // Compacts storage in one pass instead of an O(n) storage.remove per element
+        final ContainerEvents.Compaction event = new ContainerEvents.Compaction();
+        event.begin();
         final int oldSize = storage.size();
-        this.forEach(elem -> {
+        int j = 0;
+        for (int i = 0; i < oldSize; ++i) {
+            final T elem = storage.get(i);
             if (filter.test(elem)) {
-                this.remove(elem);
+                super.remove(elem);
+                continue;
+            }
+            if (i != j) {
+                storage.set(j, elem);
             }
-        });
+            ++j;
+        }
+        storage.subList(j, oldSize).clear();
+        if (prefilter != null && j != oldSize) {
+            // Drops hashes of removed elements
+            rebuildPrefilter();
+        }
+        ContainerEvents.commit(event, "ArrayHashSet", oldSize, storage.size());
         return oldSize != storage.size();
     }
 
+    /**
+     * @param other set to be joined with this set
+     * @return new set with elements of this set followed by elements of other
+     * that are not in this set, each in first-seen order
+     */
+    public @NotNull ArrayHashSet<T> union(final @NotNull ArrayHashSet<? extends T> other) {
+        final ArrayHashSet<T> result = new ArrayHashSet<>(capacityFor(size() + other.size()));
+        result.storage.ensureCapacity(size() + other.size());
+        result.storageCapacity = Math.max(result.storageCapacity, size() + other.size());
+        result.addAll(storage);
+        result.addAll(other.storage);
+        return result;
+    }
+
+    public @NotNull ArrayHashSet<T> intersect(final @NotNull ArrayHashSet<?> other) {
+        return intersect(other, false);
+    }
+
+    /**
+     * @param other    set to be intersected with this set
+     * @param parallel probe chunks of the smaller set in parallel, worth it for large sets
+     * @return new set with elements of this set that are also in other, in order of this set
+     */
+    public @NotNull ArrayHashSet<T> intersect(final @NotNull ArrayHashSet<?> other,
+        final boolean parallel) {
+        if (other.size() < size()) {
+            // Probe the smaller set into the larger one, then restore order of this set
+            final ArrayHashSet<?> hits = filtered(other.storage, this::contains, other.size(), parallel);
+            final ArrayHashSet<T> result = new ArrayHashSet<>(capacityFor(hits.size()));
+            for (int i = 0; result.size() != hits.size(); ++i) {
+                final T elem = storage.get(i);
+                if (hits.contains(elem)) {
+                    result.add(elem);
+                }
+            }
+            return result;
+        }
+        return filtered(storage, other::contains, other.size(), parallel);
+    }
+
+    public @NotNull ArrayHashSet<T> difference(final @NotNull ArrayHashSet<?> other) {
+        return difference(other, false);
+    }
+
+    /**
+     * @param other    set whose elements are excluded
+     * @param parallel probe chunks of this set in parallel, worth it for large sets
+     * @return new set with elements of this set that are not in other, in order of this set
+     */
+    public @NotNull ArrayHashSet<T> difference(final @NotNull ArrayHashSet<?> other,
+        final boolean parallel) {
+        return filtered(storage, elem -> !other.contains(elem), size(), parallel);
+    }
+
+    /**
+     * @param other set to be compared with this set
+     * @return new set with elements of this set not in other, followed by elements
+     * of other not in this set, each in first-seen order
+     */
+    public @NotNull ArrayHashSet<T> symmetricDifference(
+        final @NotNull ArrayHashSet<? extends T> other) {
+        final ArrayHashSet<T> result = difference(other);
+        for (final T elem : other.storage) {
+            if (!contains(elem)) {
+                result.add(elem);
+            }
+        }
+        return result;
+    }
+
+    private static <T> @NotNull ArrayHashSet<T> filtered(final @NotNull ArrayList<T> source,
+        final @NotNull Predicate<Object> keep, final int expectedSize, final boolean parallel) {
+        final int n = source.size();
+        final ArrayHashSet<T> result = new ArrayHashSet<>(capacityFor(expectedSize));
+        if (!parallel || n < PARALLEL_THRESHOLD) {
+            for (final T elem : source) {
+                if (keep.test(elem)) {
+                    result.add(elem);
+                }
+            }
+            return result;
+        }
+        // Probing is read only and runs in parallel, insertion keeps source order
+        final boolean[] kept = new boolean[n];
+        IntStream.range(0, n).parallel().forEach(i -> kept[i] = keep.test(source.get(i)));
+        for (int i = 0; i < n; ++i) {
+            if (kept[i]) {
+                result.add(source.get(i));
+            }
+        }
+        return result;
+    }
+
+    // Table capacity that holds expectedSize elements without resizing
+    private static int capacityFor(final int expectedSize) {
+        return (int) Math.min(expectedSize / 0.75F + 1.0F, Integer.MAX_VALUE);
+    }
+
     @Override
     public void forEach(final Consumer<? super T> action) {
         storage.forEach(action);
@@ -91,7 +290,45 @@ public class ArrayHashSet<T> extends HashSet<T> implements Iterable<T> {
 
     @Override
     public boolean remove(final Object o) {
-        return super.remove(o) && storage.remove(o);
+        if ((prefilter != null && !prefilter.mightContain(Objects.hashCode(o))) || !super.remove(o)) {
+            return false;
+        }
+        final int index = storage.indexOf(o);
+        // Times the shift of later elements, the pause a removal causes
+        final ContainerEvents.Removal event = new ContainerEvents.Removal();
+        event.begin();
+        storage.remove(index);
+        ContainerEvents.commit(event, "ArrayHashSet", index, storage.size() - index);
+        return true;
+    }
+
+    // Event timing an add that makes HashSet double its table, null if none is due
+    private ContainerEvents.Resize beginRehash(final int size) {
+        syncTableCapacity(size);
+        if (size < threshold() || tableCapacity == MAX_TABLE_CAPACITY) {
+            return null;
+        }
+        final ContainerEvents.Resize event = new ContainerEvents.Resize();
+        event.begin();
+        return event;
+    }
+
+    private void commitRehash(final ContainerEvents.Resize event) {
+        if (event != null) {
+            ContainerEvents.commit(event, "ArrayHashSet", "table", tableCapacity, tableCapacity << 1);
+            tableCapacity <<= 1;
+        }
+    }
+
+    // Catches up with growth of inserts that were not timed
+    private void syncTableCapacity(final int size) {
+        while (size > threshold() && tableCapacity < MAX_TABLE_CAPACITY) {
+            tableCapacity <<= 1;
+        }
+    }
+
+    private int threshold() {
+        return (int) (tableCapacity * loadFactor);
     }
 
     @Override
@@ -0,0 +1,179 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.BiConsumer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Read only multimap with keys in order of their first value. All values are
+ * kept in one flat array sorted by key, values of one key in insertion order,
+ * so n values under k keys cost a few arrays instead of k lists. Value lists
+ * returned by {@link #get} are views into that array.
+ *
+ * <p>Built by {@link Algorithms#groupBy}.
+ */
+public final class ArrayMultimap<K, V> {
+    private final Grouping<K> grouping;
+    // Values of group g are at offsets[g] until offsets[g + 1]
+    private final int[] offsets;
+    private final Object[] values;
+
+    ArrayMultimap(final @NotNull Grouping<K> grouping, final int @NotNull [] offsets,
+        final Object @NotNull [] values) {
+        this.grouping = grouping;
+        this.offsets = offsets;
+        this.values = values;
+    }
+
+    /**
+     * @return number of values
+     */
+    public int size() {
+        return values.length;
+    }
+
+    public int keyCount() {
+        return grouping.keyCount();
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public boolean containsKey(final K key) {
+        return grouping.find(key) >= 0;
+    }
+
+    /**
+     * @param key key of values
+     * @return values of key in insertion order, empty if key is not present
+     */
+    public @NotNull List<V> get(final K key) {
+        final int group = grouping.find(key);
+        return group < 0 ? Collections.emptyList() : group(group);
+    }
+
+    /**
+     * @param key key of values
+     * @return number of values of key
+     */
+    public int count(final K key) {
+        final int group = grouping.find(key);
+        return group < 0 ? 0 : offsets[group + 1] - offsets[group];
+    }
+
+    /**
+     * @return keys in order of their first value
+     */
+    public @NotNull List<K> keys() {
+        return new Keys();
+    }
+
+    /**
+     * @param action action applied to every key and its values, in key order
+     */
+    public void forEach(final @NotNull BiConsumer<? super K, ? super List<V>> action) {
+        for (int g = 0; g < grouping.keyCount(); ++g) {
+            action.accept(grouping.key(g), group(g));
+        }
+    }
+
+    /**
+     * @return map from keys to views of their values, in key order
+     */
+    public @NotNull ArrayHashMap<K, List<V>> toMap() {
+        final Object[] groups = new Object[grouping.keyCount()];
+        for (int g = 0; g < groups.length; ++g) {
+            groups[g] = group(g);
+        }
+        return grouping.toMap(groups);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ArrayMultimap<K, ?> other = (ArrayMultimap<K, ?>) o;
+        if (keyCount() != other.keyCount() || size() != other.size()) {
+            return false;
+        }
+        for (int g = 0; g < keyCount(); ++g) {
+            final K key = grouping.key(g);
+            if (!other.containsKey(key) || !group(g).equals(other.get(key))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int g = 0; g < keyCount(); ++g) {
+            hash += Objects.hashCode(grouping.key(g)) ^ group(g).hashCode();
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("{");
+        for (int g = 0; g < keyCount(); ++g) {
+            if (g != 0) {
+                builder.append(", ");
+            }
+            builder.append(grouping.key(g)).append('=').append(group(g));
+        }
+        return builder.append('}').toString();
+    }
+
+    private @NotNull List<V> group(final int group) {
+        return new Values(offsets[group], offsets[group + 1]);
+    }
+
+    private final class Values extends AbstractList<V> implements RandomAccess {
+        private final int from;
+        private final int to;
+
+        private Values(final int from, final int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public V get(final int index) {
+            Objects.checkIndex(index, to - from);
+            return (V) values[from + index];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+
+    private final class Keys extends AbstractList<K> implements RandomAccess {
+        @Override
+        public K get(final int index) {
+            Objects.checkIndex(index, grouping.keyCount());
+            return grouping.key(index);
+        }
+
+        @Override
+        public int size() {
+            return grouping.keyCount();
+        }
+    }
+}
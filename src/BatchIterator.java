@@ -0,0 +1,105 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Iterator handing out elements a batch at a time into a caller supplied
+ * array, so a consumer pays one call per batch instead of
+ * {@code hasNext()} and {@code next()} per element and loops over a plain
+ * array the JIT can unroll. Batch aware kernels are in {@link Algorithms};
+ * countIf, findIf and count are named {@code countIfBatched},
+ * {@code findIfBatched} and {@code countBatched}, as a lambda argument could
+ * also be a {@link java.util.concurrent.Flow.Publisher}.
+ *
+ * <p>Containers hand out their dense storage with {@code batchIterator()},
+ * which copies every batch with one array copy.
+ *
+ * @param <T> element type
+ */
+@FunctionalInterface
+public interface BatchIterator<T> {
+    /**
+     * @param buffer array filled from index 0, its length is the batch size
+     * @return number of elements written, 0 only if there are no more elements
+     */
+    int nextBatch(T @NotNull [] buffer);
+
+    /**
+     * @param iterator iterator of elements
+     * @param <T>      no requirements
+     * @return batch iterator draining iterator
+     */
+    @Contract(value = "_ -> new", pure = true)
+    static <T> @NotNull BatchIterator<T> of(final @NotNull Iterator<? extends T> iterator) {
+        return buffer -> {
+            int n = 0;
+            while (n < buffer.length && iterator.hasNext()) {
+                buffer[n++] = iterator.next();
+            }
+            return n;
+        };
+    }
+
+    /**
+     * @param spliterator spliterator of elements
+     * @param <T>         no requirements
+     * @return batch iterator draining spliterator
+     */
+    @Contract(value = "_ -> new", pure = true)
+    static <T> @NotNull BatchIterator<T> of(final @NotNull Spliterator<? extends T> spliterator) {
+        return new BatchIterator<>() {
+            private T[] target;
+            private int n;
+            // One sink for all batches instead of a capturing lambda per element
+            private final Consumer<T> sink = elem -> target[n++] = elem;
+
+            @Override
+            public int nextBatch(final T @NotNull [] buffer) {
+                target = buffer;
+                n = 0;
+                while (n < buffer.length) {
+                    if (!spliterator.tryAdvance(sink)) {
+                        break;
+                    }
+                }
+                target = null;
+                return n;
+            }
+        };
+    }
+
+    /**
+     * @param list list of elements, must not change structurally while iterated
+     * @param <T>  no requirements
+     * @return batch iterator over list, random access lists are copied a batch
+     * per array copy
+     */
+    @Contract(value = "_ -> new", pure = true)
+    static <T> @NotNull BatchIterator<T> of(final @NotNull List<? extends T> list) {
+        if (!(list instanceof RandomAccess)) {
+            return of(list.iterator());
+        }
+        return new BatchIterator<>() {
+            private int position;
+
+            @Override
+            public int nextBatch(final T @NotNull [] buffer) {
+                final int n = Math.min(buffer.length, list.size() - position);
+                if (n <= 0) {
+                    return 0;
+                }
+                list.subList(position, position + n).toArray(buffer);
+                position += n;
+                return n;
+            }
+        };
+    }
+}
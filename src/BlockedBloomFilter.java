@@ -0,0 +1,101 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+/**
+ * Bloom filter over element hashes whose bits for one hash all lie in one
+ * 64 byte block, so a lookup touches a single block instead of a cache line
+ * per bit. Used by hashed containers as prefilter: a miss answered by the
+ * filter never reaches the hash table.
+ *
+ * <p>Bits can not be removed, so hashes of removed elements stay and count
+ * against the capacity. Owners rebuild the filter from their elements once
+ * {@link #isFull()}, which drops them.
+ */
+final class BlockedBloomFilter {
+    // Eight longs, 512 bits per block
+    private static final int BLOCK_WORDS = 8;
+    private static final int BITS_PER_ELEMENT = 12;
+    // Bits set per hash, each one chosen by nine hash bits
+    private static final int HASHES = 7;
+
+    private final long[] words;
+    private final int blockMask;
+    private final int capacity;
+    private int count;
+
+    /**
+     * @param capacity number of hashes the filter is sized for
+     */
+    BlockedBloomFilter(final int capacity) {
+        this.capacity = Math.max(16, capacity);
+        final long blocks = ((long) this.capacity * BITS_PER_ELEMENT + 511) / 512;
+        final int blockCount = (int) Math.min(1 << 24, Long.highestOneBit(Math.max(1, blocks - 1)) << 1);
+        words = new long[blockCount * BLOCK_WORDS];
+        blockMask = blockCount - 1;
+    }
+
+    /**
+     * @param hash hash of an element
+     * @return false if no element with hash was added
+     */
+    boolean mightContain(final int hash) {
+        final long h = mix(hash);
+        final int block = block(h);
+        long bits = bits(h);
+        for (int i = 0; i < HASHES; ++i) {
+            final int bit = (int) bits & 511;
+            if ((words[block + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+            bits >>>= 9;
+        }
+        return true;
+    }
+
+    /**
+     * @param hash hash of an added element
+     */
+    void add(final int hash) {
+        final long h = mix(hash);
+        final int block = block(h);
+        long bits = bits(h);
+        for (int i = 0; i < HASHES; ++i) {
+            final int bit = (int) bits & 511;
+            words[block + (bit >>> 6)] |= 1L << bit;
+            bits >>>= 9;
+        }
+        ++count;
+    }
+
+    /**
+     * @return true if more hashes were added than the filter is sized for
+     */
+    boolean isFull() {
+        return count > capacity;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    long sizeInBytes() {
+        return ContainerStats.arrayBytes(words.length, 8);
+    }
+
+    // Block is chosen by the top bits of the hash
+    private int block(final long h) {
+        return ((int) (h >>> 40) & blockMask) * BLOCK_WORDS;
+    }
+
+    // Remixed hash whose nine bit groups choose the bits within the block
+    private static long bits(final long h) {
+        final long x = (h ^ (h >>> 29)) * 0xBF58476D1CE4E5B9L;
+        return x ^ (x >>> 32);
+    }
+
+    private static long mix(final int hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 32)) * 0xD6E8FEB86659FD93L;
+        return h ^ (h >>> 32);
+    }
+}
@@ -0,0 +1,175 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayList;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Scalable Bloom filter: approximate set membership with no false negatives
+ * and a bounded rate of false positives, in a few bits per element.
+ *
+ * <p>The filter is a series of plain Bloom filters. When the last one holds
+ * its expected number of elements a filter twice as large with half the false
+ * positive rate is added, so the filter grows with the number of distinct
+ * elements and the rate over all filters stays below the requested one.
+ * Filters stop growing at 2^31 bits; filters at that cap hold fewer elements
+ * instead, so each still meets its rate.
+ * Each element is hashed once, bit positions are derived from the 64-bit mix
+ * of that hash by double hashing.
+ *
+ * @param <T> element type
+ */
+public final class BloomFilter<T> {
+    private static final double LN2 = Math.log(2);
+    // Bits of one stage, keeps the bit index product below 2^63
+    private static final long MAX_STAGE_BITS = 1L << 31;
+
+    private final HashStrategy<? super T> strategy;
+    private final ArrayList<Stage> stages = new ArrayList<>();
+    private final int expectedElements;
+    private final double falsePositiveRate;
+    private long count;
+
+    /**
+     * @param expectedElements  elements of the first filter, later ones double it
+     * @param falsePositiveRate bound of the false positive rate, in (0, 1)
+     */
+    public BloomFilter(final int expectedElements, final double falsePositiveRate) {
+        this(expectedElements, falsePositiveRate, HashStrategy.natural());
+    }
+
+    /**
+     * @param expectedElements  elements of the first filter, later ones double it
+     * @param falsePositiveRate bound of the false positive rate, in (0, 1)
+     * @param strategy          hash used for elements
+     */
+    public BloomFilter(final int expectedElements, final double falsePositiveRate,
+        final @NotNull HashStrategy<? super T> strategy) {
+        if (expectedElements <= 0) {
+            throw new IllegalArgumentException("Expected elements must be positive: " + expectedElements);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        this.expectedElements = expectedElements;
+        this.falsePositiveRate = falsePositiveRate;
+        this.strategy = strategy;
+        clear();
+    }
+
+    /**
+     * @param value value to look for
+     * @return false if value was never added, true if it probably was
+     */
+    public boolean mightContain(final T value) {
+        final long h = mix(strategy.hash(value));
+        for (int s = stages.size() - 1; s >= 0; --s) {
+            if (stages.get(s).contains(h)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param value value to add
+     * @return true if value was certainly not present before, false if it probably was
+     */
+    public boolean add(final T value) {
+        final long h = mix(strategy.hash(value));
+        for (int s = stages.size() - 1; s >= 0; --s) {
+            if (stages.get(s).contains(h)) {
+                return false;
+            }
+        }
+        Stage last = stages.get(stages.size() - 1);
+        if (last.count == last.capacity) {
+            // Twice the elements at half the rate keeps the sum of rates bounded
+            last = new Stage((int) Math.min(last.capacity * 2L, Integer.MAX_VALUE >> 4),
+                last.falsePositiveRate / 2);
+            stages.add(last);
+        }
+        last.add(h);
+        ++count;
+        return true;
+    }
+
+    /**
+     * @return number of values that were added as new
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return bytes of all bit arrays
+     */
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (final Stage stage : stages) {
+            bytes += stage.bits.length * 8L;
+        }
+        return bytes;
+    }
+
+    public void clear() {
+        stages.clear();
+        // Rates of the stages are halved, so they sum to falsePositiveRate at most
+        stages.add(new Stage(expectedElements, falsePositiveRate / 2));
+        count = 0;
+    }
+
+    private static long mix(final int hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 32)) * 0xD6E8FEB86659FD93L;
+        return h ^ (h >>> 32);
+    }
+
+    private static final class Stage {
+        private final long[] bits;
+        private final long size;
+        private final int hashes;
+        private final int capacity;
+        private final double falsePositiveRate;
+        private int count;
+
+        private Stage(final int capacity, final double falsePositiveRate) {
+            final double bitsPerElement = -Math.log(falsePositiveRate) / (LN2 * LN2);
+            // Fewer elements rather than fewer bits, so the rate of the stage holds
+            this.capacity = (int) Math.max(1, Math.min(capacity, MAX_STAGE_BITS / bitsPerElement));
+            final long m = (long) Math.ceil(this.capacity * bitsPerElement);
+            bits = new long[(int) Math.max(1, (Math.min(m, MAX_STAGE_BITS) + 63) >>> 6)];
+            size = bits.length * 64L;
+            hashes = Math.max(1, (int) Math.round((double) size / this.capacity * LN2));
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        private boolean contains(final long h) {
+            final int h1 = (int) h;
+            final int h2 = (int) (h >>> 32) | 1;
+            for (int i = 0; i < hashes; ++i) {
+                final long bit = index(h1 + i * h2);
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void add(final long h) {
+            final int h1 = (int) h;
+            final int h2 = (int) (h >>> 32) | 1;
+            for (int i = 0; i < hashes; ++i) {
+                final long bit = index(h1 + i * h2);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+            ++count;
+        }
+
+        // Maps a 32 bit hash onto the bit range without division
+        private long index(final int hash) {
+            return ((hash & 0xFFFFFFFFL) * size) >>> 32;
+        }
+    }
+}
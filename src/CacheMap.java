@@ -0,0 +1,205 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Size bounded map for hot-key caching. Entries are kept in access order, so
+ * the eldest entry is always the least recently used one and get/put stay
+ * O(1).
+ *
+ * <p>With {@link Policy#TINY_LFU} a frequency sketch of recently seen keys
+ * decides admission: when the cache is full, a new key is only admitted if it
+ * was requested more often than the LRU victim it would replace, otherwise the
+ * new entry itself is dropped. This keeps one-hit wonders from flushing the
+ * cache. Rejected keys are counted apart from evicted entries.
+ *
+ * <p>The eviction listener is not serialized.
+ */
+public class CacheMap<K, V> extends LinkedHashMap<K, V> {
+    public enum Policy {
+        LRU,
+        TINY_LFU
+    }
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+    private final FrequencySketch sketch;
+    private final transient BiConsumer<? super K, ? super V> evictionListener;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long rejectionCount;
+
+    public CacheMap(final int maxSize) {
+        this(maxSize, Policy.LRU, null);
+    }
+
+    /**
+     * @param maxSize          maximal number of entries
+     * @param policy           eviction policy
+     * @param evictionListener called with every evicted or rejected entry, may be null
+     */
+    public CacheMap(final int maxSize, final @NotNull Policy policy,
+        final BiConsumer<? super K, ? super V> evictionListener) {
+        super(Math.max(16, (int) (maxSize / 0.75F) + 1), 0.75F, true);
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Maximal size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.sketch = policy == Policy.TINY_LFU ? new FrequencySketch(maxSize) : null;
+        this.evictionListener = evictionListener;
+    }
+
+    @Override
+    public V get(final Object key) {
+        return getOrDefault(key, null);
+    }
+
+    @Override
+    public V getOrDefault(final Object key, final V defaultValue) {
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        final V value = super.get(key);
+        if (value != null || super.containsKey(key)) {
+            ++hitCount;
+            return value;
+        }
+        ++missCount;
+        return defaultValue;
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        if (size() >= maxSize && !super.containsKey(key)) {
+            final Map.Entry<K, V> victim = super.entrySet().iterator().next();
+            if (sketch != null && sketch.frequency(key) <= sketch.frequency(victim.getKey())) {
+                rejected(key, value);
+                return null;
+            }
+            super.remove(victim.getKey());
+            evicted(victim.getKey(), victim.getValue());
+        }
+        return super.put(key, value);
+    }
+
+    // Bound for insertions that bypass put, such as compute and merge
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+        if (size() > maxSize) {
+            evicted(eldest.getKey(), eldest.getValue());
+            return true;
+        }
+        return false;
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    public long hitCount() {
+        return hitCount;
+    }
+
+    public long missCount() {
+        return missCount;
+    }
+
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return number of new entries dropped by TinyLFU admission
+     */
+    public long rejectionCount() {
+        return rejectionCount;
+    }
+
+    private void evicted(final K key, final V value) {
+        ++evictionCount;
+        ContainerEvents.evicted("CacheMap", 1);
+        if (evictionListener != null) {
+            evictionListener.accept(key, value);
+        }
+    }
+
+    private void rejected(final K key, final V value) {
+        ++rejectionCount;
+        if (evictionListener != null) {
+            evictionListener.accept(key, value);
+        }
+    }
+
+    /**
+     * Count-min sketch with four rows of counters saturating at 15. All
+     * counters are halved after a sample period, so old popularity fades.
+     */
+    private static final class FrequencySketch implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private static final int DEPTH = 4;
+        // DEPTH rows of this width still fit in an array
+        private static final int MAX_WIDTH = 1 << 28;
+        private static final int[] SEEDS = {0x97CB3127, 0xC2B2AE35, 0x85EBCA6B, 0x27D4EB2F};
+
+        private final byte[] table;
+        private final int mask;
+        private final int samplePeriod;
+        private int samples;
+
+        private FrequencySketch(final int maxSize) {
+            final int width = (int) Math.min(MAX_WIDTH, Long.highestOneBit(Math.max(16L, maxSize - 1L) << 3));
+            table = new byte[width * DEPTH];
+            mask = width - 1;
+            // Ten samples per entry, clamped for sizes near Integer.MAX_VALUE
+            samplePeriod = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(16, maxSize));
+        }
+
+        private void increment(final Object key) {
+            final int hash = spread(Objects.hashCode(key));
+            for (int row = 0; row < DEPTH; ++row) {
+                final int i = index(hash, row);
+                if (table[i] < 15) {
+                    ++table[i];
+                }
+            }
+            if (++samples == samplePeriod) {
+                samples /= 2;
+                for (int i = 0; i < table.length; ++i) {
+                    table[i] >>= 1;
+                }
+            }
+        }
+
+        private int frequency(final Object key) {
+            final int hash = spread(Objects.hashCode(key));
+            int min = 15;
+            for (int row = 0; row < DEPTH; ++row) {
+                min = Math.min(min, table[index(hash, row)]);
+            }
+            return min;
+        }
+
+        private int index(final int hash, final int row) {
+            int h = hash * SEEDS[row];
+            h ^= h >>> 16;
+            return row * (mask + 1) + (h & mask);
+        }
+
+        private static int spread(final int hash) {
+            final int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 15);
+        }
+    }
+}
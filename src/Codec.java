@@ -0,0 +1,76 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Binary serializer used by containers and algorithms that move elements
+ * out of the heap.
+ *
+ * @param <T> type of serialized values
+ */
+public interface Codec<T> {
+    /**
+     * @param value value to be written
+     * @param out   destination
+     * @throws IOException if destination fails
+     */
+    void write(T value, @NotNull DataOutput out) throws IOException;
+
+    /**
+     * @param in source positioned at value written by {@link #write}
+     * @return value read from source
+     * @throws IOException if source fails or is truncated
+     */
+    T read(@NotNull DataInput in) throws IOException;
+
+    @Contract(pure = true)
+    static @NotNull Codec<String> strings() {
+        return new Codec<String>() {
+            @Override
+            public void write(final String value, final @NotNull DataOutput out) throws IOException {
+                out.writeUTF(value);
+            }
+
+            @Override
+            public String read(final @NotNull DataInput in) throws IOException {
+                return in.readUTF();
+            }
+        };
+    }
+
+    @Contract(pure = true)
+    static @NotNull Codec<Integer> integers() {
+        return new Codec<Integer>() {
+            @Override
+            public void write(final Integer value, final @NotNull DataOutput out) throws IOException {
+                out.writeInt(value);
+            }
+
+            @Override
+            public Integer read(final @NotNull DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+    }
+
+    @Contract(pure = true)
+    static @NotNull Codec<Long> longs() {
+        return new Codec<Long>() {
+            @Override
+            public void write(final Long value, final @NotNull DataOutput out) throws IOException {
+                out.writeLong(value);
+            }
+
+            @Override
+            public Long read(final @NotNull DataInput in) throws IOException {
+                return in.readLong();
+            }
+        };
+    }
+}
@@ -0,0 +1,386 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Thread safe counterpart of {@link ArrayHashMap} for read-mostly use.
+ *
+ * <p>Lookups go to a {@link ConcurrentHashMap} index and never block.
+ * Insertion order is kept in an append-only log of entry nodes; a removed
+ * node stays in the log with a cleared value until the log is compacted.
+ * Iteration reads the log without locking and is weakly consistent: it
+ * sees every entry present when it started that was not removed before it
+ * reached it, and may or may not see later changes. Writers are serialized
+ * by a single lock. Neither keys nor values may be null.
+ */
+public class ConcurrentArrayHashMap<K, V> extends AbstractMap<K, V>
+    implements ConcurrentMap<K, V>, Iterable<Map.Entry<K, V>> {
+    private final ConcurrentHashMap<K, Node<K, V>> index;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Array and size are replaced together, readers read log once per traversal
+    private volatile Log<K, V> log;
+    private int removedInLog;
+
+    public ConcurrentArrayHashMap() {
+        this(16);
+    }
+
+    public ConcurrentArrayHashMap(final @NotNull Map<? extends K, ? extends V> map) {
+        this(map.size());
+        this.putAll(map);
+    }
+
+    public ConcurrentArrayHashMap(final int initialCapacity) {
+        index = new ConcurrentHashMap<>(initialCapacity);
+        log = new Log<>(Log.nodes(Math.max(initialCapacity, 4)), 0);
+    }
+
+    @Override
+    public V get(final Object key) {
+        final Node<K, V> node = index.get(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return index.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    @Override
+    public V put(final @NotNull K key, final @NotNull V value) {
+        Objects.requireNonNull(value);
+        writeLock.lock();
+        try {
+            final Node<K, V> node = index.get(key);
+            if (node != null) {
+                final V old = node.value;
+                node.value = value;
+                return old;
+            }
+            append(key, value);
+            return null;
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public V putIfAbsent(final @NotNull K key, final @NotNull V value) {
+        Objects.requireNonNull(value);
+        final Node<K, V> existing = index.get(key);
+        if (existing != null) {
+            // Null if a remove unlinked the node meanwhile, then decide under the lock
+            final V current = existing.value;
+            if (current != null) {
+                return current;
+            }
+        }
+        writeLock.lock();
+        try {
+            final Node<K, V> node = index.get(key);
+            if (node != null) {
+                return node.value;
+            }
+            append(key, value);
+            return null;
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public V remove(final Object key) {
+        if (!index.containsKey(key)) {
+            return null;
+        }
+        writeLock.lock();
+        try {
+            final Node<K, V> node = index.remove(key);
+            return node == null ? null : unlink(node);
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(final Object key, final Object value) {
+        writeLock.lock();
+        try {
+            final Node<K, V> node = index.get(key);
+            if (node == null || !node.value.equals(value)) {
+                return false;
+            }
+            index.remove(key);
+            unlink(node);
+            return true;
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(final @NotNull K key, final @NotNull V oldValue,
+        final @NotNull V newValue) {
+        Objects.requireNonNull(newValue);
+        writeLock.lock();
+        try {
+            final Node<K, V> node = index.get(key);
+            if (node == null || !node.value.equals(oldValue)) {
+                return false;
+            }
+            node.value = newValue;
+            return true;
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public V replace(final @NotNull K key, final @NotNull V value) {
+        Objects.requireNonNull(value);
+        writeLock.lock();
+        try {
+            final Node<K, V> node = index.get(key);
+            if (node == null) {
+                return null;
+            }
+            final V old = node.value;
+            node.value = value;
+            return old;
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> m) {
+        if (m != null) {
+            writeLock.lock();
+            try {
+                m.forEach(this::put);
+            }
+            finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        writeLock.lock();
+        try {
+            final Log<K, V> current = log;
+            for (int i = 0; i < current.size; ++i) {
+                current.nodes[i].value = null;
+            }
+            index.clear();
+            log = new Log<>(Log.nodes(current.nodes.length), 0);
+            removedInLog = 0;
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void forEach(final @NotNull BiConsumer<? super K, ? super V> action) {
+        final Log<K, V> current = log;
+        for (int i = 0; i < current.size; ++i) {
+            final Node<K, V> node = current.nodes[i];
+            final V value = node.value;
+            if (value != null) {
+                action.accept(node.key, value);
+            }
+        }
+    }
+
+    boolean removeIf(final @NotNull Predicate<Map.Entry<K, V>> predicate) {
+        writeLock.lock();
+        try {
+            boolean removed = false;
+            final Log<K, V> current = log;
+            for (int i = 0; i < current.size; ++i) {
+                final Node<K, V> node = current.nodes[i];
+                if (node.value != null
+                    && predicate.test(new AbstractMap.SimpleImmutableEntry<>(node.key, node.value))) {
+                    index.remove(node.key);
+                    unlink(node);
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+        finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public @NotNull Iterator<Map.Entry<K, V>> iterator() {
+        return new LogIterator();
+    }
+
+    Stream<Entry<K, V>> stream() {
+        return StreamSupport.stream(this.spliterator(), false);
+    }
+
+    @Override
+    public @NotNull Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public @NotNull Iterator<Entry<K, V>> iterator() {
+                return new LogIterator();
+            }
+
+            @Override
+            public int size() {
+                return index.size();
+            }
+        };
+    }
+
+    // Caller holds writeLock
+    private void append(final K key, final V value) {
+        final Node<K, V> node = new Node<>(key, value);
+        final int n = log.size;
+        Node<K, V>[] nodes = log.nodes;
+        if (n == nodes.length) {
+            final ContainerEvents.Resize event = new ContainerEvents.Resize();
+            event.begin();
+            nodes = Arrays.copyOf(nodes, n + (n >> 1));
+            ContainerEvents.commit(event, "ConcurrentArrayHashMap", "log", n, nodes.length);
+        }
+        // Slot n is beyond the size of every published snapshot
+        nodes[n] = node;
+        index.put(key, node);
+        log = new Log<>(nodes, n + 1);
+    }
+
+    // Caller holds writeLock and removed node from index
+    private V unlink(final @NotNull Node<K, V> node) {
+        final V old = node.value;
+        node.value = null;
+        if (++removedInLog > 16 && removedInLog > log.size / 2) {
+            compact();
+        }
+        return old;
+    }
+
+    // Copies live nodes to a fresh log, iterators keep walking the old one
+    private void compact() {
+        final ContainerEvents.Compaction event = new ContainerEvents.Compaction();
+        event.begin();
+        final Node<K, V>[] nodes = log.nodes;
+        final int n = log.size;
+        final Node<K, V>[] live = Log.nodes(Math.max(nodes.length / 2, 4));
+        int j = 0;
+        for (int i = 0; i < n; ++i) {
+            if (nodes[i].value != null) {
+                live[j++] = nodes[i];
+            }
+        }
+        log = new Log<>(live, j);
+        removedInLog = 0;
+        ContainerEvents.commit(event, "ConcurrentArrayHashMap", n, j);
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private volatile V value;
+
+        private Node(final K key, final V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    // Log array with the number of its slots in use, never changed once published
+    private static final class Log<K, V> {
+        private final Node<K, V>[] nodes;
+        private final int size;
+
+        private Log(final Node<K, V> @NotNull [] nodes, final int size) {
+            this.nodes = nodes;
+            this.size = size;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static <K, V> Node<K, V> @NotNull [] nodes(final int length) {
+            return new Node[length];
+        }
+    }
+
+    private class LogIterator implements Iterator<Map.Entry<K, V>> {
+        private final Log<K, V> snapshot = log;
+        private final int end = snapshot.size;
+        private final Node<K, V>[] nodes = snapshot.nodes;
+        private int current;
+        private Map.Entry<K, V> nextEntry;
+        private K lastKey;
+
+        @Override
+        public boolean hasNext() {
+            while (nextEntry == null && current < end) {
+                final Node<K, V> node = nodes[current++];
+                final V value = node.value;
+                if (value != null) {
+                    nextEntry = new AbstractMap.SimpleImmutableEntry<>(node.key, value);
+                }
+            }
+            return nextEntry != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Map.Entry<K, V> entry = nextEntry;
+            nextEntry = null;
+            lastKey = entry.getKey();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            ConcurrentArrayHashMap.this.remove(lastKey);
+            lastKey = null;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayList;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * JDK Flight Recorder events of container internals, so pauses in a recording
+ * can be matched with the resize, compaction, removal or eviction that caused
+ * them. All events are disabled by default and cost a field check until a
+ * recording enables them, e.g. with {@code absl1.Resize#enabled=true} in the
+ * .jfc settings file of the recording.
+ *
+ * <p>Events are begun before the work and committed after it, so their
+ * duration is the time spent in the container.
+ */
+final class ContainerEvents {
+    private ContainerEvents() {
+    }
+
+    @Name("absl1.Resize")
+    @Label("Container Resize")
+    @Description("Backing array or hash table of a container was grown or rehashed")
+    @Category({"absl1", "Containers"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Resize extends Event {
+        @Label("Container")
+        String container;
+
+        @Label("Structure")
+        @Description("Grown part of the container, e.g. table, storage or log")
+        String structure;
+
+        @Label("Old Capacity")
+        long oldCapacity;
+
+        @Label("New Capacity")
+        long newCapacity;
+    }
+
+    @Name("absl1.Compaction")
+    @Label("Container Compaction")
+    @Description("Container removed many elements or dead entries in one pass")
+    @Category({"absl1", "Containers"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Compaction extends Event {
+        @Label("Container")
+        String container;
+
+        @Label("Size Before")
+        long sizeBefore;
+
+        @Label("Size After")
+        long sizeAfter;
+    }
+
+    @Name("absl1.Removal")
+    @Label("Long Container Removal")
+    @Description("Removal of one element that had to shift the following elements")
+    @Category({"absl1", "Containers"})
+    @Enabled(false)
+    @Threshold("1 ms")
+    static final class Removal extends Event {
+        @Label("Container")
+        String container;
+
+        @Label("Index")
+        long index;
+
+        @Label("Shifted Elements")
+        long shifted;
+    }
+
+    @Name("absl1.Eviction")
+    @Label("Container Eviction")
+    @Description("Entries dropped because of a size bound or expiry")
+    @Category({"absl1", "Containers"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class Eviction extends Event {
+        @Label("Container")
+        String container;
+
+        @Label("Evicted Entries")
+        long count;
+    }
+
+    static void commit(final @NotNull Resize event, final @NotNull String container,
+        final @NotNull String structure, final long oldCapacity, final long newCapacity) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.container = container;
+            event.structure = structure;
+            event.oldCapacity = oldCapacity;
+            event.newCapacity = newCapacity;
+            event.commit();
+        }
+    }
+
+    static void commit(final @NotNull Compaction event, final @NotNull String container,
+        final long sizeBefore, final long sizeAfter) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.container = container;
+            event.sizeBefore = sizeBefore;
+            event.sizeAfter = sizeAfter;
+            event.commit();
+        }
+    }
+
+    static void commit(final @NotNull Removal event, final @NotNull String container,
+        final long index, final long shifted) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.container = container;
+            event.index = index;
+            event.shifted = shifted;
+            event.commit();
+        }
+    }
+
+    static void commit(final @NotNull Eviction event, final @NotNull String container,
+        final long count) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.container = container;
+            event.count = count;
+            event.commit();
+        }
+    }
+
+    static void evicted(final @NotNull String container, final long count) {
+        commit(new Eviction(), container, count);
+    }
+
+    /**
+     * Grows a full list by half itself, as ArrayList would on the next add,
+     * and reports the copy. ArrayList hides its capacity, so callers mirror it.
+     *
+     * @param list      list about to get one more element
+     * @param capacity  mirrored capacity of list
+     * @param container container owning list
+     * @param structure name of list within container
+     * @return mirrored capacity after the call
+     */
+    static int ensureRoom(final @NotNull ArrayList<?> list, final int capacity,
+        final @NotNull String container, final @NotNull String structure) {
+        if (list.size() < capacity) {
+            return capacity;
+        }
+        final int grown = (int) Math.min(Integer.MAX_VALUE - 8,
+            Math.max(capacity + 1L, capacity + (capacity >> 1)));
+        final Resize event = new Resize();
+        event.begin();
+        list.ensureCapacity(grown);
+        commit(event, container, structure, capacity, grown);
+        return grown;
+    }
+
+    /**
+     * @param initialCapacity capacity passed to a HashMap or HashSet constructor
+     * @return table capacity HashMap allocates for initialCapacity
+     */
+    static int tableCapacity(final int initialCapacity) {
+        return initialCapacity <= 1 ? 1 : Integer.highestOneBit(initialCapacity - 1) << 1;
+    }
+}
@@ -0,0 +1,179 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Optional registry publishing {@link ContainerStats} of named containers as
+ * MXBeans {@code absl1:type=Container,name=<name>} on the platform MBean
+ * server, so JConsole or any JMX collector can watch them in production.
+ *
+ * <p>Nothing is registered unless asked for. The stats source is called from
+ * JMX threads, so a container shared across threads should be read under its
+ * lock, e.g. {@code () -> { synchronized (map) { return map.stats(); } }}.
+ * Registration keeps the source reachable until {@link #unregister}.
+ */
+public final class ContainerMBeans {
+    private static final String DOMAIN = "absl1";
+    // Attributes read within this time share one snapshot, so a poller scans once
+    private static final long MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private ContainerMBeans() {
+    }
+
+    /**
+     * Attributes of a registered container, each from a recent snapshot.
+     */
+    public interface StatsMXBean {
+        String getContainer();
+
+        int getSize();
+
+        int getCapacity();
+
+        double getLoadFactor();
+
+        double getAverageProbeLength();
+
+        int getMaxProbeLength();
+
+        int getTombstones();
+
+        double getTombstoneRatio();
+
+        int getFreeSlots();
+
+        long getEstimatedBytes();
+    }
+
+    /**
+     * @param name  unique name of the container
+     * @param stats source of snapshots, e.g. {@code map::stats}
+     * @return name the MXBean was registered under
+     * @throws IllegalArgumentException if name is already registered
+     */
+    public static @NotNull ObjectName register(final @NotNull String name,
+        final @NotNull Supplier<ContainerStats> stats) {
+        final ObjectName objectName = objectName(name);
+        try {
+            server().registerMBean(new Stats(stats), objectName);
+        }
+        catch (final InstanceAlreadyExistsException e) {
+            throw new IllegalArgumentException("Container already registered: " + name, e);
+        }
+        catch (final JMException e) {
+            throw new IllegalStateException(e);
+        }
+        return objectName;
+    }
+
+    /**
+     * @param name name passed to {@link #register}
+     * @return true if a container was registered under name
+     */
+    public static boolean unregister(final @NotNull String name) {
+        try {
+            server().unregisterMBean(objectName(name));
+            return true;
+        }
+        catch (final InstanceNotFoundException e) {
+            return false;
+        }
+        catch (final JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static @NotNull ObjectName objectName(final @NotNull String name) {
+        try {
+            return new ObjectName(DOMAIN + ":type=Container,name=" + ObjectName.quote(name));
+        }
+        catch (final MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static @NotNull MBeanServer server() {
+        return ManagementFactory.getPlatformMBeanServer();
+    }
+
+    private static final class Stats implements StatsMXBean {
+        private final Supplier<ContainerStats> source;
+        private ContainerStats snapshot;
+        private long takenAt;
+
+        private Stats(final @NotNull Supplier<ContainerStats> source) {
+            this.source = source;
+        }
+
+        @Override
+        public String getContainer() {
+            return snapshot().container();
+        }
+
+        @Override
+        public int getSize() {
+            return snapshot().size();
+        }
+
+        @Override
+        public int getCapacity() {
+            return snapshot().capacity();
+        }
+
+        @Override
+        public double getLoadFactor() {
+            return snapshot().loadFactor();
+        }
+
+        @Override
+        public double getAverageProbeLength() {
+            return snapshot().averageProbeLength();
+        }
+
+        @Override
+        public int getMaxProbeLength() {
+            return snapshot().maxProbeLength();
+        }
+
+        @Override
+        public int getTombstones() {
+            return snapshot().tombstones();
+        }
+
+        @Override
+        public double getTombstoneRatio() {
+            return snapshot().tombstoneRatio();
+        }
+
+        @Override
+        public int getFreeSlots() {
+            return snapshot().freeSlots();
+        }
+
+        @Override
+        public long getEstimatedBytes() {
+            return snapshot().estimatedBytes();
+        }
+
+        private synchronized @NotNull ContainerStats snapshot() {
+            final long now = System.nanoTime();
+            if (snapshot == null || now - takenAt > MAX_AGE_NANOS) {
+                snapshot = source.get();
+                takenAt = now;
+            }
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Snapshot of the shape of one container: how full its table is, how long
+ * lookups probe and roughly how much heap it holds. Meant for tuning initial
+ * capacities and spotting degenerate hash functions, see {@link ContainerMBeans}
+ * to publish it over JMX.
+ *
+ * <p>Probe length is the number of slots, chain nodes or groups a lookup of a
+ * present element visits, 1 when it is found at once. Containers without
+ * hashing report 0. Byte counts assume compressed references and exclude the
+ * elements themselves.
+ */
+public final class ContainerStats {
+    private static final int HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    // HashMap object with its six inherited fields, and one of its nodes
+    private static final int HASH_MAP = HEADER + 4 * REFERENCE + 4 * 4;
+    private static final int NODE = HEADER + 4 + 3 * REFERENCE;
+
+    private final String container;
+    private final int size;
+    private final int capacity;
+    private final double averageProbeLength;
+    private final int maxProbeLength;
+    private final int tombstones;
+    private final int freeSlots;
+    private final long estimatedBytes;
+
+    ContainerStats(final @NotNull String container, final int size, final int capacity,
+        final double averageProbeLength, final int maxProbeLength, final int tombstones,
+        final int freeSlots, final long estimatedBytes) {
+        this.container = container;
+        this.size = size;
+        this.capacity = capacity;
+        this.averageProbeLength = averageProbeLength;
+        this.maxProbeLength = maxProbeLength;
+        this.tombstones = tombstones;
+        this.freeSlots = freeSlots;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    /**
+     * @return simple class name of the container
+     */
+    public @NotNull String container() {
+        return container;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return slots or buckets of the hash table, slots of a SlotMap
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return size relative to capacity
+     */
+    public double loadFactor() {
+        return capacity == 0 ? 0 : (double) size / capacity;
+    }
+
+    public double averageProbeLength() {
+        return averageProbeLength;
+    }
+
+    public int maxProbeLength() {
+        return maxProbeLength;
+    }
+
+    /**
+     * @return slots of removed elements that still lengthen probes
+     */
+    public int tombstones() {
+        return tombstones;
+    }
+
+    /**
+     * @return tombstones relative to capacity
+     */
+    public double tombstoneRatio() {
+        return capacity == 0 ? 0 : (double) tombstones / capacity;
+    }
+
+    /**
+     * @return empty slots or buckets, for a SlotMap slots waiting for reuse
+     */
+    public int freeSlots() {
+        return freeSlots;
+    }
+
+    /**
+     * @return estimated heap bytes held by the container, without its elements
+     */
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+            "%s{size=%d, capacity=%d, load=%.3f, probes=%.3f, maxProbe=%d, tombstones=%d, free=%d, bytes=%d}",
+            container, size, capacity, loadFactor(), averageProbeLength, maxProbeLength,
+            tombstones, freeSlots, estimatedBytes);
+    }
+
+    /**
+     * @param container name of the owner of a lookup index
+     * @param bytes     estimated bytes of the owner outside the index
+     * @return these stats attributed to the owner
+     */
+    @Contract("_, _ -> new")
+    @NotNull ContainerStats ownedBy(final @NotNull String container, final long bytes) {
+        return new ContainerStats(container, size, capacity, averageProbeLength, maxProbeLength,
+            tombstones, freeSlots, estimatedBytes + bytes);
+    }
+
+    /**
+     * Stats of a java.util.HashMap, whose chains are rebuilt from the key hashes.
+     *
+     * @param container name of the container
+     * @param keys      keys of the map, at most size of them are read
+     * @param size      number of keys
+     * @param buckets   table capacity of the map
+     * @param ownBytes  estimated bytes of the container besides the HashMap
+     * @return snapshot of the map
+     */
+    static @NotNull ContainerStats chained(final @NotNull String container,
+        final @NotNull Iterable<?> keys, final int size, final int buckets, final long ownBytes) {
+        // Sorted bucket numbers instead of a counter per bucket, size is at most buckets
+        final int[] bucketOf = new int[size];
+        int n = 0;
+        for (final Object key : keys) {
+            if (n == size) {
+                break;
+            }
+            final int h = key == null ? 0 : key.hashCode();
+            bucketOf[n++] = (h ^ (h >>> 16)) & (buckets - 1);
+        }
+        Arrays.sort(bucketOf, 0, n);
+        long probes = 0;
+        int maxChain = 0;
+        int usedBuckets = 0;
+        for (int i = 0; i < n; ) {
+            int j = i + 1;
+            while (j < n && bucketOf[j] == bucketOf[i]) {
+                ++j;
+            }
+            final long chain = j - i;
+            probes += chain * (chain + 1) / 2;
+            maxChain = (int) Math.max(maxChain, chain);
+            ++usedBuckets;
+            i = j;
+        }
+        final long bytes = HASH_MAP + arrayBytes(buckets, REFERENCE) + (long) size * align(NODE);
+        return new ContainerStats(container, size, buckets, n == 0 ? 0 : (double) probes / n,
+            maxChain, 0, buckets - usedBuckets, align(bytes + ownBytes));
+    }
+
+    /**
+     * @param fields bytes of the fields of an object
+     * @return bytes of the object including header and padding
+     */
+    static long objectBytes(final long fields) {
+        return align(HEADER + fields);
+    }
+
+    /**
+     * @param length      length of an array
+     * @param elementSize bytes of one element, 4 for references
+     * @return bytes of the array
+     */
+    static long arrayBytes(final int length, final int elementSize) {
+        return align(ARRAY_HEADER + (long) length * elementSize);
+    }
+
+    /**
+     * @param capacity capacity of an ArrayList
+     * @return bytes of the list and its backing array
+     */
+    static long listBytes(final int capacity) {
+        return objectBytes(3 * 4) + arrayBytes(capacity, REFERENCE);
+    }
+
+    private static long align(final long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,187 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Insertion-ordered map like {@link ArrayHashMap} whose keys are hashed and
+ * compared by a {@link HashStrategy}, e.g. byte[] keys by content.
+ *
+ * <p>Keys live in a {@link UniqueArray}, whose index stores the hash of every
+ * key beside it, so a probe compares hashes before calling the strategy's
+ * equals and a rehash never hashes a key again. Values are kept in a list in
+ * the same order as the keys. Removal is linear, as in ArrayHashMap. Lookups
+ * with a key of another type may throw ClassCastException from the strategy.
+ * hashCode hashes keys with the strategy, so it agrees with equals among maps
+ * of the same strategy only.
+ */
+public class CustomArrayHashMap<K, V> extends AbstractMap<K, V> implements Iterable<Map.Entry<K, V>> {
+    private final UniqueArray<K> keys;
+    private final ArrayList<V> values;
+    private final HashStrategy<? super K> strategy;
+
+    /**
+     * @param strategy hash and equality used for keys
+     */
+    public CustomArrayHashMap(final @NotNull HashStrategy<? super K> strategy) {
+        this(16, strategy);
+    }
+
+    /**
+     * @param initialCapacity number of entries that fit without resizing
+     * @param strategy        hash and equality used for keys
+     */
+    public CustomArrayHashMap(final int initialCapacity, final @NotNull HashStrategy<? super K> strategy) {
+        this(initialCapacity, strategy, HashEngine.LINEAR_PROBING);
+    }
+
+    /**
+     * @param initialCapacity number of entries that fit without resizing
+     * @param strategy        hash and equality used for keys
+     * @param engine          hash table layout of the key index
+     */
+    public CustomArrayHashMap(final int initialCapacity, final @NotNull HashStrategy<? super K> strategy,
+        final @NotNull HashEngine engine) {
+        keys = new UniqueArray<>(initialCapacity, strategy, engine);
+        values = new ArrayList<>(initialCapacity);
+        this.strategy = strategy;
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean containsKey(final Object key) {
+        return keys.contains((K) key);
+    }
+
+    @Override
+    public V get(final Object key) {
+        return getOrDefault(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V getOrDefault(final Object key, final V defaultValue) {
+        final int id = keys.idFor((K) key);
+        return id == 0 ? defaultValue : values.get(id - 1);
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        final int oldSize = keys.size();
+        final int id = keys.add(key);
+        if (keys.size() == oldSize) {
+            return values.set(id - 1, value);
+        }
+        values.add(value);
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V remove(final Object key) {
+        final int id = keys.idFor((K) key);
+        if (id == 0) {
+            return null;
+        }
+        keys.removeById(id);
+        return values.remove(id - 1);
+    }
+
+    @Override
+    public void clear() {
+        keys.clear();
+        values.clear();
+    }
+
+    @Override
+    public void forEach(final @NotNull BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < values.size(); ++i) {
+            action.accept(keys.get(i), values.get(i));
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < values.size(); ++i) {
+            hash += strategy.hash(keys.get(i)) ^ Objects.hashCode(values.get(i));
+        }
+        return hash;
+    }
+
+    /**
+     * @return probe lengths, load and footprint of the key index and lists
+     */
+    public @NotNull ContainerStats stats() {
+        return keys.stats().ownedBy("CustomArrayHashMap",
+            ContainerStats.objectBytes(3 * 4) + ContainerStats.listBytes(values.size()));
+    }
+
+    @Override
+    public @NotNull Iterator<Map.Entry<K, V>> iterator() {
+        return new Iterator<>() {
+            private int next;
+            private boolean canRemove;
+
+            @Override
+            public boolean hasNext() {
+                return next < values.size();
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (next >= values.size()) {
+                    throw new NoSuchElementException();
+                }
+                canRemove = true;
+                final int i = next++;
+                return new AbstractMap.SimpleImmutableEntry<>(keys.get(i), values.get(i));
+            }
+
+            @Override
+            public void remove() {
+                if (!canRemove) {
+                    throw new IllegalStateException();
+                }
+                canRemove = false;
+                keys.remove(--next);
+                values.remove(next);
+            }
+        };
+    }
+
+    @Override
+    public @NotNull Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public @NotNull Iterator<Map.Entry<K, V>> iterator() {
+                return CustomArrayHashMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return keys.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,151 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Insertion-ordered set like {@link ArrayHashSet} whose elements are hashed
+ * and compared by a {@link HashStrategy}, e.g. byte[] elements by content.
+ *
+ * <p>A set view of {@link UniqueArray}: the index stores the hash of every
+ * element beside it, so probes compare hashes before calling the strategy's
+ * equals and a rehash never hashes an element again. Removal is linear, as in
+ * ArrayHashSet. Lookups with an element of another type may throw
+ * ClassCastException from the strategy. hashCode hashes elements with the
+ * strategy, so it agrees with equals among sets of the same strategy only.
+ */
+public class CustomArrayHashSet<T> extends AbstractSet<T> {
+    private final UniqueArray<T> elements;
+    private final HashStrategy<? super T> strategy;
+
+    /**
+     * @param strategy hash and equality used for elements
+     */
+    public CustomArrayHashSet(final @NotNull HashStrategy<? super T> strategy) {
+        this(16, strategy);
+    }
+
+    /**
+     * @param initialCapacity number of elements that fit without resizing
+     * @param strategy        hash and equality used for elements
+     */
+    public CustomArrayHashSet(final int initialCapacity, final @NotNull HashStrategy<? super T> strategy) {
+        this(initialCapacity, strategy, HashEngine.LINEAR_PROBING);
+    }
+
+    /**
+     * @param initialCapacity number of elements that fit without resizing
+     * @param strategy        hash and equality used for elements
+     * @param engine          hash table layout of the index
+     */
+    public CustomArrayHashSet(final int initialCapacity, final @NotNull HashStrategy<? super T> strategy,
+        final @NotNull HashEngine engine) {
+        elements = new UniqueArray<>(initialCapacity, strategy, engine);
+        this.strategy = strategy;
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return elements.isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean contains(final Object o) {
+        return elements.contains((T) o);
+    }
+
+    @Override
+    public boolean add(final T t) {
+        final int oldSize = elements.size();
+        elements.add(t);
+        return elements.size() != oldSize;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean remove(final Object o) {
+        return elements.remove((T) o);
+    }
+
+    @Override
+    public boolean removeIf(final @NotNull Predicate<? super T> filter) {
+        return elements.removeIf(filter);
+    }
+
+    @Override
+    public void clear() {
+        elements.clear();
+    }
+
+    @Override
+    public void forEach(final Consumer<? super T> action) {
+        elements.forEach(action);
+    }
+
+    /**
+     * @param index position in insertion order
+     * @return element added index-th
+     */
+    public T get(final int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < elements.size(); ++i) {
+            hash += strategy.hash(elements.get(i));
+        }
+        return hash;
+    }
+
+    /**
+     * @return probe lengths, load and footprint of the index and storage
+     */
+    public @NotNull ContainerStats stats() {
+        return elements.stats().ownedBy("CustomArrayHashSet", ContainerStats.objectBytes(2 * 4));
+    }
+
+    @Override
+    public @NotNull Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int next;
+            private boolean canRemove;
+
+            @Override
+            public boolean hasNext() {
+                return next < elements.size();
+            }
+
+            @Override
+            public T next() {
+                if (next >= elements.size()) {
+                    throw new NoSuchElementException();
+                }
+                canRemove = true;
+                return elements.get(next++);
+            }
+
+            @Override
+            public void remove() {
+                if (!canRemove) {
+                    throw new IllegalStateException();
+                }
+                canRemove = false;
+                elements.remove(--next);
+            }
+        };
+    }
+}
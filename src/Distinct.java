@@ -0,0 +1,141 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lazy iterators behind the distinct operations of {@link Algorithms}. Each
+ * pulls elements from its source only when asked for the next one and passes
+ * those its membership test sees for the first time, in source order.
+ */
+abstract class Distinct<T> implements Iterator<T> {
+    private final Iterator<T> source;
+    private T next;
+    private boolean ready;
+
+    private Distinct(final @NotNull Iterator<T> source) {
+        this.source = source;
+    }
+
+    /**
+     * @param source iterator of elements
+     * @return iterator over first occurrences, remembers every distinct element
+     */
+    static <T> @NotNull Iterator<T> all(final @NotNull Iterator<T> source) {
+        return new Distinct<>(source) {
+            private final HashSet<T> seen = new HashSet<>();
+
+            @Override
+            boolean firstSeen(final T elem) {
+                return seen.add(elem);
+            }
+        };
+    }
+
+    /**
+     * @param source iterator of elements
+     * @param window number of preceding elements an element is compared with
+     * @return iterator dropping elements equal to one of the window preceding
+     * elements, remembers at most window elements
+     */
+    static <T> @NotNull Iterator<T> lastCount(final @NotNull Iterator<T> source, final int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+        return new Distinct<>(source) {
+            // Last window elements and how often each occurs among them
+            private final Object[] ring = new Object[window];
+            private final HashMap<T, int[]> occurrences = new HashMap<>();
+            private long position;
+
+            @SuppressWarnings("unchecked")
+            @Override
+            boolean firstSeen(final T elem) {
+                final int slot = (int) (position++ % window);
+                final boolean first = ++occurrences.computeIfAbsent(elem, key -> new int[1])[0] == 1;
+                if (position > window) {
+                    // Element at slot leaves the window
+                    final T leaving = (T) ring[slot];
+                    final int[] count = occurrences.get(leaving);
+                    if (--count[0] == 0) {
+                        occurrences.remove(leaving);
+                    }
+                }
+                ring[slot] = elem;
+                return first;
+            }
+        };
+    }
+
+    /**
+     * @param source iterator of elements
+     * @param window time an element is remembered after its last occurrence
+     * @param unit   unit of window
+     * @param clock  source of time in nanoseconds
+     * @return iterator dropping elements that occurred within window before,
+     * remembers elements of the last window
+     */
+    static <T> @NotNull Iterator<T> lastTime(final @NotNull Iterator<T> source, final long window,
+        final @NotNull TimeUnit unit, final @NotNull LongSupplier clock) {
+        final ExpiringMap<T, Boolean> seen =
+            new ExpiringMap<>(window, unit, ExpiringMap.Expiry.AFTER_WRITE, clock);
+        return new Distinct<>(source) {
+            @Override
+            boolean firstSeen(final T elem) {
+                return seen.put(elem, Boolean.TRUE) == null;
+            }
+        };
+    }
+
+    /**
+     * @param source            iterator of elements
+     * @param falsePositiveRate bound of the rate of new elements dropped as seen
+     * @return iterator over first occurrences tested by a scalable Bloom filter
+     */
+    static <T> @NotNull Iterator<T> approximate(final @NotNull Iterator<T> source,
+        final double falsePositiveRate) {
+        final BloomFilter<T> seen = new BloomFilter<>(1 << 10, falsePositiveRate);
+        return new Distinct<>(source) {
+            @Override
+            boolean firstSeen(final T elem) {
+                return seen.add(elem);
+            }
+        };
+    }
+
+    /**
+     * @param elem next element of source
+     * @return true if elem should be passed on, records elem as seen
+     */
+    abstract boolean firstSeen(T elem);
+
+    @Override
+    public boolean hasNext() {
+        while (!ready && source.hasNext()) {
+            final T elem = source.next();
+            if (firstSeen(elem)) {
+                next = elem;
+                ready = true;
+            }
+        }
+        return ready;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final T elem = next;
+        next = null;
+        ready = false;
+        return elem;
+    }
+}
@@ -0,0 +1,302 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Map whose entries expire after a time to live, either counted from the last
+ * write or from the last access.
+ *
+ * <p>Entries are filed into a hierarchical timer wheel: five levels of 64
+ * buckets, each level 64 times coarser than the one below, starting at about
+ * one millisecond per bucket. Every operation first advances the wheel to the
+ * current time; buckets passed on the lowest level expire their entries and
+ * buckets passed on higher levels move their entries down to finer levels.
+ * Scheduling and rescheduling an entry is O(1) and an entry is moved at most
+ * once per level, so cleanup happens incrementally with normal use and never
+ * scans the whole map.
+ *
+ * <p>Like ArrayHashMap, forEach visits entries in insertion order; putting a
+ * live key again keeps its position. Entries are kept in a LinkedHashMap
+ * rather than an ArrayHashMap, whose removals shift its key list and would
+ * make every expiry O(n).
+ */
+public final class ExpiringMap<K, V> {
+    public enum Expiry {
+        AFTER_WRITE,
+        AFTER_ACCESS
+    }
+
+    private static final int TICK_SHIFT = 20;
+    private static final int LEVELS = 5;
+    private static final int BITS = 6;
+    private static final int BUCKETS = 1 << BITS;
+
+    private final LinkedHashMap<K, Node<K, V>> map;
+    private final Node<K, V>[][] wheel;
+    private final long defaultTtl;
+    private final Expiry expiry;
+    private final LongSupplier clock;
+    private long currentTick;
+
+    /**
+     * @param defaultTtl time to live for entries put without explicit one
+     * @param unit       unit of defaultTtl
+     * @param expiry     when time to live is restarted
+     */
+    public ExpiringMap(final long defaultTtl, final @NotNull TimeUnit unit,
+        final @NotNull Expiry expiry) {
+        this(defaultTtl, unit, expiry, System::nanoTime);
+    }
+
+    /**
+     * @param defaultTtl time to live for entries put without explicit one
+     * @param unit       unit of defaultTtl
+     * @param expiry     when time to live is restarted
+     * @param clock      source of time in nanoseconds
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ExpiringMap(final long defaultTtl, final @NotNull TimeUnit unit,
+        final @NotNull Expiry expiry, final @NotNull LongSupplier clock) {
+        if (defaultTtl <= 0) {
+            throw new IllegalArgumentException("Time to live must be positive: " + defaultTtl);
+        }
+        this.defaultTtl = unit.toNanos(defaultTtl);
+        this.expiry = expiry;
+        this.clock = clock;
+        map = new LinkedHashMap<>();
+        wheel = new Node[LEVELS][BUCKETS];
+        for (int level = 0; level < LEVELS; ++level) {
+            for (int i = 0; i < BUCKETS; ++i) {
+                wheel[level][i] = Node.sentinel();
+            }
+        }
+        currentTick = clock.getAsLong() >> TICK_SHIFT;
+    }
+
+    public V put(final K key, final V value) {
+        return put(key, value, defaultTtl, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param key   key of entry
+     * @param value value of entry
+     * @param ttl   time to live of this entry
+     * @param unit  unit of ttl
+     * @return previous live value of key or null
+     * @throws IllegalArgumentException if ttl is not positive
+     */
+    public V put(final K key, final V value, final long ttl, final @NotNull TimeUnit unit) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("Time to live must be positive: " + ttl);
+        }
+        final long now = advance();
+        final long ttlNanos = unit.toNanos(ttl);
+        final Node<K, V> node = map.get(key);
+        // Expired entries may wait for the wheel up to one tick, a new entry replaces them at the end
+        if (node == null || node.expiresAt - now <= 0) {
+            if (node != null) {
+                expire(node);
+            }
+            final Node<K, V> created = new Node<>(key, value, ttlNanos, now + ttlNanos);
+            map.put(key, created);
+            schedule(created);
+            return null;
+        }
+        final V old = node.value;
+        node.value = value;
+        node.ttl = ttlNanos;
+        node.expiresAt = now + ttlNanos;
+        node.unlink();
+        schedule(node);
+        return old;
+    }
+
+    public V get(final Object key) {
+        final long now = advance();
+        final Node<K, V> node = map.get(key);
+        if (node == null) {
+            return null;
+        }
+        if (node.expiresAt - now <= 0) {
+            expire(node);
+            return null;
+        }
+        if (expiry == Expiry.AFTER_ACCESS) {
+            node.expiresAt = now + node.ttl;
+            node.unlink();
+            schedule(node);
+        }
+        return node.value;
+    }
+
+    public boolean containsKey(final Object key) {
+        final long now = advance();
+        final Node<K, V> node = map.get(key);
+        return node != null && node.expiresAt - now > 0;
+    }
+
+    public V remove(final Object key) {
+        final long now = advance();
+        final Node<K, V> node = map.remove(key);
+        if (node == null) {
+            return null;
+        }
+        node.unlink();
+        return node.expiresAt - now > 0 ? node.value : null;
+    }
+
+    /**
+     * @return number of entries, may include entries that expired within the last tick
+     */
+    public int size() {
+        advance();
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        map.clear();
+        for (final Node<K, V>[] level : wheel) {
+            for (final Node<K, V> sentinel : level) {
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Expires every entry that is due, without waiting for the next operation.
+     */
+    public void cleanUp() {
+        advance();
+    }
+
+    public void forEach(final @NotNull BiConsumer<? super K, ? super V> action) {
+        final long now = advance();
+        map.forEach((key, node) -> {
+            if (node.expiresAt - now > 0) {
+                action.accept(key, node.value);
+            }
+        });
+    }
+
+    private long advance() {
+        final long now = clock.getAsLong();
+        final long nowTick = now >> TICK_SHIFT;
+        final long previousTick = currentTick;
+        if (nowTick <= previousTick) {
+            return now;
+        }
+        currentTick = nowTick;
+        final ContainerEvents.Eviction event = new ContainerEvents.Eviction();
+        event.begin();
+        long expired = 0;
+        for (int level = 0; level < LEVELS; ++level) {
+            final int shift = level * BITS;
+            final long previousSlot = previousTick >> shift;
+            final long currentSlot = nowTick >> shift;
+            if (previousSlot == currentSlot) {
+                break;
+            }
+            final long passed = Math.min(currentSlot - previousSlot, BUCKETS);
+            for (long slot = currentSlot - passed + 1; slot <= currentSlot; ++slot) {
+                expired += process(wheel[level][(int) (slot & (BUCKETS - 1))], now);
+            }
+        }
+        if (expired != 0) {
+            ContainerEvents.commit(event, "ExpiringMap", expired);
+        }
+        return now;
+    }
+
+    // Expires or reschedules every node of a bucket, returns number of expired nodes
+    private int process(final @NotNull Node<K, V> sentinel, final long now) {
+        int expired = 0;
+        Node<K, V> node = sentinel.next;
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        while (node != sentinel) {
+            final Node<K, V> next = node.next;
+            node.prev = null;
+            node.next = null;
+            if (node.expiresAt - now <= 0) {
+                map.remove(node.key);
+                ++expired;
+            }
+            else {
+                schedule(node);
+            }
+            node = next;
+        }
+        return expired;
+    }
+
+    private void schedule(final @NotNull Node<K, V> node) {
+        final long expiryTick = node.expiresAt >> TICK_SHIFT;
+        final long delta = expiryTick - currentTick;
+        for (int level = 0; level < LEVELS; ++level) {
+            final int shift = level * BITS;
+            if (delta < 1L << (shift + BITS)) {
+                final long slot = Math.max(expiryTick, currentTick + 1) >> shift;
+                wheel[level][(int) (slot & (BUCKETS - 1))].append(node);
+                return;
+            }
+        }
+        // Beyond the wheel span, park in the top level slot visited last
+        final long slot = (currentTick >> ((LEVELS - 1) * BITS)) + BUCKETS - 1;
+        wheel[LEVELS - 1][(int) (slot & (BUCKETS - 1))].append(node);
+    }
+
+    private void expire(final @NotNull Node<K, V> node) {
+        map.remove(node.key);
+        node.unlink();
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private V value;
+        private long ttl;
+        private long expiresAt;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(final K key, final V value, final long ttl, final long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.ttl = ttl;
+            this.expiresAt = expiresAt;
+        }
+
+        private static <K, V> @NotNull Node<K, V> sentinel() {
+            final Node<K, V> sentinel = new Node<>(null, null, 0, 0);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        private void append(final @NotNull Node<K, V> node) {
+            node.prev = prev;
+            node.next = this;
+            prev.next = node;
+            prev = node;
+        }
+
+        private void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.function.ObjLongConsumer;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Counts occurrences of elements with a bounded number of distinct elements
+ * on the heap. Once the in-memory table grows past its budget, its entries
+ * are hash-partitioned into temporary files and the table is cleared.
+ * {@link #forEach} then loads one partition at a time, so the table never
+ * holds more than one partition. A partition that is itself too large is
+ * partitioned again with a different hash.
+ *
+ * @param <T> Any type that is hashable and can be written by the codec
+ */
+public final class ExternalCounter<T> implements AutoCloseable {
+    private static final int PARTITIONS = 16;
+    private static final int MAX_LEVEL = 8;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Codec<T> codec;
+    private final int maxEntriesInMemory;
+    private final Path tempDirectory;
+    private final int level;
+    private final HashMap<T, Long> counts;
+    private Path[] files;
+    private DataOutputStream[] writers;
+    private long[] records;
+
+    /**
+     * @param codec              serializer for spilled elements
+     * @param maxEntriesInMemory number of distinct elements held before spilling
+     */
+    public ExternalCounter(final @NotNull Codec<T> codec, final int maxEntriesInMemory) {
+        this(codec, maxEntriesInMemory, null);
+    }
+
+    /**
+     * @param codec              serializer for spilled elements
+     * @param maxEntriesInMemory number of distinct elements held before spilling
+     * @param tempDirectory      directory for spill files, null for default temporary directory
+     */
+    public ExternalCounter(
+        final @NotNull Codec<T> codec, final int maxEntriesInMemory, final Path tempDirectory) {
+        this(codec, maxEntriesInMemory, tempDirectory, 0);
+    }
+
+    private ExternalCounter(final @NotNull Codec<T> codec, final int maxEntriesInMemory,
+        final Path tempDirectory, final int level) {
+        if (maxEntriesInMemory <= 0) {
+            throw new IllegalArgumentException(
+                "Memory budget must be positive: " + maxEntriesInMemory);
+        }
+        this.codec = codec;
+        this.maxEntriesInMemory = maxEntriesInMemory;
+        this.tempDirectory = tempDirectory;
+        this.level = level;
+        counts = new HashMap<>();
+    }
+
+    public void add(final T elem) {
+        add(elem, 1);
+    }
+
+    /**
+     * @param elem  element to be counted
+     * @param count number of occurrences to add
+     */
+    public void add(final T elem, final long count) {
+        counts.merge(elem, count, Long::sum);
+        if (counts.size() > maxEntriesInMemory && level < MAX_LEVEL) {
+            spill();
+        }
+    }
+
+    /**
+     * Feeds every distinct element and its total count to action, partition by
+     * partition. Counter is empty afterwards.
+     *
+     * @param action receives element and number of its occurrences
+     */
+    public void forEach(final @NotNull ObjLongConsumer<? super T> action) {
+        if (files == null) {
+            counts.forEach(action::accept);
+            counts.clear();
+            return;
+        }
+        spill();
+        try {
+            for (final DataOutputStream writer : writers) {
+                writer.close();
+            }
+            for (int i = 0; i < PARTITIONS; ++i) {
+                try (ExternalCounter<T> partition =
+                         new ExternalCounter<>(codec, maxEntriesInMemory, tempDirectory, level + 1)) {
+                    try (DataInputStream in = openReader(files[i])) {
+                        for (long r = records[i]; r != 0; --r) {
+                            final T elem = codec.read(in);
+                            partition.add(elem, in.readLong());
+                        }
+                    }
+                    Files.delete(files[i]);
+                    partition.forEach(action);
+                }
+            }
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        finally {
+            close();
+        }
+    }
+
+    /**
+     * Deletes spill files that were not consumed yet.
+     */
+    @Override
+    public void close() {
+        counts.clear();
+        if (files == null) {
+            return;
+        }
+        for (int i = 0; i < PARTITIONS; ++i) {
+            try {
+                writers[i].close();
+                Files.deleteIfExists(files[i]);
+            }
+            catch (final IOException ignored) {
+                // Best effort cleanup
+            }
+        }
+        files = null;
+        writers = null;
+        records = null;
+    }
+
+    private void spill() {
+        try {
+            if (files == null) {
+                openPartitions();
+            }
+            for (final HashMap.Entry<T, Long> entry : counts.entrySet()) {
+                final int i = partitionOf(entry.getKey());
+                codec.write(entry.getKey(), writers[i]);
+                writers[i].writeLong(entry.getValue());
+                ++records[i];
+            }
+        }
+        catch (final IOException e) {
+            close();
+            throw new UncheckedIOException(e);
+        }
+        counts.clear();
+    }
+
+    private void openPartitions() throws IOException {
+        files = new Path[PARTITIONS];
+        writers = new DataOutputStream[PARTITIONS];
+        records = new long[PARTITIONS];
+        for (int i = 0; i < PARTITIONS; ++i) {
+            files[i] = tempDirectory == null
+                ? Files.createTempFile("spill", ".bin")
+                : Files.createTempFile(tempDirectory, "spill", ".bin");
+            final FileChannel channel = FileChannel.open(files[i], StandardOpenOption.WRITE);
+            writers[i] = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+        }
+    }
+
+    private static @NotNull DataInputStream openReader(final Path file) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return new DataInputStream(
+            new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE));
+    }
+
+    // Every level takes different bits of the mixed hash
+    private int partitionOf(final T elem) {
+        final int h = Objects.hashCode(elem) * 0x9E3779B9;
+        return (h >>> (28 - 4 * (level & 7))) & (PARTITIONS - 1);
+    }
+}
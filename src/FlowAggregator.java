@@ -0,0 +1,333 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Subscriber computing one {@link Algorithms} style aggregate of the
+ * elements of a {@link Flow.Publisher}. Elements are requested in batches:
+ * the first request asks for batchSize elements and every half batch consumed
+ * is requested again, so the publisher never runs more than one batch ahead.
+ * An aggregate that knows its answer early, like {@link #findIf}, cancels the
+ * subscription.
+ *
+ * <pre>
+ * final FlowAggregator&lt;Row, Long&gt; failed = FlowAggregator.countIf(Row::failed, 512);
+ * publisher.subscribe(failed);
+ * failed.result().thenAccept(count -&gt; ...);
+ * </pre>
+ *
+ * <p>{@link #await()} blocks for the result by parking, without holding a
+ * monitor, so many feeds can be awaited from cheap threads such as virtual
+ * threads. Cancelling or completing {@link #result()} from outside also
+ * cancels the subscription.
+ *
+ * @param <T> element type
+ * @param <R> result type
+ */
+public final class FlowAggregator<T, R> implements Flow.Subscriber<T> {
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final Step<T, R> step;
+    private final int batchSize;
+    private final int replenish;
+    private final CompletableFuture<R> result = new CompletableFuture<>();
+    // Calls on the subscription must be serial, cancel may come from any thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private Flow.Subscription subscription;
+    private boolean cancelled;
+    private volatile boolean terminated;
+    private int consumed;
+
+    private FlowAggregator(final @NotNull Step<T, R> step, final int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.step = step;
+        this.batchSize = batchSize;
+        replenish = Math.max(1, batchSize / 2);
+        result.whenComplete((value, error) -> {
+            if (!terminated) {
+                cancelSubscription();
+            }
+        });
+    }
+
+    /**
+     * @param value     value to be counted
+     * @param batchSize number of elements requested ahead
+     * @param <T>       no requirements
+     * @return aggregator of number of occurrences of value
+     */
+    public static <T> @NotNull FlowAggregator<T, Long> count(final T value, final int batchSize) {
+        return countIf(elem -> Objects.equals(elem, value), batchSize);
+    }
+
+    /**
+     * @param predicate predicate returns true if element should be counted
+     * @param batchSize number of elements requested ahead
+     * @param <T>       no requirements
+     * @return aggregator of number of elements for which predicate.test() returns true
+     */
+    public static <T> @NotNull FlowAggregator<T, Long> countIf(
+        final @NotNull Predicate<? super T> predicate, final int batchSize) {
+        return new FlowAggregator<>(new Step<T, Long>() {
+            private long count;
+
+            @Override
+            boolean accept(final T elem) {
+                if (predicate.test(elem)) {
+                    ++count;
+                }
+                return false;
+            }
+
+            @Override
+            Long finish() {
+                return count;
+            }
+        }, batchSize);
+    }
+
+    /**
+     * @param batchSize number of elements requested ahead
+     * @param <T>       Any type that is hashable
+     * @return aggregator of number of distinct elements
+     */
+    public static <T> @NotNull FlowAggregator<T, Long> numOfUniqueElements(final int batchSize) {
+        return new FlowAggregator<>(new Step<T, Long>() {
+            private final HashSet<T> seen = new HashSet<>();
+
+            @Override
+            boolean accept(final T elem) {
+                seen.add(elem);
+                return false;
+            }
+
+            @Override
+            Long finish() {
+                return (long) seen.size();
+            }
+        }, batchSize);
+    }
+
+    /**
+     * @param batchSize number of elements requested ahead
+     * @param <T>       Any type that is hashable
+     * @return aggregator of distinct elements in order of first occurrence
+     */
+    public static <T> @NotNull FlowAggregator<T, ArrayHashSet<T>> distinct(final int batchSize) {
+        return new FlowAggregator<>(new Step<T, ArrayHashSet<T>>() {
+            private final ArrayHashSet<T> seen = new ArrayHashSet<>();
+
+            @Override
+            boolean accept(final T elem) {
+                seen.add(elem);
+                return false;
+            }
+
+            @Override
+            ArrayHashSet<T> finish() {
+                return seen;
+            }
+        }, batchSize);
+    }
+
+    /**
+     * @param batchSize number of elements requested ahead
+     * @param <T>       Any type that is hashable
+     * @return aggregator of Optional of most frequent element, the earliest to
+     * reach the highest count on ties, empty if there are no elements
+     */
+    public static <T> @NotNull FlowAggregator<T, Optional<T>> mostFrequentElement(
+        final int batchSize) {
+        return new FlowAggregator<>(new Step<T, Optional<T>>() {
+            private final HashMap<T, long[]> counts = new HashMap<>();
+            private T best;
+            private long bestCount;
+
+            @Override
+            boolean accept(final T elem) {
+                final long count = ++counts.computeIfAbsent(elem, key -> new long[1])[0];
+                if (count > bestCount) {
+                    best = elem;
+                    bestCount = count;
+                }
+                return false;
+            }
+
+            @Override
+            Optional<T> finish() {
+                return Optional.ofNullable(best);
+            }
+        }, batchSize);
+    }
+
+    /**
+     * @param predicate predicate returns true for element that should be returned
+     * @param batchSize number of elements requested ahead
+     * @param <T>       no requirements
+     * @return aggregator of Optional of first element that satisfies predicate,
+     * the subscription is cancelled once it is found
+     */
+    public static <T> @NotNull FlowAggregator<T, Optional<T>> findIf(
+        final @NotNull Predicate<? super T> predicate, final int batchSize) {
+        return new FlowAggregator<>(new Step<T, Optional<T>>() {
+            private T found;
+
+            @Override
+            boolean accept(final T elem) {
+                if (predicate.test(elem)) {
+                    found = elem;
+                    return true;
+                }
+                return false;
+            }
+
+            @Override
+            Optional<T> finish() {
+                return Optional.ofNullable(found);
+            }
+        }, batchSize);
+    }
+
+    /**
+     * @param publisher publisher to subscribe to
+     * @return {@link #result()}
+     */
+    public @NotNull CompletableFuture<R> aggregate(final @NotNull Flow.Publisher<? extends T> publisher) {
+        publisher.subscribe(this);
+        return result;
+    }
+
+    /**
+     * @return future completed with the aggregate when the publisher completes
+     * or the answer is known, or exceptionally when the publisher fails
+     */
+    public @NotNull CompletableFuture<R> result() {
+        return result;
+    }
+
+    /**
+     * Blocks until the aggregate is known, see class documentation.
+     *
+     * @return aggregate
+     * @throws java.util.concurrent.CompletionException   if the publisher or a predicate failed
+     * @throws java.util.concurrent.CancellationException if the aggregation was cancelled
+     */
+    public R await() {
+        return result.join();
+    }
+
+    /**
+     * Cancels the subscription and the result, elements already delivered are ignored.
+     */
+    public void cancel() {
+        result.cancel(false);
+    }
+
+    @Override
+    public void onSubscribe(final @NotNull Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription);
+        lock.lock();
+        try {
+            // Subscribed twice, or cancelled before the subscription arrived
+            if (this.subscription != null || cancelled) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+            subscription.request(batchSize);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void onNext(final T item) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            if (step.accept(item)) {
+                result.complete(step.finish());
+                return;
+            }
+        }
+        catch (final RuntimeException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        if (++consumed == replenish) {
+            consumed = 0;
+            request(replenish);
+        }
+    }
+
+    @Override
+    public void onError(final @NotNull Throwable throwable) {
+        terminated = true;
+        result.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        terminated = true;
+        try {
+            result.complete(step.finish());
+        }
+        catch (final RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void request(final long n) {
+        lock.lock();
+        try {
+            if (!cancelled) {
+                subscription.request(n);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void cancelSubscription() {
+        lock.lock();
+        try {
+            if (!cancelled) {
+                cancelled = true;
+                if (subscription != null) {
+                    subscription.cancel();
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Aggregation state, fed elements in publisher order.
+     */
+    private abstract static class Step<T, R> {
+        /**
+         * @param elem next element
+         * @return true if the aggregate is known and no more elements are needed
+         */
+        abstract boolean accept(T elem);
+
+        abstract R finish();
+    }
+}
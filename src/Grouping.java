@@ -0,0 +1,225 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Assignment of rows to dense group numbers, groups numbered in order of the
+ * first row of every key. Engine behind the grouping operations of
+ * {@link Algorithms}, which turn it into counts, reductions or an
+ * {@link ArrayMultimap} with one counting sort.
+ */
+final class Grouping<K> {
+    private static final int PARALLEL_THRESHOLD = 1 << 14;
+    // Marks a group without reduced value yet, reduced values may be null
+    private static final Object NONE = new Object();
+
+    private final KeyIndex<K> index;
+    private Object[] keys;
+    private int keyCount;
+    // Group of every row
+    private int[] groupOf;
+    private int rows;
+
+    private Grouping(final int expectedRows) {
+        index = KeyIndex.create(HashEngine.LINEAR_PROBING, 16, HashStrategy.natural());
+        keys = new Object[16];
+        groupOf = new int[Math.max(16, expectedRows)];
+    }
+
+    /**
+     * @param rows     rows to group, only the first n are used
+     * @param n        number of rows
+     * @param key      key of a row, must be thread safe if parallel
+     * @param parallel group chunks of rows in parallel, worth it for many rows
+     * @return grouping of rows
+     */
+    @SuppressWarnings("unchecked")
+    static <T, K> @NotNull Grouping<K> of(final Object @NotNull [] rows, final int n,
+        final @NotNull Function<? super T, ? extends K> key, final boolean parallel) {
+        if (!parallel || n < PARALLEL_THRESHOLD) {
+            final Grouping<K> grouping = new Grouping<>(n);
+            for (int i = 0; i < n; ++i) {
+                grouping.addRow(key.apply((T) rows[i]));
+            }
+            return grouping;
+        }
+        // Chunks are grouped independently, then their keys are merged in chunk order
+        final int chunks = Math.min(n / (PARALLEL_THRESHOLD / 4),
+            4 * Runtime.getRuntime().availableProcessors());
+        final int chunkSize = (n + chunks - 1) / chunks;
+        final Grouping<K>[] parts = IntStream.range(0, chunks).parallel().mapToObj(c -> {
+            final int from = Math.min(n, c * chunkSize);
+            final int to = Math.min(n, from + chunkSize);
+            final Grouping<K> part = new Grouping<>(to - from);
+            for (int i = from; i < to; ++i) {
+                part.addRow(key.apply((T) rows[i]));
+            }
+            return part;
+        }).toArray(Grouping[]::new);
+
+        final Grouping<K> grouping = parts[0];
+        final int[][] remaps = new int[chunks][];
+        for (int c = 1; c < chunks; ++c) {
+            final Grouping<K> part = parts[c];
+            remaps[c] = new int[part.keyCount];
+            for (int g = 0; g < part.keyCount; ++g) {
+                remaps[c][g] = grouping.groupFor((K) part.keys[g]);
+            }
+        }
+        final int[] groupOf = Arrays.copyOf(grouping.groupOf, n);
+        IntStream.range(1, chunks).parallel().forEach(c -> {
+            final int[] local = parts[c].groupOf;
+            final int[] remap = remaps[c];
+            final int from = c * chunkSize;
+            for (int i = 0; i < parts[c].rows; ++i) {
+                groupOf[from + i] = remap[local[i]];
+            }
+        });
+        grouping.groupOf = groupOf;
+        grouping.rows = n;
+        return grouping;
+    }
+
+    /**
+     * @param iterator rows to group
+     * @param key      key of a row
+     * @return grouping of all remaining rows of iterator
+     */
+    static <T, K> @NotNull Grouping<K> of(final @NotNull Iterator<T> iterator,
+        final @NotNull Function<? super T, ? extends K> key) {
+        final Grouping<K> grouping = new Grouping<>(16);
+        while (iterator.hasNext()) {
+            grouping.addRow(key.apply(iterator.next()));
+        }
+        return grouping;
+    }
+
+    int keyCount() {
+        return keyCount;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    K key(final int group) {
+        return (K) keys[group];
+    }
+
+    // Group number of a key, or -1
+    int find(final K key) {
+        return index.get(key, -1);
+    }
+
+    /**
+     * @return number of rows of every group
+     */
+    long @NotNull [] counts() {
+        final long[] counts = new long[keyCount];
+        for (int i = 0; i < rows; ++i) {
+            ++counts[groupOf[i]];
+        }
+        return counts;
+    }
+
+    /**
+     * @return positions where groups start after a stable sort by group, followed by rows
+     */
+    int @NotNull [] offsets() {
+        final int[] offsets = new int[keyCount + 1];
+        for (int i = 0; i < rows; ++i) {
+            ++offsets[groupOf[i] + 1];
+        }
+        for (int g = 0; g < keyCount; ++g) {
+            offsets[g + 1] += offsets[g];
+        }
+        return offsets;
+    }
+
+    /**
+     * @param offsets result of {@link #offsets()}
+     * @return rows stably sorted by group
+     */
+    int @NotNull [] order(final int @NotNull [] offsets) {
+        final int[] cursor = Arrays.copyOf(offsets, keyCount);
+        final int[] order = new int[rows];
+        for (int i = 0; i < rows; ++i) {
+            order[cursor[groupOf[i]]++] = i;
+        }
+        return order;
+    }
+
+    /**
+     * @param rows     rows that were grouped
+     * @param mapper   value of a row
+     * @param reducer  associative function combining values of a group in row order
+     * @param parallel reduce groups in parallel
+     * @return reduced value of every group
+     */
+    @SuppressWarnings("unchecked")
+    <T, R> Object @NotNull [] reduce(final Object @NotNull [] rows,
+        final @NotNull Function<? super T, ? extends R> mapper,
+        final @NotNull BinaryOperator<R> reducer, final boolean parallel) {
+        final Object[] reduced = new Object[keyCount];
+        if (!parallel || this.rows < PARALLEL_THRESHOLD) {
+            Arrays.fill(reduced, NONE);
+            for (int i = 0; i < this.rows; ++i) {
+                final int g = groupOf[i];
+                final R value = mapper.apply((T) rows[i]);
+                reduced[g] = reduced[g] == NONE ? value : reducer.apply((R) reduced[g], value);
+            }
+            return reduced;
+        }
+        final int[] offsets = offsets();
+        final int[] order = order(offsets);
+        IntStream.range(0, keyCount).parallel().forEach(g -> {
+            R value = mapper.apply((T) rows[order[offsets[g]]]);
+            for (int p = offsets[g] + 1; p < offsets[g + 1]; ++p) {
+                value = reducer.apply(value, mapper.apply((T) rows[order[p]]));
+            }
+            reduced[g] = value;
+        });
+        return reduced;
+    }
+
+    /**
+     * @param values value of every group
+     * @return map from keys to values in group order
+     */
+    @SuppressWarnings("unchecked")
+    <V> @NotNull ArrayHashMap<K, V> toMap(final Object @NotNull [] values) {
+        final ArrayHashMap<K, V> map = new ArrayHashMap<>((int) (keyCount / 0.75F) + 1);
+        for (int g = 0; g < keyCount; ++g) {
+            map.put((K) keys[g], (V) values[g]);
+        }
+        return map;
+    }
+
+    private void addRow(final K key) {
+        if (rows == groupOf.length) {
+            groupOf = Arrays.copyOf(groupOf, rows * 2);
+        }
+        groupOf[rows++] = groupFor(key);
+    }
+
+    private int groupFor(final K key) {
+        final int group = index.get(key, -1);
+        if (group >= 0) {
+            return group;
+        }
+        if (keyCount == keys.length) {
+            keys = Arrays.copyOf(keys, keyCount * 2);
+        }
+        keys[keyCount] = key;
+        index.put(key, keyCount, -1);
+        return keyCount++;
+    }
+}
@@ -0,0 +1,17 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+/**
+ * Hash table layout used for the lookup index of dense containers.
+ */
+public enum HashEngine {
+    /**
+     * Linear probing over parallel key, hash and value arrays, up to 75% full.
+     */
+    LINEAR_PROBING,
+    /**
+     * Swiss table: one control byte with a 7 bit hash tag per slot, probed eight
+     * slots at a time, up to 87.5% full.
+     */
+    SWISS
+}
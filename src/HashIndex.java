@@ -0,0 +1,201 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Open addressing table from keys to int values, used as lookup index beside
+ * dense insertion-ordered storage.
+ *
+ * <p>Every slot keeps the strategy hash of its key, so probes compare hashes
+ * before calling {@link HashStrategy#equals} and growing the table never
+ * hashes a key again. Collisions are resolved by linear probing and removal
+ * shifts following entries back, so there are no tombstones.
+ */
+final class HashIndex<T> implements KeyIndex<T> {
+    private static final int MIN_CAPACITY = 8;
+    // Marks an empty slot, real hashes are mapped away from it
+    private static final int EMPTY = 0;
+
+    private final HashStrategy<? super T> strategy;
+    private Object[] keys;
+    private int[] hashes;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    HashIndex(final int expectedSize, final @NotNull HashStrategy<? super T> strategy) {
+        this.strategy = strategy;
+        allocate(capacityFor(expectedSize));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int get(final T key, final int absent) {
+        return get(key, strategy.hash(key), absent);
+    }
+
+    @Override
+    public int get(final T key, final int hash, final int absent) {
+        final int slot = find(key, spread(hash));
+        return slot < 0 ? absent : values[slot];
+    }
+
+    @Override
+    public boolean containsKey(final T key) {
+        return find(key, spread(strategy.hash(key))) >= 0;
+    }
+
+    @Override
+    public int put(final T key, final int value, final int absent) {
+        return put(key, strategy.hash(key), value, absent);
+    }
+
+    @Override
+    public int put(final T key, final int hash, final int value, final int absent) {
+        final int h = spread(hash);
+        int i = h & mask;
+        while (hashes[i] != EMPTY) {
+            if (hashes[i] == h && strategy.equals(key(i), key)) {
+                final int old = values[i];
+                values[i] = value;
+                return old;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        hashes[i] = h;
+        values[i] = value;
+        if (++size > threshold) {
+            resize(keys.length << 1);
+        }
+        return absent;
+    }
+
+    @Override
+    public int remove(final T key, final int absent) {
+        int slot = find(key, spread(strategy.hash(key)));
+        if (slot < 0) {
+            return absent;
+        }
+        final int old = values[slot];
+        --size;
+        // Shift back entries whose probe sequence passes the freed slot
+        int next = (slot + 1) & mask;
+        while (hashes[next] != EMPTY) {
+            final int home = hashes[next] & mask;
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                keys[slot] = keys[next];
+                hashes[slot] = hashes[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[slot] = null;
+        hashes[slot] = EMPTY;
+        return old;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(hashes, EMPTY);
+        size = 0;
+    }
+
+    @Override
+    public void ensureCapacity(final int expectedSize) {
+        final int capacity = capacityFor(expectedSize);
+        if (capacity > keys.length) {
+            resize(capacity);
+        }
+    }
+
+    @Override
+    public @NotNull ContainerStats stats() {
+        // Mask is derived from the array read, so a racing resize can not mix tables
+        final int[] table = hashes;
+        final int tableMask = table.length - 1;
+        long probes = 0;
+        int maxProbe = 0;
+        int count = 0;
+        for (int i = 0; i < table.length; ++i) {
+            if (table[i] != EMPTY) {
+                final int probe = ((i - (table[i] & tableMask)) & tableMask) + 1;
+                probes += probe;
+                maxProbe = Math.max(maxProbe, probe);
+                ++count;
+            }
+        }
+        final long bytes = ContainerStats.objectBytes(4 * 4 + 3 * 4)
+            + ContainerStats.arrayBytes(table.length, 4) * 3;
+        return new ContainerStats("KeyIndex", count, table.length,
+            count == 0 ? 0 : (double) probes / count, maxProbe, 0, table.length - count, bytes);
+    }
+
+    private int find(final T key, final int h) {
+        int i = h & mask;
+        while (hashes[i] != EMPTY) {
+            if (hashes[i] == h && strategy.equals(key(i), key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T key(final int slot) {
+        return (T) keys[slot];
+    }
+
+    // Mixes strategy hash so low bits select slots, never returns EMPTY
+    private static int spread(final int hash) {
+        final int h = hash * 0x9E3779B9;
+        final int mixed = h ^ (h >>> 16);
+        return mixed == EMPTY ? 1 : mixed;
+    }
+
+    private void resize(final int capacity) {
+        final ContainerEvents.Resize event = new ContainerEvents.Resize();
+        event.begin();
+        final Object[] oldKeys = keys;
+        final int[] oldHashes = hashes;
+        final int[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldHashes.length; ++j) {
+            final int h = oldHashes[j];
+            if (h != EMPTY) {
+                int i = h & mask;
+                while (hashes[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                hashes[i] = h;
+                values[i] = oldValues[j];
+            }
+        }
+        ContainerEvents.commit(event, "KeyIndex", "table", oldKeys.length, capacity);
+    }
+
+    private void allocate(final int capacity) {
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * 0.75F);
+    }
+
+    private static int capacityFor(final int expectedSize) {
+        final int needed = (int) Math.min((long) (expectedSize / 0.75F) + 1, 1 << 30);
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(needed - 1) << 1);
+    }
+}
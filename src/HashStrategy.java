@@ -0,0 +1,137 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Hash and equality used by hashed containers in place of
+ * {@link Object#hashCode()} and {@link Object#equals(Object)}, for keys whose
+ * own methods are wrong (arrays) or expensive.
+ *
+ * @param <T> type of hashed values
+ */
+public interface HashStrategy<T> {
+    /**
+     * @param value value to be hashed, may be null
+     * @return hash of value, equal values must have equal hashes
+     */
+    int hash(T value);
+
+    /**
+     * @param first  first value, may be null
+     * @param second second value, may be null
+     * @return true if values are equal
+     */
+    boolean equals(T first, T second);
+
+    @SuppressWarnings("unchecked")
+    @Contract(pure = true)
+    static <T> @NotNull HashStrategy<T> natural() {
+        return (HashStrategy<T>) Strategies.NATURAL;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Contract(pure = true)
+    static <T> @NotNull HashStrategy<T> identity() {
+        return (HashStrategy<T>) Strategies.IDENTITY;
+    }
+
+    /**
+     * @return strategy comparing arrays by content, hashing eight bytes per step
+     */
+    @Contract(pure = true)
+    static @NotNull HashStrategy<byte[]> byteArrays() {
+        return Strategies.BYTE_ARRAYS;
+    }
+
+    /**
+     * @param <T> type of array elements
+     * @return strategy comparing arrays by content with element hashCode and equals
+     */
+    @SuppressWarnings("unchecked")
+    @Contract(pure = true)
+    static <T> @NotNull HashStrategy<T[]> arrays() {
+        return (HashStrategy<T[]>) (HashStrategy<?>) Strategies.ARRAYS;
+    }
+
+    final class Strategies {
+        private static final VarHandle LONGS =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+        private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+        private static final HashStrategy<Object> NATURAL = new HashStrategy<Object>() {
+            @Override
+            public int hash(final Object value) {
+                return Objects.hashCode(value);
+            }
+
+            @Override
+            public boolean equals(final Object first, final Object second) {
+                return Objects.equals(first, second);
+            }
+        };
+
+        private static final HashStrategy<Object> IDENTITY = new HashStrategy<Object>() {
+            @Override
+            public int hash(final Object value) {
+                return System.identityHashCode(value);
+            }
+
+            @Override
+            public boolean equals(final Object first, final Object second) {
+                return first == second;
+            }
+        };
+
+        private static final HashStrategy<byte[]> BYTE_ARRAYS = new HashStrategy<byte[]>() {
+            @Override
+            public int hash(final byte[] value) {
+                return value == null ? 0 : hashBytes(value);
+            }
+
+            @Override
+            public boolean equals(final byte[] first, final byte[] second) {
+                return Arrays.equals(first, second);
+            }
+        };
+
+        private static final HashStrategy<Object[]> ARRAYS = new HashStrategy<Object[]>() {
+            @Override
+            public int hash(final Object[] value) {
+                return Arrays.hashCode(value);
+            }
+
+            @Override
+            public boolean equals(final Object[] first, final Object[] second) {
+                return Arrays.equals(first, second);
+            }
+        };
+
+        private Strategies() {
+        }
+
+        // Multiply-xorshift over little endian words, not suitable against adversarial input
+        private static int hashBytes(final byte @NotNull [] value) {
+            long h = value.length * MULTIPLIER;
+            int i = 0;
+            for (; i + 8 <= value.length; i += 8) {
+                h = (h ^ (long) LONGS.get(value, i)) * MULTIPLIER;
+                h ^= h >>> 29;
+            }
+            long tail = 0;
+            for (int shift = 0; i < value.length; ++i, shift += 8) {
+                tail |= (value[i] & 0xFFL) << shift;
+            }
+            h = (h ^ tail) * MULTIPLIER;
+            h ^= h >>> 32;
+            return (int) h;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lookup index from keys to int values, kept beside dense insertion-ordered
+ * storage. Values are usually positions or ids in that storage.
+ */
+interface KeyIndex<T> {
+    int size();
+
+    /**
+     * @param key    key to find
+     * @param absent value returned if key is not present
+     * @return value of key or absent
+     */
+    int get(T key, int absent);
+
+    /**
+     * Same as {@link #get(Object, int)} for a caller that already hashed key.
+     *
+     * @param key    key to find
+     * @param hash   strategy hash of key
+     * @param absent value returned if key is not present
+     * @return value of key or absent
+     */
+    int get(T key, int hash, int absent);
+
+    boolean containsKey(T key);
+
+    /**
+     * @param key    key of entry
+     * @param value  value of entry
+     * @param absent value returned if key was not present
+     * @return previous value of key or absent
+     */
+    int put(T key, int value, int absent);
+
+    /**
+     * Same as {@link #put(Object, int, int)} for a caller that already hashed key.
+     *
+     * @param key    key of entry
+     * @param hash   strategy hash of key
+     * @param value  value of entry
+     * @param absent value returned if key was not present
+     * @return previous value of key or absent
+     */
+    int put(T key, int hash, int value, int absent);
+
+    /**
+     * @param key    key of entry to be removed
+     * @param absent value returned if key was not present
+     * @return removed value or absent
+     */
+    int remove(T key, int absent);
+
+    void clear();
+
+    /**
+     * @param expectedSize number of keys that should fit without resizing
+     */
+    void ensureCapacity(int expectedSize);
+
+    /**
+     * @return probe lengths, load and footprint of the table, keys excluded
+     */
+    @NotNull ContainerStats stats();
+
+    @Contract("_, _, _ -> new")
+    static <T> @NotNull KeyIndex<T> create(final @NotNull HashEngine engine,
+        final int expectedSize, final @NotNull HashStrategy<? super T> strategy) {
+        if (engine == HashEngine.SWISS) {
+            return new SwissIndex<>(expectedSize, strategy);
+        }
+        return new HashIndex<>(expectedSize, strategy);
+    }
+}
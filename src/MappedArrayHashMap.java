@@ -0,0 +1,540 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Read-only insertion-ordered map served from a memory-mapped file, the
+ * on-disk counterpart of {@link ArrayHashMap} for large reference data.
+ *
+ * <p>A file is written once by {@link Writer} and opened any number of times
+ * by {@link #open}. It holds the entries in insertion order, encoded by the
+ * key and value codecs, followed by the offsets of the entries in order and
+ * an open addressing table of key hashes and entry numbers. Lookups probe the
+ * table and decode only keys whose hash matches, iteration decodes entries in
+ * order. Nothing is loaded onto the heap when the file is opened, pages are
+ * read on demand and the page cache is shared by every process mapping the
+ * same file.
+ *
+ * <p>The file is mapped in segments of at most 1 GiB, an entry never crosses a
+ * segment. Keys must have a hashCode that is the same in every JVM, such as
+ * strings, boxed primitives and records of those. The map is safe to read from
+ * several threads.
+ */
+public final class MappedArrayHashMap<K, V> extends AbstractMap<K, V>
+    implements Iterable<Map.Entry<K, V>>, AutoCloseable {
+    private static final int MAGIC = 0x4D41484D;
+    private static final int VERSION = 1;
+    // Magic, version, size, table capacity, segment bits, padding, index offset
+    private static final int HEADER_SIZE = 32;
+    private static final int SEGMENT_BITS = 30;
+    private static final int MAX_SIZE = 1 << 28;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final Segments file;
+    private final int size;
+    private final int mask;
+    // Offsets of the entry offsets, the slot hashes and the slot entry numbers
+    private final long offsetsStart;
+    private final long hashesStart;
+    private final long entriesStart;
+
+    private MappedArrayHashMap(final @NotNull Codec<K> keyCodec, final @NotNull Codec<V> valueCodec,
+        final @NotNull Segments file, final int size, final int tableCapacity, final long indexOffset) {
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.file = file;
+        this.size = size;
+        mask = tableCapacity - 1;
+        offsetsStart = indexOffset;
+        hashesStart = indexOffset + size * 8L;
+        entriesStart = hashesStart + tableCapacity * 4L;
+    }
+
+    /**
+     * @param path       file written by {@link Writer}
+     * @param keyCodec   codec the keys were written with
+     * @param valueCodec codec the values were written with
+     * @return map reading the file
+     * @throws IOException if the file can not be mapped or is not a map file
+     */
+    public static <K, V> @NotNull MappedArrayHashMap<K, V> open(final @NotNull Path path,
+        final @NotNull Codec<K> keyCodec, final @NotNull Codec<V> valueCodec) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Reads until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Not a mapped map file: " + path);
+            }
+            final int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported version " + version + ": " + path);
+            }
+            final int size = header.getInt();
+            final int tableCapacity = header.getInt();
+            final int segmentBits = header.getInt();
+            header.getInt();
+            final long indexOffset = header.getLong();
+            if (indexOffset + size * 8L + tableCapacity * 8L != channel.size()) {
+                throw new IOException("Truncated mapped map file: " + path);
+            }
+            return new MappedArrayHashMap<>(keyCodec, valueCodec,
+                new Segments(channel, channel.size(), segmentBits), size, tableCapacity, indexOffset);
+        }
+    }
+
+    /**
+     * @param path       file to be created or replaced
+     * @param keyCodec   codec for keys
+     * @param valueCodec codec for values
+     * @return writer of a map file, entries are added in iteration order, the
+     * file is replaced by {@link Writer#finish}
+     * @throws IOException if the temporary file can not be created
+     */
+    @Contract("_, _, _ -> new")
+    public static <K, V> @NotNull Writer<K, V> writer(final @NotNull Path path,
+        final @NotNull Codec<K> keyCodec, final @NotNull Codec<V> valueCodec) throws IOException {
+        return new Writer<>(path, keyCodec, valueCodec, SEGMENT_BITS);
+    }
+
+    /**
+     * @param path       file to be created or replaced
+     * @param map        entries to be written, in iteration order
+     * @param keyCodec   codec for keys
+     * @param valueCodec codec for values
+     * @throws IOException if the file can not be written
+     */
+    public static <K, V> void write(final @NotNull Path path, final @NotNull Map<? extends K, ? extends V> map,
+        final @NotNull Codec<K> keyCodec, final @NotNull Codec<V> valueCodec) throws IOException {
+        try (Writer<K, V> writer = writer(path, keyCodec, valueCodec)) {
+            // forEach, as ArrayHashMap has no entry set
+            map.forEach((key, value) -> {
+                try {
+                    writer.put(key, value);
+                }
+                catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.finish();
+        }
+        catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        try {
+            return find(key) != null;
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public V get(final Object key) {
+        return getOrDefault(key, null);
+    }
+
+    @Override
+    public V getOrDefault(final Object key, final V defaultValue) {
+        try {
+            final DataInputStream in = find(key);
+            return in == null ? defaultValue : valueCodec.read(in);
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param index position in insertion order
+     * @return key inserted index-th
+     */
+    public K keyAt(final int index) {
+        Objects.checkIndex(index, size);
+        try {
+            return keyCodec.read(file.input(offset(index)));
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        try {
+            for (int i = 0; i < size; ++i) {
+                final DataInputStream in = file.input(offset(i));
+                action.accept(keyCodec.read(in), valueCodec.read(in));
+            }
+        }
+        catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public @NotNull Iterator<Map.Entry<K, V>> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    final DataInputStream in = file.input(offset(next++));
+                    return new AbstractMap.SimpleImmutableEntry<>(keyCodec.read(in), valueCodec.read(in));
+                }
+                catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    @Override
+    public @NotNull Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public @NotNull Iterator<Map.Entry<K, V>> iterator() {
+                return MappedArrayHashMap.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Drops the mapping. Pages are released once the buffers are collected,
+     * the map must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        file.close();
+    }
+
+    // Stream positioned at the value of key, null if key is absent
+    private DataInputStream find(final Object key) throws IOException {
+        final int hash = hash(key);
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            final int entry = file.getInt(entriesStart + slot * 4L);
+            if (entry == 0) {
+                return null;
+            }
+            if (file.getInt(hashesStart + slot * 4L) == hash) {
+                final DataInputStream in = file.input(offset(entry - 1));
+                if (Objects.equals(keyCodec.read(in), key)) {
+                    return in;
+                }
+            }
+        }
+    }
+
+    private long offset(final int index) {
+        return file.getLong(offsetsStart + index * 8L);
+    }
+
+    private static int hash(final Object key) {
+        final int h = Objects.hashCode(key) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Writes a map file entry by entry. Entries go to a temporary file next to
+     * the target as they are put, only their hashes and offsets are kept on the
+     * heap. {@link #finish} writes the index and moves the file into place, so
+     * the target is either left as it was or replaced by a complete file.
+     * Closing a writer that was not finished deletes the temporary file.
+     *
+     * @param <K> key type
+     * @param <V> value type
+     */
+    public static final class Writer<K, V> implements AutoCloseable {
+        private final Codec<K> keyCodec;
+        private final Codec<V> valueCodec;
+        private final Path path;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final int segmentBits;
+        // Entry encoded before writing, so it can be moved to the next segment
+        private final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+        private final DataOutputStream entryOut = new DataOutputStream(entryBytes);
+        private int[] hashes = new int[16];
+        private long[] offsets = new long[16];
+        private int size;
+        private long position = HEADER_SIZE;
+        private boolean closed;
+
+        Writer(final @NotNull Path path, final @NotNull Codec<K> keyCodec,
+            final @NotNull Codec<V> valueCodec, final int segmentBits) throws IOException {
+            this.keyCodec = keyCodec;
+            this.valueCodec = valueCodec;
+            this.segmentBits = segmentBits;
+            this.path = path;
+            final Path directory = path.toAbsolutePath().getParent();
+            // Created with default permissions, so other processes can map the result
+            temporary = directory.resolve(
+                path.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+            channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(HEADER_SIZE);
+            out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+        }
+
+        /**
+         * @param key   key not put before
+         * @param value value of key
+         * @throws IOException if the file fails
+         */
+        public void put(final K key, final V value) throws IOException {
+            if (closed) {
+                throw new IllegalStateException("Writer is closed");
+            }
+            if (size == MAX_SIZE) {
+                throw new IllegalStateException("Map file is full: " + size);
+            }
+            entryBytes.reset();
+            keyCodec.write(key, entryOut);
+            valueCodec.write(value, entryOut);
+            final int length = entryBytes.size();
+            final long segmentSize = 1L << segmentBits;
+            if (length > segmentSize) {
+                throw new IllegalArgumentException("Entry exceeds a segment: " + length + " bytes");
+            }
+            final long used = position & (segmentSize - 1);
+            if (used + length > segmentSize) {
+                pad(segmentSize - used);
+            }
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            hashes[size] = hash(key);
+            offsets[size++] = position;
+            entryBytes.writeTo(out);
+            position += length;
+        }
+
+        /**
+         * Writes the index and the header and replaces the target file.
+         *
+         * @throws IOException              if the file fails
+         * @throws IllegalArgumentException if a key was put twice
+         */
+        public void finish() throws IOException {
+            if (closed) {
+                throw new IllegalStateException("Writer is closed");
+            }
+            closed = true;
+            try {
+                pad(-position & 7);
+                final long indexOffset = position;
+                final int tableCapacity = Math.max(2, Integer.highestOneBit(Math.max(1, size)) << 2);
+                final int[] entries = table(tableCapacity);
+                for (int i = 0; i < size; ++i) {
+                    out.writeLong(offsets[i]);
+                }
+                for (final int entry : entries) {
+                    out.writeInt(entry == 0 ? 0 : hashes[entry - 1]);
+                }
+                for (final int entry : entries) {
+                    out.writeInt(entry);
+                }
+                out.flush();
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(tableCapacity)
+                    .putInt(segmentBits).putInt(0).putLong(indexOffset).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+                out.close();
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                abort();
+            }
+        }
+
+        /**
+         * Deletes the temporary file unless {@link #finish} completed.
+         *
+         * @throws IOException if the temporary file can not be deleted
+         */
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            abort();
+        }
+
+        private void abort() throws IOException {
+            hashes = null;
+            offsets = null;
+            try {
+                out.close();
+            }
+            finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        // Entry numbers by slot, keys with equal hashes are compared in the file
+        private int @NotNull [] table(final int tableCapacity) throws IOException {
+            out.flush();
+            final Segments log = new Segments(channel, position, segmentBits);
+            final int[] entries = new int[tableCapacity];
+            final int mask = tableCapacity - 1;
+            for (int i = 0; i < size; ++i) {
+                int slot = hashes[i] & mask;
+                while (entries[slot] != 0) {
+                    final int other = entries[slot] - 1;
+                    if (hashes[other] == hashes[i] && Objects.equals(
+                        keyCodec.read(log.input(offsets[other])), keyCodec.read(log.input(offsets[i])))) {
+                        throw new IllegalArgumentException(
+                            "Duplicate key: " + keyCodec.read(log.input(offsets[i])));
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                entries[slot] = i + 1;
+            }
+            log.close();
+            return entries;
+        }
+
+        private void pad(final long bytes) throws IOException {
+            for (long i = 0; i < bytes; ++i) {
+                out.write(0);
+            }
+            position += bytes;
+        }
+    }
+
+    /**
+     * Read-only mapping of a file prefix in segments of equal power of two
+     * size. Values read never cross a segment.
+     */
+    private static final class Segments {
+        private final int segmentBits;
+        private final long segmentMask;
+        private MappedByteBuffer[] buffers;
+
+        private Segments(final @NotNull FileChannel channel, final long length, final int segmentBits)
+            throws IOException {
+            this.segmentBits = segmentBits;
+            segmentMask = (1L << segmentBits) - 1;
+            buffers = new MappedByteBuffer[(int) ((length + segmentMask) >>> segmentBits)];
+            for (int i = 0; i < buffers.length; ++i) {
+                final long start = (long) i << segmentBits;
+                buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(segmentMask + 1, length - start));
+            }
+        }
+
+        private int getInt(final long position) {
+            return buffers[(int) (position >>> segmentBits)].getInt((int) (position & segmentMask));
+        }
+
+        private long getLong(final long position) {
+            return buffers[(int) (position >>> segmentBits)].getLong((int) (position & segmentMask));
+        }
+
+        // Stream over the rest of the segment holding position
+        private @NotNull DataInputStream input(final long position) {
+            final ByteBuffer buffer = buffers[(int) (position >>> segmentBits)].duplicate();
+            buffer.position((int) (position & segmentMask));
+            return new DataInputStream(new BufferInput(buffer));
+        }
+
+        private void close() {
+            buffers = new MappedByteBuffer[0];
+        }
+    }
+
+    private static final class BufferInput extends InputStream {
+        private final ByteBuffer buffer;
+
+        private BufferInput(final @NotNull ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte @NotNull [] bytes, final int offset, final int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int n = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
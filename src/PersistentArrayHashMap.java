@@ -0,0 +1,561 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Immutable insertion-ordered map with structural sharing, the persistent
+ * counterpart of {@link ArrayHashMap}.
+ *
+ * <p>Lookups go through a hash array mapped trie (HAMT). Insertion order is
+ * kept in a persistent 32-way vector of entries, indexed by the sequence
+ * number stored in every entry; a removed key leaves an empty slot in the
+ * vector until the empty slots outnumber live entries and the vector is
+ * rebuilt. {@link #with} and {@link #without} copy only the O(log32 n) nodes
+ * on the path to the changed entry and share everything else with the
+ * original version. Bulk construction goes through {@link Builder}, which
+ * builds both tries bottom-up in one pass.
+ */
+public final class PersistentArrayHashMap<K, V> extends AbstractMap<K, V>
+    implements Iterable<Map.Entry<K, V>> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentArrayHashMap<?, ?> EMPTY =
+        new PersistentArrayHashMap<>(new BitmapNode(0, new Object[0]), new Object[WIDTH], 0, 0, 0);
+
+    private final BitmapNode root;
+    private final Object[] order;
+    private final int orderShift;
+    // Number of used vector slots, including removed ones
+    private final int orderCount;
+    private final int size;
+
+    private PersistentArrayHashMap(final BitmapNode root, final Object[] order,
+        final int orderShift, final int orderCount, final int size) {
+        this.root = root;
+        this.order = order;
+        this.orderShift = orderShift;
+        this.orderCount = orderCount;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Contract(pure = true)
+    public static <K, V> @NotNull PersistentArrayHashMap<K, V> empty() {
+        return (PersistentArrayHashMap<K, V>) EMPTY;
+    }
+
+    @Contract(value = "-> new", pure = true)
+    public static <K, V> @NotNull Builder<K, V> builder() {
+        return new Builder<>(16);
+    }
+
+    /**
+     * @return builder initialized with entries of this map
+     */
+    public @NotNull Builder<K, V> toBuilder() {
+        final Builder<K, V> builder = new Builder<>(size);
+        forEach(builder::put);
+        return builder;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public V get(final Object key) {
+        final Node<K, V> node = find(key);
+        return node == null ? null : node.getValue();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return find(key) != null;
+    }
+
+    /**
+     * @param key   key of entry
+     * @param value value of entry
+     * @return map with entry added or replaced, new keys are placed last
+     */
+    public @NotNull PersistentArrayHashMap<K, V> with(final K key, final V value) {
+        final int hash = hash(key);
+        final Node<K, V> existing = find(key, hash);
+        if (existing != null) {
+            if (existing.getValue() == value) {
+                return this;
+            }
+            final Node<K, V> node = new Node<>(key, value, hash, existing.seq);
+            return new PersistentArrayHashMap<>(
+                (BitmapNode) assoc(root, node, 0), set(order, orderShift, node.seq, node),
+                orderShift, orderCount, size);
+        }
+        final Node<K, V> node = new Node<>(key, value, hash, orderCount);
+        Object[] newOrder;
+        int newShift = orderShift;
+        if (orderCount == 1 << (orderShift + BITS)) {
+            newOrder = new Object[WIDTH];
+            newOrder[0] = order;
+            newOrder[1] = path(orderShift, node);
+            newShift += BITS;
+        }
+        else {
+            newOrder = set(order, orderShift, orderCount, node);
+        }
+        return new PersistentArrayHashMap<>(
+            (BitmapNode) assoc(root, node, 0), newOrder, newShift, orderCount + 1, size + 1);
+    }
+
+    /**
+     * @param key key of entry to be removed
+     * @return map without key, or this map if key is not present
+     */
+    public @NotNull PersistentArrayHashMap<K, V> without(final Object key) {
+        final int hash = hash(key);
+        final Node<K, V> existing = find(key, hash);
+        if (existing == null) {
+            return this;
+        }
+        if (size == 1) {
+            return empty();
+        }
+        final Object newRoot = dissoc(root, key, hash, 0);
+        final int removed = orderCount - size + 1;
+        if (removed > WIDTH && removed > size - 1) {
+            return new PersistentArrayHashMap<K, V>(
+                (BitmapNode) newRoot, order, orderShift, orderCount, size - 1).compacted();
+        }
+        return new PersistentArrayHashMap<>((BitmapNode) newRoot,
+            set(order, orderShift, existing.seq, null), orderShift, orderCount, size - 1);
+    }
+
+    @Override
+    public void forEach(final @NotNull BiConsumer<? super K, ? super V> action) {
+        for (final Map.Entry<K, V> entry : this) {
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public @NotNull Iterator<Map.Entry<K, V>> iterator() {
+        return new OrderIterator();
+    }
+
+    @Override
+    public @NotNull Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public @NotNull Iterator<Map.Entry<K, V>> iterator() {
+                return new OrderIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private @NotNull PersistentArrayHashMap<K, V> compacted() {
+        final ContainerEvents.Compaction event = new ContainerEvents.Compaction();
+        event.begin();
+        final Builder<K, V> builder = new Builder<>(size);
+        for (final Map.Entry<K, V> entry : this) {
+            if (root.find(entry.getKey(), hash(entry.getKey()), 0) != null) {
+                builder.put(entry.getKey(), entry.getValue());
+            }
+        }
+        final PersistentArrayHashMap<K, V> compacted = builder.build();
+        ContainerEvents.commit(event, "PersistentArrayHashMap", orderCount, compacted.size);
+        return compacted;
+    }
+
+    private Node<K, V> find(final Object key) {
+        return find(key, hash(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<K, V> find(final Object key, final int hash) {
+        return (Node<K, V>) root.find(key, hash, 0);
+    }
+
+    private static int hash(final Object key) {
+        final int h = Objects.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(final int hash, final int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    // HAMT
+
+    private static @NotNull Object assoc(final Object node, final @NotNull Node<?, ?> entry,
+        final int shift) {
+        if (node instanceof CollisionNode) {
+            final CollisionNode collision = (CollisionNode) node;
+            if (collision.hash == entry.hash) {
+                return collision.with(entry);
+            }
+            final BitmapNode parent =
+                new BitmapNode(bit(collision.hash, shift), new Object[] {collision});
+            return assoc(parent, entry, shift);
+        }
+        final BitmapNode bitmapNode = (BitmapNode) node;
+        final int bit = bit(entry.hash, shift);
+        final int idx = Integer.bitCount(bitmapNode.bitmap & (bit - 1));
+        if ((bitmapNode.bitmap & bit) == 0) {
+            final Object[] slots = new Object[bitmapNode.slots.length + 1];
+            System.arraycopy(bitmapNode.slots, 0, slots, 0, idx);
+            slots[idx] = entry;
+            System.arraycopy(bitmapNode.slots, idx, slots, idx + 1, bitmapNode.slots.length - idx);
+            return new BitmapNode(bitmapNode.bitmap | bit, slots);
+        }
+        final Object slot = bitmapNode.slots[idx];
+        final Object replacement;
+        if (slot instanceof Node) {
+            final Node<?, ?> existing = (Node<?, ?>) slot;
+            replacement = Objects.equals(existing.getKey(), entry.getKey())
+                ? entry
+                : merge(existing, entry, shift + BITS);
+        }
+        else {
+            replacement = assoc(slot, entry, shift + BITS);
+        }
+        final Object[] slots = bitmapNode.slots.clone();
+        slots[idx] = replacement;
+        return new BitmapNode(bitmapNode.bitmap, slots);
+    }
+
+    private static @NotNull Object merge(final @NotNull Node<?, ?> first,
+        final @NotNull Node<?, ?> second, final int shift) {
+        if (first.hash == second.hash) {
+            return new CollisionNode(first.hash, new Node<?, ?>[] {first, second});
+        }
+        final int bit1 = bit(first.hash, shift);
+        final int bit2 = bit(second.hash, shift);
+        if (bit1 == bit2) {
+            return new BitmapNode(bit1, new Object[] {merge(first, second, shift + BITS)});
+        }
+        return new BitmapNode(bit1 | bit2,
+            Integer.compareUnsigned(bit1, bit2) < 0
+                ? new Object[] {first, second}
+                : new Object[] {second, first});
+    }
+
+    // Returns null for empty node, a single Node for a collapsed subtree below root
+    private static Object dissoc(final Object node, final Object key, final int hash,
+        final int shift) {
+        if (node instanceof CollisionNode) {
+            return ((CollisionNode) node).without(key);
+        }
+        final BitmapNode bitmapNode = (BitmapNode) node;
+        final int bit = bit(hash, shift);
+        final int idx = Integer.bitCount(bitmapNode.bitmap & (bit - 1));
+        final Object slot = bitmapNode.slots[idx];
+        final Object replacement = slot instanceof Node ? null : dissoc(slot, key, hash, shift + BITS);
+        if (replacement == null) {
+            if (bitmapNode.slots.length == 1 && shift != 0) {
+                return null;
+            }
+            if (bitmapNode.slots.length == 2 && shift != 0) {
+                final Object other = bitmapNode.slots[1 - idx];
+                if (other instanceof Node) {
+                    return other;
+                }
+            }
+            final Object[] slots = new Object[bitmapNode.slots.length - 1];
+            System.arraycopy(bitmapNode.slots, 0, slots, 0, idx);
+            System.arraycopy(bitmapNode.slots, idx + 1, slots, idx, slots.length - idx);
+            return new BitmapNode(bitmapNode.bitmap & ~bit, slots);
+        }
+        if (replacement instanceof Node && bitmapNode.slots.length == 1 && shift != 0) {
+            return replacement;
+        }
+        final Object[] slots = bitmapNode.slots.clone();
+        slots[idx] = replacement;
+        return new BitmapNode(bitmapNode.bitmap, slots);
+    }
+
+    // Builds a subtree from nodes sorted by reversed hash
+    private static @NotNull Object build(final Node<?, ?>[] nodes, final int from, final int to,
+        final int shift) {
+        if (shift != 0) {
+            if (to - from == 1) {
+                return nodes[from];
+            }
+            if (nodes[from].hash == nodes[to - 1].hash) {
+                return new CollisionNode(nodes[from].hash, Arrays.copyOfRange(nodes, from, to));
+            }
+        }
+        // Groups are contiguous but not in slot order, place them by bit afterwards
+        int bitmap = 0;
+        final ArrayList<Object> children = new ArrayList<>();
+        final ArrayList<Integer> bits = new ArrayList<>();
+        int start = from;
+        while (start < to) {
+            final int bit = bit(nodes[start].hash, shift);
+            int end = start + 1;
+            while (end < to && bit(nodes[end].hash, shift) == bit) {
+                ++end;
+            }
+            bitmap |= bit;
+            bits.add(bit);
+            children.add(build(nodes, start, end, shift + BITS));
+            start = end;
+        }
+        final Object[] slots = new Object[children.size()];
+        for (int i = 0; i < slots.length; ++i) {
+            slots[Integer.bitCount(bitmap & (bits.get(i) - 1))] = children.get(i);
+        }
+        return new BitmapNode(bitmap, slots);
+    }
+
+    // Ordering vector
+
+    private static Object @NotNull [] set(final Object @NotNull [] node, final int shift,
+        final int index, final Object value) {
+        final Object[] copy = node.clone();
+        if (shift == 0) {
+            copy[index & MASK] = value;
+        }
+        else {
+            final int idx = (index >>> shift) & MASK;
+            final Object[] child = (Object[]) node[idx];
+            copy[idx] = child == null
+                ? path(shift - BITS, value)
+                : set(child, shift - BITS, index, value);
+        }
+        return copy;
+    }
+
+    private static Object @NotNull [] path(final int shift, final Object value) {
+        final Object[] node = new Object[WIDTH];
+        node[0] = shift == 0 ? value : path(shift - BITS, value);
+        return node;
+    }
+
+    /**
+     * Mutable builder that collects entries in insertion order and builds the
+     * map in a single pass.
+     */
+    public static final class Builder<K, V> {
+        private final LinkedHashMap<K, V> entries;
+
+        private Builder(final int initialCapacity) {
+            entries = new LinkedHashMap<>(Math.max(16, (int) (initialCapacity / 0.75F) + 1));
+        }
+
+        public @NotNull Builder<K, V> put(final K key, final V value) {
+            entries.put(key, value);
+            return this;
+        }
+
+        public @NotNull Builder<K, V> putAll(final @NotNull Map<? extends K, ? extends V> map) {
+            entries.putAll(map);
+            return this;
+        }
+
+        public @NotNull Builder<K, V> remove(final Object key) {
+            entries.remove(key);
+            return this;
+        }
+
+        public @NotNull PersistentArrayHashMap<K, V> build() {
+            final int n = entries.size();
+            if (n == 0) {
+                return empty();
+            }
+            final Node<?, ?>[] nodes = new Node<?, ?>[n];
+            final long[] byHash = new long[n];
+            int seq = 0;
+            for (final Map.Entry<K, V> entry : entries.entrySet()) {
+                final Node<K, V> node =
+                    new Node<>(entry.getKey(), entry.getValue(), hash(entry.getKey()), seq);
+                nodes[seq] = node;
+                // Trie consumes low hash bits first, so sort by bit-reversed hash
+                byHash[seq] = (long) (Integer.reverse(node.hash) ^ Integer.MIN_VALUE) << 32 | seq;
+                ++seq;
+            }
+            Arrays.sort(byHash);
+            final Node<?, ?>[] sorted = new Node<?, ?>[n];
+            for (int i = 0; i < n; ++i) {
+                sorted[i] = nodes[(int) byHash[i]];
+            }
+            final BitmapNode root = (BitmapNode) PersistentArrayHashMap.build(sorted, 0, n, 0);
+
+            // Ordering vector, leaves first, then one level of parents at a time
+            Object[] level = new Object[(n + MASK) >>> BITS];
+            for (int i = 0; i < level.length; ++i) {
+                final Object[] leaf = new Object[WIDTH];
+                System.arraycopy(nodes, i << BITS, leaf, 0, Math.min(WIDTH, n - (i << BITS)));
+                level[i] = leaf;
+            }
+            int shift = 0;
+            while (level.length > 1) {
+                final Object[] parents = new Object[(level.length + MASK) >>> BITS];
+                for (int i = 0; i < parents.length; ++i) {
+                    final Object[] parent = new Object[WIDTH];
+                    System.arraycopy(level, i << BITS, parent, 0,
+                        Math.min(WIDTH, level.length - (i << BITS)));
+                    parents[i] = parent;
+                }
+                level = parents;
+                shift += BITS;
+            }
+            return new PersistentArrayHashMap<>(root, (Object[]) level[0], shift, n, n);
+        }
+    }
+
+    private static final class Node<K, V> extends AbstractMap.SimpleImmutableEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private final int hash;
+        private final int seq;
+
+        private Node(final K key, final V value, final int hash, final int seq) {
+            super(key, value);
+            this.hash = hash;
+            this.seq = seq;
+        }
+    }
+
+    private static final class BitmapNode {
+        private final int bitmap;
+        // Every slot is either a Node or a subtree
+        private final Object[] slots;
+
+        private BitmapNode(final int bitmap, final Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private Node<?, ?> find(final Object key, final int hash, int shift) {
+            BitmapNode node = this;
+            while (true) {
+                final int bit = bit(hash, shift);
+                if ((node.bitmap & bit) == 0) {
+                    return null;
+                }
+                final Object slot = node.slots[Integer.bitCount(node.bitmap & (bit - 1))];
+                if (slot instanceof Node) {
+                    final Node<?, ?> entry = (Node<?, ?>) slot;
+                    return entry.hash == hash && Objects.equals(entry.getKey(), key) ? entry : null;
+                }
+                if (slot instanceof CollisionNode) {
+                    return ((CollisionNode) slot).find(key, hash);
+                }
+                node = (BitmapNode) slot;
+                shift += BITS;
+            }
+        }
+    }
+
+    private static final class CollisionNode {
+        private final int hash;
+        private final Node<?, ?>[] entries;
+
+        private CollisionNode(final int hash, final Node<?, ?>[] entries) {
+            this.hash = hash;
+            this.entries = entries;
+        }
+
+        private Node<?, ?> find(final Object key, final int keyHash) {
+            if (keyHash != hash) {
+                return null;
+            }
+            for (final Node<?, ?> entry : entries) {
+                if (Objects.equals(entry.getKey(), key)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        private @NotNull CollisionNode with(final @NotNull Node<?, ?> entry) {
+            for (int i = 0; i < entries.length; ++i) {
+                if (Objects.equals(entries[i].getKey(), entry.getKey())) {
+                    final Node<?, ?>[] copy = entries.clone();
+                    copy[i] = entry;
+                    return new CollisionNode(hash, copy);
+                }
+            }
+            final Node<?, ?>[] copy = Arrays.copyOf(entries, entries.length + 1);
+            copy[entries.length] = entry;
+            return new CollisionNode(hash, copy);
+        }
+
+        private Object without(final Object key) {
+            int i = 0;
+            while (!Objects.equals(entries[i].getKey(), key)) {
+                ++i;
+            }
+            if (entries.length == 2) {
+                return entries[1 - i];
+            }
+            final Node<?, ?>[] copy = new Node<?, ?>[entries.length - 1];
+            System.arraycopy(entries, 0, copy, 0, i);
+            System.arraycopy(entries, i + 1, copy, i, copy.length - i);
+            return new CollisionNode(hash, copy);
+        }
+    }
+
+    private class OrderIterator implements Iterator<Map.Entry<K, V>> {
+        private int current;
+        private Object[] leaf;
+        private Node<K, V> nextNode;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean hasNext() {
+            while (nextNode == null && current < orderCount) {
+                if ((current & MASK) == 0 || leaf == null) {
+                    leaf = leafFor(current);
+                }
+                nextNode = (Node<K, V>) leaf[current & MASK];
+                ++current;
+            }
+            return nextNode != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Node<K, V> node = nextNode;
+            nextNode = null;
+            return node;
+        }
+
+        private Object[] leafFor(final int index) {
+            Object[] node = order;
+            for (int level = orderShift; level > 0; level -= BITS) {
+                node = (Object[]) node[(index >>> level) & MASK];
+            }
+            return node;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Immutable insertion-ordered set with structural sharing, the persistent
+ * counterpart of {@link ArrayHashSet}. Backed by {@link PersistentArrayHashMap}.
+ */
+public final class PersistentArrayHashSet<T> extends AbstractSet<T> {
+    private static final PersistentArrayHashSet<?> EMPTY =
+        new PersistentArrayHashSet<>(PersistentArrayHashMap.empty());
+
+    private final PersistentArrayHashMap<T, Boolean> map;
+
+    private PersistentArrayHashSet(final PersistentArrayHashMap<T, Boolean> map) {
+        this.map = map;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Contract(pure = true)
+    public static <T> @NotNull PersistentArrayHashSet<T> empty() {
+        return (PersistentArrayHashSet<T>) EMPTY;
+    }
+
+    @Contract(value = "-> new", pure = true)
+    public static <T> @NotNull Builder<T> builder() {
+        return new Builder<>(PersistentArrayHashMap.builder());
+    }
+
+    /**
+     * @return builder initialized with elements of this set
+     */
+    public @NotNull Builder<T> toBuilder() {
+        return new Builder<>(map.toBuilder());
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return map.containsKey(o);
+    }
+
+    /**
+     * @param value element to be added
+     * @return set containing value, new elements are placed last
+     */
+    public @NotNull PersistentArrayHashSet<T> with(final T value) {
+        final PersistentArrayHashMap<T, Boolean> result = map.with(value, Boolean.TRUE);
+        return result == map ? this : new PersistentArrayHashSet<>(result);
+    }
+
+    /**
+     * @param value element to be removed
+     * @return set without value, or this set if value is not present
+     */
+    public @NotNull PersistentArrayHashSet<T> without(final Object value) {
+        final PersistentArrayHashMap<T, Boolean> result = map.without(value);
+        return result == map ? this : new PersistentArrayHashSet<>(result);
+    }
+
+    @Override
+    public @NotNull Iterator<T> iterator() {
+        final Iterator<Map.Entry<T, Boolean>> iterator = map.iterator();
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next().getKey();
+            }
+        };
+    }
+
+    /**
+     * Mutable builder that collects elements in insertion order and builds the
+     * set in a single pass.
+     */
+    public static final class Builder<T> {
+        private final PersistentArrayHashMap.Builder<T, Boolean> builder;
+
+        private Builder(final PersistentArrayHashMap.Builder<T, Boolean> builder) {
+            this.builder = builder;
+        }
+
+        public @NotNull Builder<T> add(final T value) {
+            builder.put(value, Boolean.TRUE);
+            return this;
+        }
+
+        public @NotNull Builder<T> addAll(final @NotNull Collection<? extends T> collection) {
+            collection.forEach(this::add);
+            return this;
+        }
+
+        public @NotNull Builder<T> remove(final Object value) {
+            builder.remove(value);
+            return this;
+        }
+
+        public @NotNull PersistentArrayHashSet<T> build() {
+            final PersistentArrayHashMap<T, Boolean> map = builder.build();
+            return map.isEmpty() ? empty() : new PersistentArrayHashSet<>(map);
+        }
+    }
+}
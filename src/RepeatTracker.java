@@ -0,0 +1,216 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Optional;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Online counterpart of {@link Algorithms#firstNonRepeatingElement} and
+ * {@link Algorithms#firstRepeatingElement}. Elements are offered one at a
+ * time and both answers are available after every offer without rescanning
+ * the history.
+ *
+ * <p>Every distinct element owns one node that lives in exactly one of two
+ * intrusive lists: singletons (seen once) ordered by position, and repeated
+ * elements ordered by the moment they were seen for the second time.
+ * Queries are O(1), and so are offers without a window. When a window is set,
+ * the oldest element is evicted once the window is full; an element that drops
+ * back to a single occurrence is re-linked among the singletons by its
+ * remaining position. That walks back over the newer singletons, so an offer
+ * that evicts costs O(window) in the worst case.
+ */
+public final class RepeatTracker<T> {
+    private final HashMap<T, Node<T>> nodes;
+    private final ArrayDeque<T> window;
+    private final int windowSize;
+    private final NodeList<T> singletons = new NodeList<>();
+    private final NodeList<T> repeated = new NodeList<>();
+    private long position;
+
+    public RepeatTracker() {
+        nodes = new HashMap<>();
+        window = null;
+        windowSize = 0;
+    }
+
+    /**
+     * @param windowSize number of most recent elements taken into account
+     * @throws IllegalArgumentException if windowSize is not positive
+     */
+    public RepeatTracker(final int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        nodes = new HashMap<>(windowSize);
+        window = new ArrayDeque<>(windowSize);
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * @param elem element to be recorded, evicts oldest element if window is full
+     */
+    public void offer(final T elem) {
+        if (window != null) {
+            if (window.size() == windowSize) {
+                evictOldest();
+            }
+            window.addLast(elem);
+        }
+        final long pos = position++;
+        Node<T> node = nodes.get(elem);
+        if (node == null) {
+            node = new Node<>(elem);
+            nodes.put(elem, node);
+            node.count = 1;
+            node.lastPosition = pos;
+            singletons.addLast(node);
+            return;
+        }
+        ++node.count;
+        node.lastPosition = pos;
+        if (node.count == 2) {
+            singletons.unlink(node);
+            repeated.addLast(node);
+        }
+    }
+
+    /**
+     * @return Optional of evicted element, or Optional.empty() if window is empty
+     * @throws IllegalStateException if tracker was created without window
+     */
+    public Optional<T> evictOldest() {
+        if (window == null) {
+            throw new IllegalStateException("Tracker has no window");
+        }
+        if (window.isEmpty()) {
+            return Optional.empty();
+        }
+        final T elem = window.pollFirst();
+        final Node<T> node = nodes.get(elem);
+        --node.count;
+        if (node.count == 0) {
+            singletons.unlink(node);
+            nodes.remove(elem);
+        }
+        else if (node.count == 1) {
+            repeated.unlink(node);
+            singletons.insertByPosition(node);
+        }
+        return Optional.ofNullable(elem);
+    }
+
+    /**
+     * @return Optional of first element that occurred only once,
+     * or Optional.empty() if there is no such element
+     */
+    public Optional<T> firstNonRepeating() {
+        return singletons.head == null ? Optional.empty() : Optional.ofNullable(singletons.head.value);
+    }
+
+    /**
+     * @return Optional of first element that occurred more than once,
+     * or Optional.empty() if there is no such element
+     */
+    public Optional<T> firstRepeating() {
+        return repeated.head == null ? Optional.empty() : Optional.ofNullable(repeated.head.value);
+    }
+
+    /**
+     * @param elem element to be counted
+     * @return number of occurrences of elem in tracked range
+     */
+    public int count(final T elem) {
+        final Node<T> node = nodes.get(elem);
+        return node == null ? 0 : node.count;
+    }
+
+    public int distinctCount() {
+        return nodes.size();
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    public void clear() {
+        nodes.clear();
+        if (window != null) {
+            window.clear();
+        }
+        singletons.head = null;
+        singletons.tail = null;
+        repeated.head = null;
+        repeated.tail = null;
+    }
+
+    private static final class Node<T> {
+        private final T value;
+        private int count;
+        private long lastPosition;
+        private Node<T> prev;
+        private Node<T> next;
+
+        private Node(final T value) {
+            this.value = value;
+        }
+    }
+
+    private static final class NodeList<T> {
+        private Node<T> head;
+        private Node<T> tail;
+
+        private void addLast(final @NotNull Node<T> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            }
+            else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        // Walks back from the tail, cost is number of newer singletons
+        private void insertByPosition(final @NotNull Node<T> node) {
+            Node<T> after = tail;
+            while (after != null && after.lastPosition > node.lastPosition) {
+                after = after.prev;
+            }
+            node.prev = after;
+            node.next = after == null ? head : after.next;
+            if (node.next == null) {
+                tail = node;
+            }
+            else {
+                node.next.prev = node;
+            }
+            if (after == null) {
+                head = node;
+            }
+            else {
+                after.next = node;
+            }
+        }
+
+        private void unlink(final @NotNull Node<T> node) {
+            if (node.prev == null) {
+                head = node.next;
+            }
+            else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            }
+            else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+    }
+}
@@ -0,0 +1,799 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Compressed set of int ids, in the layout of Roaring bitmaps. Ids are
+ * treated as unsigned and split into a 16 bit key and a 16 bit low part;
+ * every key present owns one container for its low parts:
+ * <ul>
+ * <li>array container: sorted low parts, used up to 4096 elements</li>
+ * <li>bitmap container: 65536 bits, used above 4096 elements</li>
+ * <li>run container: sorted runs of consecutive low parts, produced by
+ * ranges and {@link #runOptimize()} when runs are smaller</li>
+ * </ul>
+ * Dense ids such as {@link UniqueArray} ids or {@link SlotMap} slot indices
+ * therefore cost about one bit each, sparse ids two bytes each.
+ */
+public final class RoaringIdSet implements Iterable<Integer> {
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private char[] keys;
+    private Container[] containers;
+    private int size;
+
+    public RoaringIdSet() {
+        keys = new char[4];
+        containers = new Container[4];
+    }
+
+    /**
+     * @param ids owner of ids, ids 1 to size() are added
+     * @return set of ids currently handed out by ids
+     */
+    @Contract("_ -> new")
+    public static @NotNull RoaringIdSet ofIds(final @NotNull UniqueArray<?> ids) {
+        final RoaringIdSet set = new RoaringIdSet();
+        set.addRange(1, ids.size() + 1L);
+        return set;
+    }
+
+    /**
+     * @param handles handles returned by {@link SlotMap#put}
+     * @return set of slot indices of handles
+     */
+    @Contract("_ -> new")
+    public static @NotNull RoaringIdSet ofSlots(
+        final @NotNull Iterable<Pair<Integer, Integer>> handles) {
+        final RoaringIdSet set = new RoaringIdSet();
+        for (final Pair<Integer, Integer> handle : handles) {
+            set.add(handle.getFirst());
+        }
+        return set;
+    }
+
+    public boolean contains(final int id) {
+        final int i = indexOf((char) (id >>> 16));
+        return i >= 0 && containers[i].contains((char) id);
+    }
+
+    /**
+     * @param id id to be added
+     * @return true if id was not present
+     */
+    public boolean add(final int id) {
+        final char key = (char) (id >>> 16);
+        int i = indexOf(key);
+        if (i < 0) {
+            i = -i - 1;
+            insert(i, key, new ArrayContainer());
+        }
+        final Container container = containers[i];
+        final long before = container.cardinality();
+        containers[i] = container.add((char) id);
+        return containers[i].cardinality() != before;
+    }
+
+    /**
+     * @param id id to be removed
+     * @return true if id was present
+     */
+    public boolean remove(final int id) {
+        final int i = indexOf((char) (id >>> 16));
+        if (i < 0 || !containers[i].contains((char) id)) {
+            return false;
+        }
+        final Container container = containers[i].remove((char) id);
+        if (container.cardinality() == 0) {
+            delete(i);
+        }
+        else {
+            containers[i] = container;
+        }
+        return true;
+    }
+
+    /**
+     * @param from first id to be added, as unsigned value
+     * @param to   id after the last one to be added, as unsigned value
+     */
+    public void addRange(final long from, final long to) {
+        long start = Math.max(0, from);
+        final long end = Math.min(to, 1L << 32);
+        while (start < end) {
+            final char key = (char) (start >>> 16);
+            final long chunkEnd = Math.min(end, ((start >>> 16) + 1) << 16);
+            final Container range = RunContainer.range((int) (start & 0xFFFF),
+                (int) (chunkEnd - 1 & 0xFFFF));
+            final int i = indexOf(key);
+            if (i < 0) {
+                insert(-i - 1, key, range);
+            }
+            else {
+                containers[i] = or(containers[i], range);
+            }
+            start = chunkEnd;
+        }
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; ++i) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param id id to rank, as unsigned value
+     * @return number of ids smaller than or equal to id
+     */
+    public long rank(final int id) {
+        final char key = (char) (id >>> 16);
+        long rank = 0;
+        for (int i = 0; i < size && keys[i] <= key; ++i) {
+            rank += keys[i] < key ? containers[i].cardinality() : containers[i].rank((char) id);
+        }
+        return rank;
+    }
+
+    /**
+     * @param index zero based position in ascending order
+     * @return id at position index
+     * @throws IndexOutOfBoundsException if index is negative or not smaller than cardinality
+     */
+    public int select(final long index) {
+        long remaining = index;
+        if (remaining >= 0) {
+            for (int i = 0; i < size; ++i) {
+                final long cardinality = containers[i].cardinality();
+                if (remaining < cardinality) {
+                    return keys[i] << 16 | containers[i].select((int) remaining);
+                }
+                remaining -= cardinality;
+            }
+        }
+        throw new IndexOutOfBoundsException("Index: " + index);
+    }
+
+    /**
+     * Converts every container whose run encoding is smaller to runs.
+     */
+    public void runOptimize() {
+        for (int i = 0; i < size; ++i) {
+            containers[i] = containers[i].runOptimized();
+        }
+    }
+
+    /**
+     * @return estimated heap size of containers in bytes
+     */
+    public long sizeInBytes() {
+        long bytes = 16L + 2L * keys.length + 4L * containers.length;
+        for (int i = 0; i < size; ++i) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    public void forEachId(final @NotNull IntConsumer action) {
+        for (int i = 0; i < size; ++i) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * @return iterator over ids in ascending unsigned order
+     */
+    @Override
+    public PrimitiveIterator.@NotNull OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int container;
+            private int next = size == 0 ? -1 : containers[0].next(0);
+
+            @Override
+            public boolean hasNext() {
+                while (next < 0 && container < size - 1) {
+                    ++container;
+                    next = containers[container].next(0);
+                }
+                return next >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final int low = next;
+                next = low == 0xFFFF ? -1 : containers[container].next(low + 1);
+                return keys[container] << 16 | low;
+            }
+        };
+    }
+
+    @Contract("_, _ -> new")
+    public static @NotNull RoaringIdSet and(final @NotNull RoaringIdSet first,
+        final @NotNull RoaringIdSet second) {
+        final RoaringIdSet result = new RoaringIdSet();
+        int i = 0;
+        int j = 0;
+        while (i < first.size && j < second.size) {
+            if (first.keys[i] < second.keys[j]) {
+                ++i;
+            }
+            else if (first.keys[i] > second.keys[j]) {
+                ++j;
+            }
+            else {
+                final Container c = and(first.containers[i], second.containers[j]);
+                if (c.cardinality() != 0) {
+                    result.insert(result.size, first.keys[i], c);
+                }
+                ++i;
+                ++j;
+            }
+        }
+        return result;
+    }
+
+    @Contract("_, _ -> new")
+    public static @NotNull RoaringIdSet or(final @NotNull RoaringIdSet first,
+        final @NotNull RoaringIdSet second) {
+        final RoaringIdSet result = new RoaringIdSet();
+        int i = 0;
+        int j = 0;
+        while (i < first.size || j < second.size) {
+            if (j == second.size || i < first.size && first.keys[i] < second.keys[j]) {
+                result.insert(result.size, first.keys[i], first.containers[i].copy());
+                ++i;
+            }
+            else if (i == first.size || first.keys[i] > second.keys[j]) {
+                result.insert(result.size, second.keys[j], second.containers[j].copy());
+                ++j;
+            }
+            else {
+                result.insert(result.size, first.keys[i],
+                    or(first.containers[i], second.containers[j]));
+                ++i;
+                ++j;
+            }
+        }
+        return result;
+    }
+
+    @Contract("_, _ -> new")
+    public static @NotNull RoaringIdSet andNot(final @NotNull RoaringIdSet first,
+        final @NotNull RoaringIdSet second) {
+        final RoaringIdSet result = new RoaringIdSet();
+        int j = 0;
+        for (int i = 0; i < first.size; ++i) {
+            while (j < second.size && second.keys[j] < first.keys[i]) {
+                ++j;
+            }
+            final Container c = j < second.size && second.keys[j] == first.keys[i]
+                ? andNot(first.containers[i], second.containers[j])
+                : first.containers[i].copy();
+            if (c.cardinality() != 0) {
+                result.insert(result.size, first.keys[i], c);
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(final char key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(final int i, final char key, final Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = key;
+        containers[i] = container;
+        ++size;
+    }
+
+    private void delete(final int i) {
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        --size;
+        containers[size] = null;
+    }
+
+    // Container algebra, array containers are merged directly, everything else through words
+
+    private static @NotNull Container and(final Container first, final Container second) {
+        if (first instanceof ArrayContainer) {
+            return ((ArrayContainer) first).filter(second, true);
+        }
+        if (second instanceof ArrayContainer) {
+            return ((ArrayContainer) second).filter(first, true);
+        }
+        final long[] words = first.words();
+        final long[] other = second.words();
+        for (int w = 0; w < WORDS; ++w) {
+            words[w] &= other[w];
+        }
+        return fromWords(words);
+    }
+
+    private static @NotNull Container or(final Container first, final Container second) {
+        final long[] words = first.words();
+        final long[] other = second.words();
+        for (int w = 0; w < WORDS; ++w) {
+            words[w] |= other[w];
+        }
+        return fromWords(words);
+    }
+
+    private static @NotNull Container andNot(final Container first, final Container second) {
+        if (first instanceof ArrayContainer) {
+            return ((ArrayContainer) first).filter(second, false);
+        }
+        final long[] words = first.words();
+        final long[] other = second.words();
+        for (int w = 0; w < WORDS; ++w) {
+            words[w] &= ~other[w];
+        }
+        return fromWords(words);
+    }
+
+    private static @NotNull Container fromWords(final long @NotNull [] words) {
+        int cardinality = 0;
+        for (final long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        if (cardinality > ARRAY_MAX) {
+            return new BitmapContainer(words, cardinality);
+        }
+        final char[] values = new char[cardinality];
+        int n = 0;
+        for (int w = 0; w < WORDS; ++w) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                values[n++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+            }
+        }
+        return new ArrayContainer(values, cardinality);
+    }
+
+    private abstract static class Container {
+        abstract boolean contains(char low);
+
+        abstract Container add(char low);
+
+        abstract Container remove(char low);
+
+        abstract int cardinality();
+
+        // Number of values smaller than or equal to low
+        abstract int rank(char low);
+
+        abstract char select(int index);
+
+        // Smallest value not below from, or -1
+        abstract int next(int from);
+
+        abstract void forEach(int high, IntConsumer action);
+
+        // Fresh bitmap words holding this container's values
+        abstract long[] words();
+
+        abstract Container copy();
+
+        abstract long sizeInBytes();
+
+        // Number of runs of consecutive values
+        abstract int runCount();
+
+        Container runOptimized() {
+            final int runs = runCount();
+            if (RunContainer.bytesFor(runs) >= sizeInBytes()) {
+                return this;
+            }
+            final char[] data = new char[2 * runs];
+            int n = 0;
+            int start = -1;
+            int previous = -2;
+            for (int v = next(0); v >= 0; v = v == 0xFFFF ? -1 : next(v + 1)) {
+                if (v != previous + 1) {
+                    if (start >= 0) {
+                        data[n++] = (char) start;
+                        data[n++] = (char) (previous - start);
+                    }
+                    start = v;
+                }
+                previous = v;
+            }
+            data[n++] = (char) start;
+            data[n] = (char) (previous - start);
+            return new RunContainer(data, runs);
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        private ArrayContainer() {
+            values = new char[4];
+        }
+
+        private ArrayContainer(final char[] values, final int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(final char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        Container add(final char low) {
+            int i = Arrays.binarySearch(values, 0, cardinality, low);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return new BitmapContainer(words(), cardinality).add(low);
+            }
+            i = -i - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = low;
+            ++cardinality;
+            return this;
+        }
+
+        @Override
+        Container remove(final char low) {
+            final int i = Arrays.binarySearch(values, 0, cardinality, low);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                --cardinality;
+            }
+            return this;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int rank(final char low) {
+            final int i = Arrays.binarySearch(values, 0, cardinality, low);
+            return i >= 0 ? i + 1 : -i - 1;
+        }
+
+        @Override
+        char select(final int index) {
+            return values[index];
+        }
+
+        @Override
+        int next(final int from) {
+            int i = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            if (i < 0) {
+                i = -i - 1;
+            }
+            return i < cardinality ? values[i] : -1;
+        }
+
+        @Override
+        void forEach(final int high, final IntConsumer action) {
+            for (int i = 0; i < cardinality; ++i) {
+                action.accept(high | values[i]);
+            }
+        }
+
+        @Override
+        long[] words() {
+            final long[] words = new long[WORDS];
+            for (int i = 0; i < cardinality; ++i) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return words;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 4)), cardinality);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 16L + 2L * values.length;
+        }
+
+        @Override
+        int runCount() {
+            int runs = 0;
+            for (int i = 0; i < cardinality; ++i) {
+                if (i == 0 || values[i] != values[i - 1] + 1) {
+                    ++runs;
+                }
+            }
+            return runs;
+        }
+
+        private @NotNull Container filter(final Container other, final boolean keepContained) {
+            final char[] kept = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < cardinality; ++i) {
+                if (other.contains(values[i]) == keepContained) {
+                    kept[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(kept, n);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] bits;
+        private int cardinality;
+
+        private BitmapContainer(final long[] bits, final int cardinality) {
+            this.bits = bits;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(final char low) {
+            return (bits[low >>> 6] & 1L << low) != 0;
+        }
+
+        @Override
+        Container add(final char low) {
+            final long word = bits[low >>> 6];
+            final long updated = word | 1L << low;
+            if (word != updated) {
+                bits[low >>> 6] = updated;
+                ++cardinality;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(final char low) {
+            final long word = bits[low >>> 6];
+            final long updated = word & ~(1L << low);
+            if (word != updated) {
+                bits[low >>> 6] = updated;
+                --cardinality;
+            }
+            return cardinality > ARRAY_MAX ? this : fromWords(bits);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int rank(final char low) {
+            int rank = 0;
+            final int last = low >>> 6;
+            for (int w = 0; w < last; ++w) {
+                rank += Long.bitCount(bits[w]);
+            }
+            final long mask = (low & 63) == 63 ? -1L : (1L << ((low & 63) + 1)) - 1;
+            return rank + Long.bitCount(bits[last] & mask);
+        }
+
+        @Override
+        char select(int index) {
+            int w = 0;
+            int count;
+            while ((count = Long.bitCount(bits[w])) <= index) {
+                index -= count;
+                ++w;
+            }
+            long word = bits[w];
+            for (; index > 0; --index) {
+                word &= word - 1;
+            }
+            return (char) (w << 6 | Long.numberOfTrailingZeros(word));
+        }
+
+        @Override
+        int next(final int from) {
+            int w = from >>> 6;
+            long word = bits[w] & -1L << from;
+            while (word == 0) {
+                if (++w == WORDS) {
+                    return -1;
+                }
+                word = bits[w];
+            }
+            return w << 6 | Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        void forEach(final int high, final IntConsumer action) {
+            for (int w = 0; w < WORDS; ++w) {
+                for (long word = bits[w]; word != 0; word &= word - 1) {
+                    action.accept(high | w << 6 | Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+
+        @Override
+        long[] words() {
+            return bits.clone();
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(bits.clone(), cardinality);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return 16L + 8L * WORDS;
+        }
+
+        @Override
+        int runCount() {
+            int runs = 0;
+            for (int w = 0; w < WORDS; ++w) {
+                final long word = bits[w];
+                // Runs start where a bit is set and the bit below is clear
+                final long carry = w == 0 ? 0 : bits[w - 1] >>> 63;
+                runs += Long.bitCount(word & ~(word << 1 | carry));
+            }
+            return runs;
+        }
+    }
+
+    private static final class RunContainer extends Container {
+        // Pairs of run start and run length minus one, sorted by start
+        private final char[] runs;
+        private final int count;
+
+        private RunContainer(final char[] runs, final int count) {
+            this.runs = runs;
+            this.count = count;
+        }
+
+        private static @NotNull RunContainer range(final int first, final int last) {
+            return new RunContainer(new char[] {(char) first, (char) (last - first)}, 1);
+        }
+
+        private static long bytesFor(final int runs) {
+            return 16L + 4L * runs;
+        }
+
+        // Index of the run starting at or before low, or -1
+        private int runFor(final char low) {
+            int lo = 0;
+            int hi = count - 1;
+            while (lo <= hi) {
+                final int mid = (lo + hi) >>> 1;
+                if (runs[2 * mid] <= low) {
+                    lo = mid + 1;
+                }
+                else {
+                    hi = mid - 1;
+                }
+            }
+            return hi;
+        }
+
+        @Override
+        boolean contains(final char low) {
+            final int r = runFor(low);
+            return r >= 0 && low - runs[2 * r] <= runs[2 * r + 1];
+        }
+
+        @Override
+        Container add(final char low) {
+            return contains(low) ? this : fromWords(words()).add(low);
+        }
+
+        @Override
+        Container remove(final char low) {
+            return contains(low) ? fromWords(words()).remove(low) : this;
+        }
+
+        @Override
+        int cardinality() {
+            int cardinality = 0;
+            for (int r = 0; r < count; ++r) {
+                cardinality += runs[2 * r + 1] + 1;
+            }
+            return cardinality;
+        }
+
+        @Override
+        int rank(final char low) {
+            int rank = 0;
+            for (int r = 0; r < count && runs[2 * r] <= low; ++r) {
+                rank += Math.min(runs[2 * r + 1], low - runs[2 * r]) + 1;
+            }
+            return rank;
+        }
+
+        @Override
+        char select(int index) {
+            for (int r = 0; ; ++r) {
+                final int length = runs[2 * r + 1] + 1;
+                if (index < length) {
+                    return (char) (runs[2 * r] + index);
+                }
+                index -= length;
+            }
+        }
+
+        @Override
+        int next(final int from) {
+            final int r = runFor((char) from);
+            if (r >= 0 && from - runs[2 * r] <= runs[2 * r + 1]) {
+                return from;
+            }
+            return r + 1 < count ? runs[2 * (r + 1)] : -1;
+        }
+
+        @Override
+        void forEach(final int high, final IntConsumer action) {
+            for (int r = 0; r < count; ++r) {
+                final int start = runs[2 * r];
+                final int end = start + runs[2 * r + 1];
+                for (int v = start; v <= end; ++v) {
+                    action.accept(high | v);
+                }
+            }
+        }
+
+        @Override
+        long[] words() {
+            final long[] words = new long[WORDS];
+            for (int r = 0; r < count; ++r) {
+                final int start = runs[2 * r];
+                final int end = start + runs[2 * r + 1];
+                for (int v = start; v <= end; ++v) {
+                    words[v >>> 6] |= 1L << v;
+                }
+            }
+            return words;
+        }
+
+        @Override
+        Container copy() {
+            return this;
+        }
+
+        @Override
+        long sizeInBytes() {
+            return bytesFor(count);
+        }
+
+        @Override
+        int runCount() {
+            return count;
+        }
+
+        @Override
+        Container runOptimized() {
+            return this;
+        }
+    }
+}
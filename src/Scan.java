@@ -0,0 +1,219 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Evaluates several {@link Algorithms} style checks in a single pass over
+ * the source. Checks are registered first, then {@link #run()} iterates the
+ * source once, feeding every element to the checks that are still open.
+ * A check that knows its answer (first match found, count reached) stops
+ * receiving elements, and the pass ends as soon as every check is resolved.
+ *
+ * <pre>
+ * final Scan&lt;Row&gt; scan = Algorithms.scan(rows);
+ * final Scan.Result&lt;Long&gt; large = scan.countIf(row -&gt; row.size() &gt; 10);
+ * final Scan.Result&lt;Boolean&gt; failed = scan.anyMatch(Row::failed);
+ * scan.run();
+ * </pre>
+ */
+public final class Scan<T> {
+    private final Iterator<T> source;
+    private final ArrayList<Check<T, ?>> checks = new ArrayList<>();
+    private boolean done;
+
+    Scan(final Iterator<T> source) {
+        this.source = source == null ? Collections.emptyIterator() : source;
+    }
+
+    /**
+     * @param predicate predicate returns true if element should be counted
+     * @return result holding number of elements for which predicate.test() returns true
+     */
+    public @NotNull Result<Long> countIf(final @NotNull Predicate<? super T> predicate) {
+        return register(new Check<T, Long>(0L) {
+            private long count;
+
+            @Override
+            boolean accept(final T elem) {
+                if (predicate.test(elem)) {
+                    ++count;
+                }
+                return false;
+            }
+
+            @Override
+            void finish() {
+                value = count;
+            }
+        });
+    }
+
+    /**
+     * @param predicate predicate returns true for element that should be returned
+     * @return result holding Optional of first element that satisfies predicate
+     */
+    public @NotNull Result<Optional<T>> findIf(final @NotNull Predicate<? super T> predicate) {
+        return register(new Check<T, Optional<T>>(Optional.empty()) {
+            @Override
+            boolean accept(final T elem) {
+                if (predicate.test(elem)) {
+                    value = Optional.of(elem);
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * @param predicate predicate to test elements with
+     * @return result holding true if any element satisfies predicate
+     */
+    public @NotNull Result<Boolean> anyMatch(final @NotNull Predicate<? super T> predicate) {
+        return register(matchCheck(predicate, false));
+    }
+
+    /**
+     * @param predicate predicate to test elements with
+     * @return result holding true if no element satisfies predicate
+     */
+    public @NotNull Result<Boolean> noneMatch(final @NotNull Predicate<? super T> predicate) {
+        return register(matchCheck(predicate, true));
+    }
+
+    /**
+     * @param predicate predicate to test elements with
+     * @return result holding true if every element satisfies predicate
+     */
+    public @NotNull Result<Boolean> allMatch(final @NotNull Predicate<? super T> predicate) {
+        return register(matchCheck(predicate.negate(), true));
+    }
+
+    /**
+     * @param count     number of elements required
+     * @param predicate predicates if element should be counted
+     * @return result holding true if source has count elements or more that satisfy
+     * predicate, false if count is negative
+     */
+    public @NotNull Result<Boolean> hasNItemsOrMore(
+        final long count, final @NotNull Predicate<? super T> predicate) {
+        if (count <= 0) {
+            return register(new Check<T, Boolean>(count == 0) {
+                @Override
+                boolean accept(final T elem) {
+                    return true;
+                }
+            });
+        }
+        return register(new Check<T, Boolean>(false) {
+            private long goodItems;
+
+            @Override
+            boolean accept(final T elem) {
+                if (predicate.test(elem) && ++goodItems >= count) {
+                    value = true;
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Iterates source once and resolves every registered check.
+     *
+     * @throws IllegalStateException if scan already ran
+     */
+    public void run() {
+        if (done) {
+            throw new IllegalStateException("Scan already ran");
+        }
+        done = true;
+        int open = checks.size();
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final Check<T, ?>[] active = checks.toArray(new Check[0]);
+        while (open != 0 && source.hasNext()) {
+            final T elem = source.next();
+            for (int i = 0; i < open; ) {
+                if (active[i].accept(elem)) {
+                    // Resolved, swap with last open check
+                    --open;
+                    active[i] = active[open];
+                }
+                else {
+                    ++i;
+                }
+            }
+        }
+        for (final Check<T, ?> check : checks) {
+            check.finish();
+            check.ready = true;
+        }
+    }
+
+    private <R> @NotNull Result<R> register(final @NotNull Check<T, R> check) {
+        if (done) {
+            throw new IllegalStateException("Scan already ran");
+        }
+        checks.add(check);
+        return check;
+    }
+
+    private static <T> @NotNull Check<T, Boolean> matchCheck(
+        final @NotNull Predicate<? super T> predicate, final boolean ifNoMatch) {
+        return new Check<T, Boolean>(ifNoMatch) {
+            @Override
+            boolean accept(final T elem) {
+                if (predicate.test(elem)) {
+                    value = !ifNoMatch;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param <R> type of value computed by check
+     */
+    public interface Result<R> {
+        /**
+         * @return value computed by check
+         * @throws IllegalStateException if scan did not run yet
+         */
+        R get();
+    }
+
+    private abstract static class Check<T, R> implements Result<R> {
+        protected R value;
+        private boolean ready;
+
+        Check(final R initial) {
+            value = initial;
+        }
+
+        /**
+         * @param elem next element of source
+         * @return true if check is resolved and needs no more elements
+         */
+        abstract boolean accept(T elem);
+
+        void finish() {
+        }
+
+        @Override
+        public R get() {
+            if (!ready) {
+                throw new IllegalStateException("Scan did not run yet");
+            }
+            return value;
+        }
+    }
+}
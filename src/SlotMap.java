@@ -24,11 +24,23 @@ public final class SlotMap<K> {
     private final ArrayList<K> values;
     private int nextAvailableSlotIndex;
     private int lastAvailableSlotIndex;
+    // Mirrors of the list capacities ArrayList hides, used to report growth to JFR
+    private int slotsCapacity;
+    private int reverseMapCapacity;
+    private int valuesCapacity;
 
     public SlotMap() {
-        slots = new ArrayList<>();
+        // Capacity ArrayList allocates on the first add
+        this(new ArrayList<>(), 10);
+    }
+
+    private SlotMap(final ArrayList<Pair<Integer, Integer>> slots, final int defaultCapacity) {
+        this.slots = slots;
         reverseMap = new ArrayList<>();
         values = new ArrayList<>();
+        slotsCapacity = defaultCapacity;
+        reverseMapCapacity = defaultCapacity;
+        valuesCapacity = defaultCapacity;
     }
 
     public SlotMap(final int initialCapacity) {
@@ -36,6 +48,8 @@ public final class SlotMap<K> {
         reserveSlots(initialCapacity);
         reverseMap = new ArrayList<>(initialCapacity);
         values = new ArrayList<>(initialCapacity);
+        reverseMapCapacity = initialCapacity;
+        valuesCapacity = initialCapacity;
     }
 
     public boolean isEmpty() {
@@ -57,12 +71,15 @@ public final class SlotMap<K> {
 
     public void ensuresCapacity(final int minCapacity) {
         values.ensureCapacity(minCapacity);
+        valuesCapacity = Math.max(valuesCapacity, minCapacity);
         reverseMap.ensureCapacity(minCapacity);
+        reverseMapCapacity = Math.max(reverseMapCapacity, minCapacity);
         reserveSlots(minCapacity);
     }
 
     public void reserveSlots(int minCapacity) {
         slots.ensureCapacity(minCapacity);
+        slotsCapacity = Math.max(slotsCapacity, minCapacity);
         final int originalNumSlots = slots.size();
         if (originalNumSlots < minCapacity) {
             slots.add(Pair.of(nextAvailableSlotIndex, 0));
@@ -80,12 +97,32 @@ public final class SlotMap<K> {
         return slots.size();
     }
 
+    /**
+     * @return slot usage and footprint, values excluded
+     */
+    public @NotNull ContainerStats stats() {
+        final int slotCount = slots.size();
+        final int size = values.size();
+        // Every slot is a Pair of two boxed Integers, every value has a boxed slot index
+        final long integer = ContainerStats.objectBytes(4);
+        final long bytes = ContainerStats.objectBytes(8 * 4)
+            + ContainerStats.listBytes(slotsCapacity)
+            + slotCount * (ContainerStats.objectBytes(2 * 4) + 2 * integer)
+            + ContainerStats.listBytes(reverseMapCapacity) + ContainerStats.listBytes(valuesCapacity)
+            + size * integer;
+        return new ContainerStats("SlotMap", size, slotCount, 0, 0, 0, slotCount - size, bytes);
+    }
+
     public @NotNull Pair<Integer, Integer> put(final K key) {
         final int valuePos = values.size();
+        valuesCapacity = ContainerEvents.ensureRoom(values, valuesCapacity, "SlotMap", "values");
         values.add(key);
+        reverseMapCapacity =
+            ContainerEvents.ensureRoom(reverseMap, reverseMapCapacity, "SlotMap", "reverseMap");
         reverseMap.add(nextAvailableSlotIndex);
         if (nextAvailableSlotIndex == slots.size()) {
             final int idx = nextAvailableSlotIndex + 1;
+            slotsCapacity = ContainerEvents.ensureRoom(slots, slotsCapacity, "SlotMap", "slots");
             slots.add(Pair.of(idx, 0));
             lastAvailableSlotIndex = idx;
         }
@@ -142,15 +179,14 @@ public final class SlotMap<K> {
         return Optional.of(getIndex(slotValue));
     }
 
-    public boolean removeIf(final Predicate<K> predicate) {
-        int i = 0;
+    public boolean removeIf(final Predicate<? super K> predicate) {
         boolean removed = false;
-        for (K elem : values) {
-            if (predicate.test(elem)) {
+        // Removal moves the last value into the gap, walking down it was tested already
+        for (int i = values.size() - 1; i >= 0; --i) {
+            if (predicate.test(values.get(i))) {
                 removed = true;
                 this.remove(i);
             }
-            ++i;
         }
         return removed;
     }
@@ -200,6 +236,13 @@ public final class SlotMap<K> {
         return values.spliterator();
     }
 
+    /**
+     * @return batch iterator over values in storage order, a batch per array copy
+     */
+    public @NotNull BatchIterator<K> batchIterator() {
+        return BatchIterator.of(values);
+    }
+
     public void forEach(final Consumer<? super K> consumer) {
         values.forEach(consumer);
     }
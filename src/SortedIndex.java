@@ -0,0 +1,134 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Build-once search index over primitive keys, alternative to
+ * {@link Algorithms#binarySearch} for lookup heavy code.
+ *
+ * <p>Keys are stored in Eytzinger (breadth-first) order: the first levels of
+ * the implicit tree share a few cache lines and the children of a node are
+ * adjacent, so every probe moves one level down without a data dependent
+ * branch. {@link #lowerBound(long[])} descends several queries in lock-step
+ * so their cache misses overlap.
+ */
+public final class SortedIndex {
+    private static final int BATCH = 8;
+
+    // 1-based Eytzinger layout, tree[0] is unused
+    private final long[] tree;
+    // Rank in sorted order of every tree node, rank[0] == size
+    private final int[] rank;
+    private final int size;
+    private final int depth;
+
+    private SortedIndex(final long @NotNull [] sorted) {
+        size = sorted.length;
+        tree = new long[size + 1];
+        rank = new int[size + 1];
+        rank[0] = size;
+        depth = 32 - Integer.numberOfLeadingZeros(size);
+        fill(sorted, 0, 1);
+    }
+
+    /**
+     * @param keys keys to be indexed, array is not modified
+     * @return index over keys
+     */
+    @Contract("_ -> new")
+    public static @NotNull SortedIndex of(final int @NotNull [] keys) {
+        final long[] sorted = new long[keys.length];
+        for (int i = 0; i < keys.length; ++i) {
+            sorted[i] = keys[i];
+        }
+        Arrays.sort(sorted);
+        return new SortedIndex(sorted);
+    }
+
+    /**
+     * @param keys keys to be indexed, array is not modified
+     * @return index over keys
+     */
+    @Contract("_ -> new")
+    public static @NotNull SortedIndex of(final long @NotNull [] keys) {
+        final long[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        return new SortedIndex(sorted);
+    }
+
+    // In-order traversal of the implicit tree assigns sorted keys to nodes
+    private int fill(final long[] sorted, int next, final int node) {
+        if (node <= size) {
+            next = fill(sorted, next, 2 * node);
+            tree[node] = sorted[next];
+            rank[node] = next;
+            ++next;
+            next = fill(sorted, next, 2 * node + 1);
+        }
+        return next;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param key value to find
+     * @return number of indexed keys smaller than key, size() if every key is smaller
+     */
+    public int lowerBound(final long key) {
+        int k = 1;
+        while (k <= size) {
+            k = 2 * k + (tree[k] < key ? 1 : 0);
+        }
+        return rank[node(k)];
+    }
+
+    /**
+     * @param queries values to find
+     * @return lowerBound of every query, in query order
+     */
+    public int @NotNull [] lowerBound(final long @NotNull [] queries) {
+        final int[] result = new int[queries.length];
+        final int[] k = new int[BATCH];
+        int q = 0;
+        for (; q + BATCH <= queries.length; q += BATCH) {
+            Arrays.fill(k, 1);
+            for (int level = 0; level < depth; ++level) {
+                for (int j = 0; j < BATCH; ++j) {
+                    final int kj = k[j];
+                    k[j] = kj <= size ? 2 * kj + (tree[kj] < queries[q + j] ? 1 : 0) : kj;
+                }
+            }
+            for (int j = 0; j < BATCH; ++j) {
+                result[q + j] = rank[node(k[j])];
+            }
+        }
+        for (; q < queries.length; ++q) {
+            result[q] = lowerBound(queries[q]);
+        }
+        return result;
+    }
+
+    /**
+     * @param key value to find
+     * @return true if key is indexed
+     */
+    public boolean contains(final long key) {
+        int k = 1;
+        while (k <= size) {
+            k = 2 * k + (tree[k] < key ? 1 : 0);
+        }
+        k = node(k);
+        return k != 0 && tree[k] == key;
+    }
+
+    // Undo the right turns taken after the last left turn, 0 means past the end
+    private static int node(final int k) {
+        return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+    }
+}
@@ -0,0 +1,275 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Swiss table from keys to int values, used as lookup index beside dense
+ * insertion-ordered storage.
+ *
+ * <p>Slots are grouped by eight and every group has one long of control
+ * bytes: {@code 0x80} for empty, {@code 0xFE} for deleted, otherwise the low
+ * seven bits of the slot's hash. A probe compares the tag against all eight
+ * control bytes with a few word operations and calls
+ * {@link HashStrategy#equals} only for slots whose tag and cached hash match.
+ * The probe stops at the first group that still has an empty slot, which keeps
+ * probes short up to 87.5% load. Groups are visited in triangular order.
+ */
+final class SwissIndex<T> implements KeyIndex<T> {
+    private static final int GROUP = 8;
+    private static final long EMPTY_GROUP = 0x8080808080808080L;
+    private static final long LSBS = 0x0101010101010101L;
+    private static final long MSBS = 0x8080808080808080L;
+    private static final long EMPTY = 0x80L;
+    private static final long DELETED = 0xFEL;
+
+    private final HashStrategy<? super T> strategy;
+    private long[] control;
+    private Object[] keys;
+    private int[] hashes;
+    private int[] values;
+    private int groupMask;
+    private int size;
+    // Empty slots that may still be used before the table has to be rebuilt
+    private int growthLeft;
+
+    SwissIndex(final int expectedSize, final @NotNull HashStrategy<? super T> strategy) {
+        this.strategy = strategy;
+        allocate(groupsFor(expectedSize));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int get(final T key, final int absent) {
+        return get(key, strategy.hash(key), absent);
+    }
+
+    @Override
+    public int get(final T key, final int hash, final int absent) {
+        final int slot = find(key, spread(hash));
+        return slot < 0 ? absent : values[slot];
+    }
+
+    @Override
+    public boolean containsKey(final T key) {
+        return find(key, spread(strategy.hash(key))) >= 0;
+    }
+
+    @Override
+    public int put(final T key, final int value, final int absent) {
+        return put(key, strategy.hash(key), value, absent);
+    }
+
+    @Override
+    public int put(final T key, final int hash, final int value, final int absent) {
+        final int h = spread(hash);
+        final int found = find(key, h);
+        if (found >= 0) {
+            final int old = values[found];
+            values[found] = value;
+            return old;
+        }
+        if (growthLeft == 0) {
+            // Mostly tombstones: rebuild in place, otherwise grow
+            rebuild(size >= capacity() / 2 ? (groupMask + 1) << 1 : groupMask + 1);
+        }
+        final int slot = findFree(h);
+        if (controlAt(slot) == EMPTY) {
+            --growthLeft;
+        }
+        setControl(slot, h & 0x7F);
+        keys[slot] = key;
+        hashes[slot] = h;
+        values[slot] = value;
+        ++size;
+        return absent;
+    }
+
+    @Override
+    public int remove(final T key, final int absent) {
+        final int slot = find(key, spread(strategy.hash(key)));
+        if (slot < 0) {
+            return absent;
+        }
+        // A group with an empty slot ends every probe, so its slots can be empty again
+        if (matchEmpty(control[slot / GROUP]) != 0) {
+            setControl(slot, EMPTY);
+            ++growthLeft;
+        }
+        else {
+            setControl(slot, DELETED);
+        }
+        keys[slot] = null;
+        --size;
+        return values[slot];
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(control, EMPTY_GROUP);
+        Arrays.fill(keys, null);
+        size = 0;
+        growthLeft = maxLoad(capacity());
+    }
+
+    @Override
+    public void ensureCapacity(final int expectedSize) {
+        final int groups = groupsFor(expectedSize);
+        if (groups > groupMask + 1) {
+            rebuild(groups);
+        }
+    }
+
+    @Override
+    public @NotNull ContainerStats stats() {
+        // Tables are read once, so a racing rebuild can not mix them
+        final long[] controlWords = control;
+        final int[] table = hashes;
+        final int mask = controlWords.length - 1;
+        long probes = 0;
+        int maxProbe = 0;
+        int count = 0;
+        int deleted = 0;
+        for (int slot = 0; slot < table.length; ++slot) {
+            final long c = (controlWords[slot / GROUP] >>> ((slot % GROUP) * 8)) & 0xFF;
+            if (c == DELETED) {
+                ++deleted;
+            }
+            else if (c != EMPTY) {
+                // Groups visited by the triangular probe before the slot's group
+                int group = (table[slot] >>> 7) & mask;
+                int probe = 1;
+                while (group != slot / GROUP && probe <= mask) {
+                    group = (group + probe++) & mask;
+                }
+                probes += probe;
+                maxProbe = Math.max(maxProbe, probe);
+                ++count;
+            }
+        }
+        final long bytes = ContainerStats.objectBytes(5 * 4 + 3 * 4)
+            + ContainerStats.arrayBytes(controlWords.length, 8)
+            + ContainerStats.arrayBytes(table.length, 4) * 3;
+        return new ContainerStats("KeyIndex", count, table.length,
+            count == 0 ? 0 : (double) probes / count, maxProbe, deleted,
+            table.length - count - deleted, bytes);
+    }
+
+    private int find(final T key, final int h) {
+        final long tag = (h & 0x7F) * LSBS;
+        int group = (h >>> 7) & groupMask;
+        int step = 0;
+        while (true) {
+            final long word = control[group];
+            long matches = matchByte(word, tag);
+            while (matches != 0) {
+                final int slot = group * GROUP + (Long.numberOfTrailingZeros(matches) >>> 3);
+                if (hashes[slot] == h && strategy.equals(key(slot), key)) {
+                    return slot;
+                }
+                matches &= matches - 1;
+            }
+            if (matchEmpty(word) != 0) {
+                return -1;
+            }
+            group = (group + ++step) & groupMask;
+        }
+    }
+
+    private int findFree(final int h) {
+        int group = (h >>> 7) & groupMask;
+        int step = 0;
+        while (true) {
+            final long free = control[group] & MSBS;
+            if (free != 0) {
+                return group * GROUP + (Long.numberOfTrailingZeros(free) >>> 3);
+            }
+            group = (group + ++step) & groupMask;
+        }
+    }
+
+    // High bit of every byte equal to tag, may flag a byte above a real match
+    private static long matchByte(final long word, final long tag) {
+        final long x = word ^ tag;
+        return (x - LSBS) & ~x & MSBS;
+    }
+
+    // Empty has the high bit set and the next bit clear, deleted has both set
+    private static long matchEmpty(final long word) {
+        return word & ~(word << 1) & MSBS;
+    }
+
+    private long controlAt(final int slot) {
+        return (control[slot / GROUP] >>> ((slot % GROUP) * 8)) & 0xFF;
+    }
+
+    private void setControl(final int slot, final long value) {
+        final int shift = (slot % GROUP) * 8;
+        final int group = slot / GROUP;
+        control[group] = (control[group] & ~(0xFFL << shift)) | (value << shift);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T key(final int slot) {
+        return (T) keys[slot];
+    }
+
+    private static int spread(final int hash) {
+        final int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int capacity() {
+        return (groupMask + 1) * GROUP;
+    }
+
+    private void rebuild(final int groups) {
+        final ContainerEvents.Resize event = new ContainerEvents.Resize();
+        event.begin();
+        final long[] oldControl = control;
+        final Object[] oldKeys = keys;
+        final int[] oldHashes = hashes;
+        final int[] oldValues = values;
+        allocate(groups);
+        for (int slot = 0; slot < oldKeys.length; ++slot) {
+            final long c = (oldControl[slot / GROUP] >>> ((slot % GROUP) * 8)) & 0xFF;
+            if ((c & EMPTY) == 0) {
+                final int h = oldHashes[slot];
+                final int free = findFree(h);
+                setControl(free, h & 0x7F);
+                keys[free] = oldKeys[slot];
+                hashes[free] = h;
+                values[free] = oldValues[slot];
+                --growthLeft;
+            }
+        }
+        // Same capacity means tombstones were dropped in place
+        ContainerEvents.commit(event, "KeyIndex", "table", oldKeys.length, capacity());
+    }
+
+    private void allocate(final int groups) {
+        control = new long[groups];
+        Arrays.fill(control, EMPTY_GROUP);
+        keys = new Object[groups * GROUP];
+        hashes = new int[groups * GROUP];
+        values = new int[groups * GROUP];
+        groupMask = groups - 1;
+        growthLeft = maxLoad(groups * GROUP);
+    }
+
+    private static int maxLoad(final int capacity) {
+        return capacity - capacity / 8;
+    }
+
+    private static int groupsFor(final int expectedSize) {
+        final long slots = (long) expectedSize * 8 / 7 + 1;
+        final int groups = (int) Math.min((slots + GROUP - 1) / GROUP, 1 << 27);
+        return Math.max(1, Integer.highestOneBit(Math.max(1, groups - 1)) << 1);
+    }
+}
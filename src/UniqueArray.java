@@ -3,7 +3,6 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Objects;
 import java.util.Spliterator;
@@ -13,16 +12,57 @@ import java.util.function.Predicate;
 import org.jetbrains.annotations.NotNull;
 
 public class UniqueArray<T> implements Iterable<T> {
-    private final HashMap<T, Integer> map;
+    private final KeyIndex<T> map;
     private final ArrayList<T> storage;
+    private final HashStrategy<? super T> strategy;
+    // Answers most misses before the index is probed, null if disabled
+    private BlockedBloomFilter prefilter;
+    // Mirror of the storage capacity, used to report resizes to JFR
+    private int storageCapacity;
 
     public UniqueArray() {
         this(16);
     }
 
     public UniqueArray(final int initialCapacity) {
-        map = new HashMap<>(initialCapacity);
+        this(initialCapacity, HashStrategy.natural());
+    }
+
+    /**
+     * @param initialCapacity number of elements that fit without resizing
+     * @param strategy        hash and equality used for elements
+     */
+    public UniqueArray(final int initialCapacity, final @NotNull HashStrategy<? super T> strategy) {
+        this(initialCapacity, strategy, HashEngine.LINEAR_PROBING);
+    }
+
+    /**
+     * @param initialCapacity number of elements that fit without resizing
+     * @param strategy        hash and equality used for elements
+     * @param engine          hash table layout of the lookup index
+     */
+    public UniqueArray(final int initialCapacity, final @NotNull HashStrategy<? super T> strategy,
+        final @NotNull HashEngine engine) {
+        this(initialCapacity, strategy, engine, false);
+    }
+
+    /**
+     * @param initialCapacity number of elements that fit without resizing
+     * @param strategy        hash and equality used for elements
+     * @param engine          hash table layout of the lookup index
+     * @param prefilter       keep a blocked Bloom filter of the elements, so lookups
+     *                        of absent elements mostly skip the index, worth it
+     *                        when most lookups miss
+     */
+    public UniqueArray(final int initialCapacity, final @NotNull HashStrategy<? super T> strategy,
+        final @NotNull HashEngine engine, final boolean prefilter) {
+        map = KeyIndex.create(engine, initialCapacity, strategy);
         storage = new ArrayList<>(initialCapacity);
+        storageCapacity = initialCapacity;
+        this.strategy = strategy;
+        if (prefilter) {
+            this.prefilter = new BlockedBloomFilter(initialCapacity);
+        }
     }
 
     public UniqueArray(final @NotNull Collection<? extends T> collection) {
@@ -31,13 +71,22 @@ public class UniqueArray<T> implements Iterable<T> {
     }
 
     public int add(final T value) {
-        final Integer v = map.get(value);
-        if (v != null) {
+        // One strategy hash serves the prefilter and both index probes
+        final int hash = strategy.hash(value);
+        final int v = idFor(value, hash);
+        if (v != 0) {
             return v;
         }
         final int val = storage.size() + 1;
-        map.put(value, val);
+        map.put(value, hash, val, 0);
+        storageCapacity = ContainerEvents.ensureRoom(storage, storageCapacity, "UniqueArray", "storage");
         storage.add(value);
+        if (prefilter != null) {
+            prefilter.add(hash);
+            if (prefilter.isFull()) {
+                rebuildPrefilter();
+            }
+        }
 
         return val;
     }
@@ -55,15 +104,18 @@ public class UniqueArray<T> implements Iterable<T> {
     public void clear() {
         map.clear();
         storage.clear();
+        if (prefilter != null) {
+            prefilter = new BlockedBloomFilter(prefilter.capacity());
+        }
     }
 
     public boolean contains(final T value) {
-        return map.containsKey(value);
+        return idFor(value) != 0;
     }
 
     public boolean containsAll(final @NotNull Collection<? extends T> collection) {
         for (T t : collection) {
-            if (!map.containsKey(t)) {
+            if (!this.contains(t)) {
                 return false;
             }
         }
@@ -71,7 +123,9 @@ public class UniqueArray<T> implements Iterable<T> {
     }
 
     public void ensuresCapacity(final int minCapacity) {
+        map.ensureCapacity(minCapacity);
         storage.ensureCapacity(minCapacity);
+        storageCapacity = Math.max(storageCapacity, minCapacity);
     }
 
     public void forEach(final Consumer<? super T> consumer) {
@@ -105,12 +159,8 @@ public class UniqueArray<T> implements Iterable<T> {
     }
 
     public int idFor(final T value) {
-        final Integer v = map.get(value);
-        if (v != null) {
-            return v;
-        }
-        // No value in map
-        return 0;
+        // 0 if no value in map
+        return idFor(value, strategy.hash(value));
     }
 
     public T getById(final int id) {
@@ -129,14 +179,29 @@ public class UniqueArray<T> implements Iterable<T> {
         return this.indexOf(value);
     }
 
+    /**
+     * Removes in linear time: later elements move down and their ids, equal to
+     * position plus one, are updated in the index.
+     *
+     * @param index position of element to be removed
+     * @return removed element
+     */
     public T remove(final int index) {
-        map.remove(this.get(index));
-        return storage.remove(index);
+        final ContainerEvents.Removal event = new ContainerEvents.Removal();
+        event.begin();
+        map.remove(this.get(index), 0);
+        final T removed = storage.remove(index);
+        // Elements after index moved down by one, so did their ids
+        for (int i = index; i < storage.size(); ++i) {
+            map.put(storage.get(i), i + 1, 0);
+        }
+        ContainerEvents.commit(event, "UniqueArray", index, storage.size() - index);
+        return removed;
     }
 
     public boolean remove(final T value) {
-        final Integer v = map.get(value);
-        if (v == null) {
+        final int v = this.idFor(value);
+        if (v == 0) {
             return false;
         }
         this.removeById(v);
@@ -144,12 +209,29 @@ public class UniqueArray<T> implements Iterable<T> {
     }
 
     public boolean removeIf(final Predicate<? super T> predicate) {
+        // Compacts storage in one pass, ids of moved elements follow their position
+        final ContainerEvents.Compaction event = new ContainerEvents.Compaction();
+        event.begin();
         final int oldSize = storage.size();
-        for (T e : storage) {
+        int j = 0;
+        for (int i = 0; i < oldSize; ++i) {
+            final T e = storage.get(i);
             if (predicate.test(e)) {
-                this.remove(e);
+                map.remove(e, 0);
+                continue;
+            }
+            if (i != j) {
+                storage.set(j, e);
+                map.put(e, j + 1, 0);
             }
+            ++j;
+        }
+        storage.subList(j, oldSize).clear();
+        if (prefilter != null && j != oldSize) {
+            // Drops hashes of removed elements
+            rebuildPrefilter();
         }
+        ContainerEvents.commit(event, "UniqueArray", oldSize, storage.size());
         return oldSize != storage.size();
     }
 
@@ -170,11 +252,39 @@ public class UniqueArray<T> implements Iterable<T> {
         return storage.size();
     }
 
+    /**
+     * @return probe lengths, load and footprint of the lookup index and storage
+     */
+    public @NotNull ContainerStats stats() {
+        return map.stats().ownedBy("UniqueArray",
+            ContainerStats.objectBytes(5 * 4) + ContainerStats.listBytes(storageCapacity)
+                + (prefilter == null ? 0 : prefilter.sizeInBytes()));
+    }
+
+    private int idFor(final T value, final int hash) {
+        return prefilter == null || prefilter.mightContain(hash) ? map.get(value, hash, 0) : 0;
+    }
+
+    // Sized for twice the elements, hashes of removed elements are dropped
+    private void rebuildPrefilter() {
+        prefilter = new BlockedBloomFilter(Math.max(prefilter.capacity(), storage.size() * 2));
+        for (final T elem : storage) {
+            prefilter.add(strategy.hash(elem));
+        }
+    }
+
     @Override
     public Spliterator<T> spliterator() {
         return storage.spliterator();
     }
 
+    /**
+     * @return batch iterator over elements in id order, a batch per array copy
+     */
+    public @NotNull BatchIterator<T> batchIterator() {
+        return BatchIterator.of(storage);
+    }
+
     UniqueArray<T> subList(final int from, final int to) {
         return new UniqueArray<>(storage.subList(from, to));
     }
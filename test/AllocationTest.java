@@ -0,0 +1,361 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Allocation budgets of the operations called in hot loops. Lookups must not
+ * allocate at all, a traversal may allocate a few objects per traversal but
+ * nothing per element.
+ */
+class AllocationTest {
+    private static final int SIZE = 1024;
+    private static final int LOOKUPS = 1 << 20;
+    private static final int TRAVERSALS = 1 << 12;
+    // Bytes per traversal, room for an iterator and a capturing lambda
+    private static final double TRAVERSAL_BUDGET = 64;
+
+    private static final Integer[] KEYS = new Integer[SIZE];
+
+    static {
+        for (int i = 0; i < SIZE; ++i) {
+            KEYS[i] = i * 31;
+        }
+    }
+
+    private static final class Sum implements Consumer<Object>, BiConsumer<Object, Object> {
+        private long value;
+
+        @Override
+        public void accept(final Object element) {
+            value += element.hashCode();
+        }
+
+        @Override
+        public void accept(final Object key, final Object element) {
+            value += element.hashCode();
+        }
+    }
+
+    @Test
+    void harnessSeesAllocations() {
+        final Object[] escaped = new Object[1];
+        final double bytes = Allocations.bytesPerOperation(LOOKUPS, n -> {
+            for (int i = 0; i < n; ++i) {
+                escaped[0] = new Object();
+            }
+            return escaped[0].hashCode();
+        });
+        if (bytes < 16) {
+            throw new AssertionError("Allocation of an object measured as " + bytes + " bytes");
+        }
+    }
+
+    @Test
+    void arrayHashMap() {
+        final ArrayHashMap<Integer, Integer> map = new ArrayHashMap<>();
+        for (final Integer key : KEYS) {
+            map.put(key, key);
+        }
+        Allocations.assertAllocationFree("ArrayHashMap.get", LOOKUPS, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += map.get(KEYS[i & (SIZE - 1)]);
+            }
+            return sum;
+        });
+        final Sum sum = new Sum();
+        Allocations.assertWithinBudget("ArrayHashMap.forEach", TRAVERSAL_BUDGET, TRAVERSALS, n -> {
+            for (int i = 0; i < n; ++i) {
+                map.forEach((BiConsumer<Object, Object>) sum);
+            }
+            return sum.value;
+        });
+    }
+
+    @Test
+    void arrayHashSet() {
+        final ArrayHashSet<Integer> set = new ArrayHashSet<>();
+        for (final Integer key : KEYS) {
+            set.add(key);
+        }
+        Allocations.assertAllocationFree("ArrayHashSet.contains", LOOKUPS, n -> {
+            long found = 0;
+            for (int i = 0; i < n; ++i) {
+                if (set.contains(KEYS[i & (SIZE - 1)])) {
+                    ++found;
+                }
+            }
+            return found;
+        });
+        assertTraversal("ArrayHashSet.iterator", set);
+    }
+
+    @Test
+    void uniqueArray() {
+        for (final HashEngine engine : HashEngine.values()) {
+            final UniqueArray<Integer> array =
+                new UniqueArray<>(SIZE, HashStrategy.natural(), engine);
+            for (final Integer key : KEYS) {
+                array.add(key);
+            }
+            Allocations.assertAllocationFree("UniqueArray.idFor " + engine, LOOKUPS, n -> {
+                long sum = 0;
+                for (int i = 0; i < n; ++i) {
+                    sum += array.idFor(KEYS[i & (SIZE - 1)]);
+                }
+                return sum;
+            });
+            Allocations.assertAllocationFree("UniqueArray.contains " + engine, LOOKUPS, n -> {
+                long found = 0;
+                for (int i = 0; i < n; ++i) {
+                    if (array.contains(KEYS[i & (SIZE - 1)])) {
+                        ++found;
+                    }
+                }
+                return found;
+            });
+            assertTraversal("UniqueArray.iterator " + engine, array);
+        }
+    }
+
+    @Test
+    void slotMap() {
+        final SlotMap<Integer> map = new SlotMap<>(SIZE);
+        final List<Pair<Integer, Integer>> handles = new ArrayList<>(SIZE);
+        for (final Integer key : KEYS) {
+            handles.add(map.put(key));
+        }
+        Allocations.assertAllocationFree("SlotMap.get", LOOKUPS, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += map.get(handles.get(i & (SIZE - 1)));
+            }
+            return sum;
+        });
+        Allocations.assertAllocationFree("SlotMap.find", LOOKUPS, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += map.find(handles.get(i & (SIZE - 1))).orElse(-1);
+            }
+            return sum;
+        });
+        Allocations.assertAllocationFree("SlotMap.findUnchecked", LOOKUPS, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += map.findUnchecked(handles.get(i & (SIZE - 1)));
+            }
+            return sum;
+        });
+        final Sum elements = new Sum();
+        Allocations.assertWithinBudget("SlotMap.forEach", TRAVERSAL_BUDGET, TRAVERSALS, n -> {
+            for (int i = 0; i < n; ++i) {
+                map.forEach((Consumer<Object>) elements);
+            }
+            return elements.value;
+        });
+    }
+
+    @Test
+    void concurrentArrayHashMap() {
+        final ConcurrentArrayHashMap<Integer, Integer> map = new ConcurrentArrayHashMap<>();
+        for (final Integer key : KEYS) {
+            map.put(key, key);
+        }
+        Allocations.assertAllocationFree("ConcurrentArrayHashMap.get", LOOKUPS, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += map.get(KEYS[i & (SIZE - 1)]);
+            }
+            return sum;
+        });
+        final Sum sum = new Sum();
+        Allocations.assertWithinBudget("ConcurrentArrayHashMap.forEach", TRAVERSAL_BUDGET,
+            TRAVERSALS, n -> {
+                for (int i = 0; i < n; ++i) {
+                    map.forEach((BiConsumer<Object, Object>) sum);
+                }
+                return sum.value;
+            });
+    }
+
+    @Test
+    void cacheMap() {
+        for (final CacheMap.Policy policy : CacheMap.Policy.values()) {
+            final CacheMap<Integer, Integer> map = new CacheMap<>(SIZE, policy, null);
+            for (final Integer key : KEYS) {
+                map.put(key, key);
+            }
+            Allocations.assertAllocationFree("CacheMap.get " + policy, LOOKUPS, n -> {
+                long sum = 0;
+                for (int i = 0; i < n; ++i) {
+                    sum += map.get(KEYS[i & (SIZE - 1)]);
+                }
+                return sum;
+            });
+        }
+    }
+
+    @Test
+    void expiringMap() {
+        final ExpiringMap<Integer, Integer> map = new ExpiringMap<>(1, TimeUnit.HOURS,
+            ExpiringMap.Expiry.AFTER_WRITE, () -> 0L);
+        for (final Integer key : KEYS) {
+            map.put(key, key);
+        }
+        Allocations.assertAllocationFree("ExpiringMap.get", LOOKUPS, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += map.get(KEYS[i & (SIZE - 1)]);
+            }
+            return sum;
+        });
+    }
+
+    @Test
+    void persistentArrayHashMap() {
+        final PersistentArrayHashMap.Builder<Integer, Integer> builder = PersistentArrayHashMap.builder();
+        for (final Integer key : KEYS) {
+            builder.put(key, key);
+        }
+        final PersistentArrayHashMap<Integer, Integer> map = builder.build();
+        Allocations.assertAllocationFree("PersistentArrayHashMap.get", LOOKUPS, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += map.get(KEYS[i & (SIZE - 1)]);
+            }
+            return sum;
+        });
+        final Sum sum = new Sum();
+        Allocations.assertWithinBudget("PersistentArrayHashMap.forEach", TRAVERSAL_BUDGET,
+            TRAVERSALS, n -> {
+                for (int i = 0; i < n; ++i) {
+                    map.forEach((BiConsumer<Object, Object>) sum);
+                }
+                return sum.value;
+            });
+
+        PersistentArrayHashSet<Integer> set = PersistentArrayHashSet.empty();
+        for (final Integer key : KEYS) {
+            set = set.with(key);
+        }
+        final PersistentArrayHashSet<Integer> filled = set;
+        Allocations.assertAllocationFree("PersistentArrayHashSet.contains", LOOKUPS, n -> {
+            long found = 0;
+            for (int i = 0; i < n; ++i) {
+                if (filled.contains(KEYS[i & (SIZE - 1)])) {
+                    ++found;
+                }
+            }
+            return found;
+        });
+    }
+
+    @Test
+    void roaringIdSet() {
+        final RoaringIdSet set = new RoaringIdSet();
+        for (final Integer key : KEYS) {
+            set.add(key);
+        }
+        set.addRange(1 << 20, 1 << 21);
+        Allocations.assertAllocationFree("RoaringIdSet.contains", LOOKUPS, n -> {
+            long found = 0;
+            for (int i = 0; i < n; ++i) {
+                if (set.contains(i * 7)) {
+                    ++found;
+                }
+            }
+            return found;
+        });
+        Allocations.assertAllocationFree("RoaringIdSet.rank", LOOKUPS, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += set.rank(i * 7);
+            }
+            return sum;
+        });
+        Allocations.assertWithinBudget("RoaringIdSet.iterator", TRAVERSAL_BUDGET, 64, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                for (final java.util.PrimitiveIterator.OfInt it = set.iterator(); it.hasNext(); ) {
+                    sum += it.nextInt();
+                }
+            }
+            return sum;
+        });
+    }
+
+    @Test
+    void sortedIndex() {
+        final int[] keys = new int[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            keys[i] = KEYS[i];
+        }
+        final SortedIndex index = SortedIndex.of(keys);
+        Allocations.assertAllocationFree("SortedIndex.lowerBound", LOOKUPS, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += index.lowerBound(i & 0xFFFF);
+            }
+            return sum;
+        });
+    }
+
+    @Test
+    void repeatTracker() {
+        final RepeatTracker<Integer> tracker = new RepeatTracker<>();
+        for (final Integer key : KEYS) {
+            tracker.offer(key);
+        }
+        tracker.offer(KEYS[0]);
+        Allocations.assertAllocationFree("RepeatTracker.count", LOOKUPS, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += tracker.count(KEYS[i & (SIZE - 1)]);
+            }
+            return sum;
+        });
+        // The Optional result escapes through the non inlined lookup
+        Allocations.assertWithinBudget("RepeatTracker.firstNonRepeating", 16, LOOKUPS, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += tracker.firstNonRepeating().orElse(0);
+            }
+            return sum;
+        });
+    }
+
+    @Test
+    void arrayMultimap() {
+        final List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < 4 * SIZE; ++i) {
+            rows.add(KEYS[i & (SIZE - 1)]);
+        }
+        final ArrayMultimap<Integer, Integer> multimap = Algorithms.groupBy(rows, key -> key & 63);
+        Allocations.assertAllocationFree("ArrayMultimap.count", LOOKUPS, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                sum += multimap.count(i & 63);
+            }
+            return sum;
+        });
+    }
+
+    private static void assertTraversal(final String name, final Iterable<Integer> iterable) {
+        Allocations.assertWithinBudget(name, TRAVERSAL_BUDGET, TRAVERSALS, n -> {
+            long sum = 0;
+            for (int i = 0; i < n; ++i) {
+                for (final Integer element : iterable) {
+                    sum += element;
+                }
+            }
+            return sum;
+        });
+    }
+}
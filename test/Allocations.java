@@ -0,0 +1,92 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.lang.management.ManagementFactory;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Measures heap allocated by the current thread per operation of a warmed-up
+ * loop, using {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes}.
+ *
+ * <p>The loop has to live in the workload, so the JIT compiles and inlines the
+ * measured calls the way it would in caller code and escape analysis gets the
+ * same chance to remove temporary objects.
+ */
+final class Allocations {
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Keeps workload results alive, so loops can not be removed
+    private static long sink;
+
+    /**
+     * Loop of operations under test.
+     */
+    @FunctionalInterface
+    interface Workload {
+        /**
+         * @param operations number of operations to run
+         * @return any value depending on the results of operations
+         */
+        long run(int operations);
+    }
+
+    private Allocations() {
+    }
+
+    /**
+     * @param operations operations per round, large enough to hide the cost of measuring
+     * @param workload   loop of operations under test
+     * @return smallest number of bytes per operation seen in the measured rounds
+     * @throws UnsupportedOperationException if the JVM can not count allocated bytes
+     */
+    static double bytesPerOperation(final int operations, final @NotNull Workload workload) {
+        if (!THREADS.isThreadAllocatedMemorySupported()) {
+            throw new UnsupportedOperationException("JVM does not count allocated bytes per thread");
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        final long thread = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_ROUNDS; ++i) {
+            sink += workload.run(operations);
+        }
+        // The smallest round skips rounds disturbed by deoptimization or class loading
+        long least = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; ++i) {
+            final long before = THREADS.getThreadAllocatedBytes(thread);
+            sink += workload.run(operations);
+            least = Math.min(least, THREADS.getThreadAllocatedBytes(thread) - before);
+        }
+        return (double) least / operations;
+    }
+
+    /**
+     * @param name       operation name used in the failure message
+     * @param budget     bytes an operation may allocate
+     * @param operations operations per round
+     * @param workload   loop of operations under test
+     * @throws AssertionError if an operation allocates more than budget
+     */
+    static void assertWithinBudget(final @NotNull String name, final double budget,
+        final int operations, final @NotNull Workload workload) {
+        final double bytes = bytesPerOperation(operations, workload);
+        if (bytes > budget) {
+            throw new AssertionError(String.format(
+                "%s allocates %.2f bytes per operation, budget is %.2f", name, bytes, budget));
+        }
+    }
+
+    /**
+     * @param name       operation name used in the failure message
+     * @param operations operations per round
+     * @param workload   loop of operations under test
+     * @throws AssertionError if operations allocate
+     */
+    static void assertAllocationFree(final @NotNull String name, final int operations,
+        final @NotNull Workload workload) {
+        // Measuring allocates a little once per round, any per call allocation is 16 bytes or more
+        assertWithinBudget(name, 0.1, operations, workload);
+    }
+}
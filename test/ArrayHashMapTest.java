@@ -0,0 +1,72 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ArrayHashMap keeps insertion order through bulk operations.
+ */
+class ArrayHashMapTest {
+    private static final int SIZE = 1000;
+
+    @Test
+    void putAllFromArrayHashMapKeepsItsOrder() {
+        final ArrayHashMap<Integer, Integer> source = new ArrayHashMap<>();
+        for (int i = SIZE; i > 0; --i) {
+            source.put(i * 7919 % SIZE, i);
+        }
+        final ArrayHashMap<Integer, Integer> copy = new ArrayHashMap<>();
+        copy.putAll(source);
+        assertEquals(Differential.entries(source), Differential.entries(copy));
+        assertEquals(Differential.entries(source), Differential.entries(new ArrayHashMap<>(source)));
+    }
+
+    @Test
+    void putAllFromLinkedHashMapKeepsItsOrder() {
+        final LinkedHashMap<String, Integer> source = new LinkedHashMap<>();
+        for (int i = 0; i < SIZE; ++i) {
+            source.put("key" + (SIZE - i), i);
+        }
+        final ArrayHashMap<String, Integer> copy = new ArrayHashMap<>(4);
+        copy.putAll(source);
+        assertEquals(Differential.entries(source), Differential.entries(copy));
+    }
+
+    @Test
+    void fromSortedKeysKeepsLastValueOfRepeatedKeys() {
+        final ArrayHashMap<String, Integer> map =
+            ArrayHashMap.fromSortedKeys(List.of("a", "a", "b", "c", "c", "c"), List.of(1, 2, 3, 4, 5, 6));
+        assertEquals(List.of(Map.entry("a", 2), Map.entry("b", 3), Map.entry("c", 6)), Differential.entries(map));
+        assertEquals(3, map.size());
+        assertTrue(ArrayHashMap.fromSortedKeys(List.of(), List.of()).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+            () -> ArrayHashMap.fromSortedKeys(List.of("a", "b", "a"), List.of(1, 2, 3)));
+    }
+
+    @Test
+    void removeIfKeepsInsertionOrder() {
+        final ArrayHashMap<Integer, Integer> map = new ArrayHashMap<>();
+        final List<Map.Entry<Integer, Integer>> expected = new ArrayList<>();
+        for (int i = SIZE; i > 0; --i) {
+            final int key = i * 7919 % SIZE;
+            map.put(key, i);
+            if (key % 3 != 0) {
+                expected.add(Map.entry(key, i));
+            }
+        }
+        assertTrue(map.removeIf(entry -> entry.getKey() % 3 == 0));
+        assertFalse(map.removeIf(entry -> entry.getKey() % 3 == 0));
+        assertEquals(expected, Differential.entries(map));
+        assertEquals(expected.size(), map.size());
+    }
+}
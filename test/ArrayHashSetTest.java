@@ -0,0 +1,87 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ArrayHashSet keeps insertion order from construction on, with and without
+ * a prefilter.
+ */
+class ArrayHashSetTest {
+    @Test
+    void collectionConstructorKeepsFirstOccurrences() {
+        final ArrayHashSet<String> set = new ArrayHashSet<>(List.of("c", "a", "b", "a", "c"));
+        assertEquals(List.of("c", "a", "b"), Differential.elements(set));
+        assertTrue(set.add("d"));
+        assertTrue(set.remove("a"));
+        assertEquals(List.of("c", "b", "d"), Differential.elements(set));
+    }
+
+    @Test
+    void prefilteredSetMatchesLinkedHashSet() {
+        for (final boolean prefilter : new boolean[] {false, true}) {
+            final ArrayHashSet<Integer> set = new ArrayHashSet<>(4, 0.75F, prefilter);
+            final LinkedHashSet<Integer> expected = new LinkedHashSet<>();
+            Differential.run(67, 30000, (random, i) -> {
+                // Most lookups miss, as the prefilter expects
+                final int value = random.nextInt(20000);
+                final int operation = random.nextInt(4);
+                if (operation == 0) {
+                    assertEquals(expected.remove(value), set.remove(value));
+                }
+                else if (operation == 1) {
+                    assertEquals(expected.contains(value), set.contains(value));
+                }
+                else if (operation == 2 && i % 5000 == 0) {
+                    // Rebuilds the prefilter
+                    expected.removeIf(element -> element % 3 == 0);
+                    set.removeIf(element -> element % 3 == 0);
+                }
+                else {
+                    assertEquals(expected.add(value), set.add(value));
+                }
+                assertEquals(expected.size(), set.size());
+            });
+            assertEquals(Differential.elements(expected), Differential.elements(set));
+        }
+    }
+
+    @Test
+    void intersectKeepsOrderOfThisSet() {
+        // Above the parallel threshold, with either side the smaller one
+        final List<Integer> large = Differential.ints(71, 100000, 200000);
+        final List<Integer> small = Differential.ints(73, 30000, 200000);
+        for (final boolean parallel : new boolean[] {false, true}) {
+            for (final boolean largeFirst : new boolean[] {false, true}) {
+                final ArrayHashSet<Integer> first = new ArrayHashSet<>(largeFirst ? large : small);
+                final ArrayHashSet<Integer> second = new ArrayHashSet<>(largeFirst ? small : large);
+                final LinkedHashSet<Integer> expected = new LinkedHashSet<>(largeFirst ? large : small);
+                expected.retainAll(second);
+                assertEquals(Differential.elements(expected), Differential.elements(first.intersect(second, parallel)));
+            }
+        }
+    }
+
+    @Test
+    void prefilterAnswersMissesOfRemove() {
+        final ArrayHashSet<Object> set = new ArrayHashSet<>(16, 0.75F, true);
+        final int[] hashes = new int[1];
+        final Object absent = new Object() {
+            @Override
+            public int hashCode() {
+                ++hashes[0];
+                return 42;
+            }
+        };
+        assertFalse(set.remove(absent));
+        // Hashed once for the filter, the table is not probed
+        assertEquals(1, hashes[0]);
+    }
+}
@@ -0,0 +1,39 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BloomFilter keeps its false positive bound while it grows stages.
+ */
+class BloomFilterTest {
+    private static final double RATE = 0.01;
+
+    @Test
+    void rateHoldsAcrossStages() {
+        final BloomFilter<Integer> filter = new BloomFilter<>(1000, RATE);
+        // Five stages of 1000, 2000, ... elements
+        final int added = 31000;
+        int newlyAdded = 0;
+        for (int i = 0; i < added; ++i) {
+            if (filter.add(i)) {
+                ++newlyAdded;
+            }
+        }
+        assertEquals(newlyAdded, filter.count());
+        for (int i = 0; i < added; ++i) {
+            assertTrue(filter.mightContain(i));
+        }
+        final int queries = 200000;
+        int falsePositives = 0;
+        for (int i = 0; i < queries; ++i) {
+            if (filter.mightContain(-1 - i)) {
+                ++falsePositives;
+            }
+        }
+        assertTrue(falsePositives < queries * RATE, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,70 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * CacheMap counters and admission.
+ */
+class CacheMapTest {
+    @Test
+    void getOrDefaultCountsHitsAndMisses() {
+        final CacheMap<Integer, Integer> cache = new CacheMap<>(4);
+        cache.put(1, 10);
+        assertEquals(10, cache.getOrDefault(1, -1));
+        assertEquals(-1, cache.getOrDefault(2, -1));
+        assertNull(cache.get(3));
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    void rejectionsAreNotEvictions() {
+        final List<Integer> dropped = new ArrayList<>();
+        final CacheMap<Integer, Integer> cache =
+            new CacheMap<>(4, CacheMap.Policy.TINY_LFU, (key, value) -> dropped.add(key));
+        for (int i = 0; i < 4; ++i) {
+            for (int j = 0; j < 3; ++j) {
+                cache.put(i, i);
+            }
+        }
+        // Seen once, less often than every cached key
+        cache.put(100, 100);
+        assertEquals(1, cache.rejectionCount());
+        assertEquals(0, cache.evictionCount());
+        for (int j = 0; j < 5; ++j) {
+            cache.getOrDefault(200, null);
+        }
+        cache.put(200, 200);
+        assertEquals(1, cache.rejectionCount());
+        assertEquals(1, cache.evictionCount());
+        assertEquals(List.of(100, 0), dropped);
+    }
+
+    @Test
+    void serializesWithoutListener() throws IOException, ClassNotFoundException {
+        final CacheMap<Integer, Integer> cache = new CacheMap<>(4, CacheMap.Policy.TINY_LFU, (key, value) -> { });
+        cache.put(1, 1);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(cache);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            final CacheMap<Integer, Integer> copy = (CacheMap<Integer, Integer>) in.readObject();
+            assertEquals(cache, copy);
+            assertEquals(4, copy.maxSize());
+        }
+    }
+}
@@ -0,0 +1,182 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * ConcurrentArrayHashMap against LinkedHashMap, lock-free putIfAbsent racing
+ * with removes, and lock-free traversals racing with writers that shrink the log.
+ */
+class ConcurrentArrayHashMapTest {
+    private static final int KEYS = 64;
+    private static final int READERS = 4;
+    private static final long RUN_MILLIS = 1000;
+
+    @Test
+    void matchesLinkedHashMap() {
+        final ConcurrentArrayHashMap<Integer, Integer> map = new ConcurrentArrayHashMap<>(4);
+        final LinkedHashMap<Integer, Integer> expected = new LinkedHashMap<>();
+        Differential.run(29, 50000, (random, i) -> {
+            final int key = random.nextInt(500);
+            final int operation = random.nextInt(8);
+            if (operation == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+            else if (operation == 1) {
+                assertEquals(expected.remove(key, i % 7), map.remove(key, i % 7));
+            }
+            else if (operation == 2) {
+                assertEquals(expected.putIfAbsent(key, i), map.putIfAbsent(key, i));
+            }
+            else if (operation == 3) {
+                assertEquals(expected.replace(key, i), map.replace(key, i));
+            }
+            else if (operation == 4 && i % 1000 == 0) {
+                // Compacts the log, remaining keys keep their order
+                expected.entrySet().removeIf(entry -> entry.getKey() % 3 == 0);
+                map.removeIf(entry -> entry.getKey() % 3 == 0);
+            }
+            else {
+                assertEquals(expected.put(key, i % 7), map.put(key, i % 7));
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.get(key), map.get(key));
+        });
+        assertEquals(expected, map);
+        assertEquals(Differential.entries(expected), Differential.entries(map));
+        final List<Map.Entry<Integer, Integer>> iterated = new ArrayList<>();
+        for (final Map.Entry<Integer, Integer> entry : map) {
+            iterated.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        assertEquals(Differential.entries(map), iterated);
+        map.clear();
+        assertFalse(map.iterator().hasNext());
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void putIfAbsentRacingRemoveReportsOnlyStoredValues() throws Exception {
+        final ConcurrentArrayHashMap<Integer, Object> map = new ConcurrentArrayHashMap<>();
+        for (int i = 0; i < KEYS; ++i) {
+            map.put(i, new Object());
+        }
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            // Threads count the values they stored or removed, the counts balance at the end
+            final Future<Long> removed = pool.submit(() -> {
+                long count = 0;
+                for (int i = 0; running.get(); i = (i + 1) % KEYS) {
+                    if (map.remove(i) != null) {
+                        ++count;
+                    }
+                }
+                return count;
+            });
+            final Future<Long> putIfAbsent = pool.submit(() -> {
+                long count = 0;
+                for (int i = 0; running.get(); i = (i + 1) % KEYS) {
+                    if (map.putIfAbsent(i, new Object()) == null) {
+                        ++count;
+                    }
+                }
+                return count;
+            });
+            // The default computeIfAbsent returns its own value only if putIfAbsent stored it
+            final Future<Long> computeIfAbsent = pool.submit(() -> {
+                long count = 0;
+                for (int i = 0; running.get(); i = (i + 1) % KEYS) {
+                    final Object value = new Object();
+                    if (map.computeIfAbsent(i, key -> value) == value) {
+                        ++count;
+                    }
+                }
+                return count;
+            });
+            Thread.sleep(RUN_MILLIS);
+            running.set(false);
+            final long stored = KEYS + putIfAbsent.get(10, TimeUnit.SECONDS)
+                + computeIfAbsent.get(10, TimeUnit.SECONDS);
+            assertEquals(stored, removed.get(10, TimeUnit.SECONDS) + map.size());
+        }
+        finally {
+            running.set(false);
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void traversalsSurviveClearAndCompaction() throws Exception {
+        final ConcurrentArrayHashMap<Integer, Integer> map = new ConcurrentArrayHashMap<>();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final ExecutorService pool = Executors.newFixedThreadPool(READERS + 1);
+        try {
+            final Future<?> writer = pool.submit(() -> {
+                for (int round = 0; running.get(); ++round) {
+                    for (int i = 0; i < KEYS; ++i) {
+                        map.put(i, i);
+                    }
+                    if (round % 2 == 0) {
+                        map.clear();
+                    }
+                    else {
+                        // Removing most keys compacts the log into a smaller array
+                        for (int i = 0; i < KEYS - 8; ++i) {
+                            map.remove(i);
+                        }
+                    }
+                }
+            });
+            final Future<?>[] readers = new Future<?>[READERS];
+            for (int r = 0; r < READERS; ++r) {
+                final boolean useIterator = r % 2 == 0;
+                readers[r] = pool.submit(() -> {
+                    long seen = 0;
+                    while (running.get()) {
+                        // Short traversals, so most reads of the log race with the writer
+                        if (useIterator) {
+                            final Iterator<Map.Entry<Integer, Integer>> entries = map.iterator();
+                            for (int i = 0; i < 4 && entries.hasNext(); ++i) {
+                                final Map.Entry<Integer, Integer> entry = entries.next();
+                                assertEquals(entry.getKey(), entry.getValue());
+                                ++seen;
+                            }
+                        }
+                        else {
+                            map.forEach((key, value) -> {
+                                assertNotNull(value);
+                                assertEquals(key, value);
+                            });
+                        }
+                    }
+                    return seen;
+                });
+            }
+            Thread.sleep(RUN_MILLIS);
+            running.set(false);
+            writer.get(10, TimeUnit.SECONDS);
+            for (final Future<?> reader : readers) {
+                reader.get(10, TimeUnit.SECONDS);
+            }
+        }
+        finally {
+            running.set(false);
+            pool.shutdownNow();
+        }
+    }
+}
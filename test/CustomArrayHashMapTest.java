@@ -0,0 +1,98 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * byte[] keys compared by content in CustomArrayHashMap and CustomArrayHashSet,
+ * against LinkedHashMap and LinkedHashSet keyed by ByteBuffer.
+ */
+class CustomArrayHashMapTest {
+    private static final int OPERATIONS = 20000;
+
+    @Test
+    void byteArrayKeysMatchByContent() {
+        final CustomArrayHashMap<byte[], Integer> map = ArrayHashMap.withStrategy(HashStrategy.byteArrays());
+        map.put(new byte[] {1, 2, 3}, 1);
+        assertEquals(1, map.put(new byte[] {1, 2, 3}, 2));
+        assertEquals(1, map.size());
+        assertEquals(2, map.get(new byte[] {1, 2, 3}));
+        assertNull(map.get(new byte[] {1, 2}));
+        final CustomArrayHashSet<byte[]> set = ArrayHashSet.withStrategy(HashStrategy.byteArrays());
+        assertTrue(set.add(new byte[] {4}));
+        assertFalse(set.add(new byte[] {4}));
+        assertTrue(set.contains(new byte[] {4}));
+        assertTrue(set.remove(new byte[] {4}));
+        assertTrue(set.isEmpty());
+    }
+
+    @Test
+    void mapMatchesLinkedHashMap() {
+        for (final HashEngine engine : HashEngine.values()) {
+            final CustomArrayHashMap<byte[], Integer> map =
+                new CustomArrayHashMap<>(4, HashStrategy.byteArrays(), engine);
+            final LinkedHashMap<ByteBuffer, Integer> expected = new LinkedHashMap<>();
+            Differential.run(11, OPERATIONS, (random, i) -> {
+                final byte[] key = key(random);
+                final int operation = random.nextInt(4);
+                if (operation == 0) {
+                    assertEquals(expected.remove(ByteBuffer.wrap(key)), map.remove(key.clone()));
+                }
+                else if (operation == 1) {
+                    assertEquals(expected.get(ByteBuffer.wrap(key)), map.get(key.clone()));
+                }
+                else {
+                    assertEquals(expected.put(ByteBuffer.wrap(key), i), map.put(key.clone(), i));
+                }
+                assertEquals(expected.size(), map.size());
+            });
+            final List<Map.Entry<ByteBuffer, Integer>> actual = new ArrayList<>();
+            map.forEach((key, value) -> actual.add(Map.entry(ByteBuffer.wrap(key), value)));
+            assertEquals(Differential.entries(expected), actual);
+        }
+    }
+
+    @Test
+    void setMatchesLinkedHashSet() {
+        for (final HashEngine engine : HashEngine.values()) {
+            final CustomArrayHashSet<byte[]> set = new CustomArrayHashSet<>(4, HashStrategy.byteArrays(), engine);
+            final LinkedHashSet<ByteBuffer> expected = new LinkedHashSet<>();
+            Differential.run(13, OPERATIONS, (random, i) -> {
+                final byte[] element = key(random);
+                if (random.nextInt(3) == 0) {
+                    assertEquals(expected.remove(ByteBuffer.wrap(element)), set.remove(element.clone()));
+                }
+                else {
+                    assertEquals(expected.add(ByteBuffer.wrap(element)), set.add(element.clone()));
+                }
+                assertEquals(expected.size(), set.size());
+            });
+            final List<ByteBuffer> actual = new ArrayList<>();
+            for (final byte[] element : set) {
+                actual.add(ByteBuffer.wrap(element));
+            }
+            assertEquals(Differential.elements(expected), actual);
+        }
+    }
+
+    private static byte[] key(final SplittableRandom random) {
+        final byte[] key = new byte[1 + random.nextInt(3)];
+        for (int i = 0; i < key.length; ++i) {
+            key[i] = (byte) random.nextInt(8);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,113 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Randomized differential testing: seeded random operations go to a container
+ * and to a JDK collection that serves as its reference, and tests compare the
+ * two after every step and at the end.
+ */
+final class Differential {
+    /**
+     * Random operation applied to the container under test and its reference.
+     */
+    @FunctionalInterface
+    interface Step {
+        /**
+         * @param random generator to draw the operation and its arguments from
+         * @param step   number of this step, from 0
+         */
+        void apply(@NotNull SplittableRandom random, int step);
+    }
+
+    private Differential() {
+    }
+
+    /**
+     * @param seed  seed of the generator, so a failing run can be repeated
+     * @param steps number of steps
+     * @param step  operation applied to both collections
+     */
+    static void run(final long seed, final int steps, final @NotNull Step step) {
+        final SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < steps; ++i) {
+            step.apply(random, i);
+        }
+    }
+
+    /**
+     * @param seed  seed of the generator
+     * @param size  number of values
+     * @param bound exclusive upper bound of values
+     * @return random values in [0, bound), repeating if bound is below size
+     */
+    static @NotNull List<Integer> ints(final long seed, final int size, final int bound) {
+        final List<Integer> values = new ArrayList<>(size);
+        run(seed, size, (random, i) -> values.add(random.nextInt(bound)));
+        return values;
+    }
+
+    /**
+     * @param map map to copy
+     * @return copies of the entries in iteration order, since entries of
+     *     LinkedHashMap change with later puts
+     */
+    static <K, V> @NotNull List<Map.Entry<K, V>> entries(final @NotNull Map<K, V> map) {
+        final List<Map.Entry<K, V>> entries = new ArrayList<>();
+        map.forEach((key, value) -> entries.add(Map.entry(key, value)));
+        return entries;
+    }
+
+    /**
+     * @param iterable elements to copy
+     * @return elements in iteration order
+     */
+    static <T> @NotNull List<T> elements(final @NotNull Iterable<T> iterable) {
+        final List<T> elements = new ArrayList<>();
+        iterable.forEach(elements::add);
+        return elements;
+    }
+
+    /**
+     * @param value  value to hash
+     * @param hashes number of distinct hash codes, few of them force collisions
+     * @return hash code of value in [0, hashes)
+     */
+    static int hash(final int value, final int hashes) {
+        return Math.floorMod(value * 0x9E3779B9, hashes);
+    }
+
+    /**
+     * Integer key with a chosen number of distinct hash codes.
+     */
+    static final class Key {
+        private final int value;
+        private final int hashes;
+
+        Key(final int value, final int hashes) {
+            this.value = value;
+            this.hashes = hashes;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Key && ((Key) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash(value, hashes);
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toString(value);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exact, windowed, timed and approximate distinct iterators against
+ * LinkedHashSet and brute force versions.
+ */
+class DistinctTest {
+    @Test
+    void distinctMatchesLinkedHashSet() {
+        final List<Integer> rows = Differential.ints(53, 50000, 12500);
+        assertEquals(new ArrayList<>(new LinkedHashSet<>(rows)), drain(Algorithms.distinct(rows.iterator())));
+        final List<Integer> approximate = drain(Algorithms.distinctApproximately(rows.iterator(), 0.01));
+        // First occurrences only, a few may be dropped as false positives
+        final List<Integer> exact = new ArrayList<>(new LinkedHashSet<>(rows));
+        assertTrue(exact.containsAll(approximate));
+        assertEquals(new LinkedHashSet<>(approximate).size(), approximate.size());
+        assertTrue(approximate.size() >= exact.size() * 0.99, approximate.size() + " of " + exact.size());
+    }
+
+    @Test
+    void windowedDistinctMatchesBruteForce() {
+        final List<Integer> rows = Differential.ints(59, 20000, 5000);
+        for (final int window : new int[] {1, 7, 500}) {
+            final List<Integer> expected = new ArrayList<>();
+            final ArrayDeque<Integer> last = new ArrayDeque<>();
+            for (final Integer row : rows) {
+                if (!last.contains(row)) {
+                    expected.add(row);
+                }
+                last.addLast(row);
+                if (last.size() > window) {
+                    last.removeFirst();
+                }
+            }
+            assertEquals(expected, drain(Algorithms.distinct(rows.iterator(), window)));
+        }
+    }
+
+    @Test
+    void timedDistinctForgetsAfterWindow() {
+        final long[] now = {0};
+        final long window = TimeUnit.MILLISECONDS.toNanos(100);
+        final List<Integer> rows = Differential.ints(61, 20000, 5000);
+        // Every row advances the clock 1 ms and restarts the window of its value
+        final List<Integer> expected = new ArrayList<>();
+        final LinkedHashMap<Integer, Long> lastSeen = new LinkedHashMap<>();
+        long time = 0;
+        for (final Integer row : rows) {
+            time += TimeUnit.MILLISECONDS.toNanos(1);
+            final Long seen = lastSeen.get(row);
+            if (seen == null || time - seen >= window) {
+                expected.add(row);
+            }
+            lastSeen.put(row, time);
+        }
+        final List<Integer> actual = new ArrayList<>();
+        final Iterator<Integer> source = rows.iterator();
+        final Iterator<Integer> clocked = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public Integer next() {
+                now[0] += TimeUnit.MILLISECONDS.toNanos(1);
+                return source.next();
+            }
+        };
+        Algorithms.distinct(clocked, 100, TimeUnit.MILLISECONDS, () -> now[0]).forEachRemaining(actual::add);
+        assertEquals(expected, actual);
+    }
+
+    private static <T> List<T> drain(final Iterator<T> iterator) {
+        final List<T> elements = new ArrayList<>();
+        iterator.forEachRemaining(elements::add);
+        return elements;
+    }
+}
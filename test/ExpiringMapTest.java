@@ -0,0 +1,125 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ExpiringMap on a manual clock against an insertion-ordered map of expiry
+ * times, with steps small enough for the lowest wheel level and jumps across
+ * the upper ones.
+ */
+class ExpiringMapTest {
+    // One wheel tick, the precision of size()
+    private static final long TICK = 1L << 20;
+    private long now;
+
+    @Test
+    void entriesExpireOnTime() {
+        for (final ExpiringMap.Expiry expiry : ExpiringMap.Expiry.values()) {
+            now = 43L << 44;
+            final ExpiringMap<Integer, Integer> map =
+                new ExpiringMap<>(1, TimeUnit.SECONDS, expiry, () -> now);
+            // Insertion order of live keys, expired ones go last when put again
+            final LinkedHashMap<Integer, Long> expiresAt = new LinkedHashMap<>();
+            final HashMap<Integer, Long> ttls = new HashMap<>();
+            Differential.run(43, 30000, (random, step) -> {
+                final int key = random.nextInt(1000);
+                final int operation = random.nextInt(4);
+                final boolean live = expiresAt.containsKey(key) && expiresAt.get(key) - now > 0;
+                if (operation == 0) {
+                    assertEquals(live ? key : null, map.remove(key));
+                    expiresAt.remove(key);
+                }
+                else if (operation == 1) {
+                    assertEquals(live ? key : null, map.get(key));
+                    if (live && expiry == ExpiringMap.Expiry.AFTER_ACCESS) {
+                        expiresAt.put(key, now + ttls.get(key));
+                    }
+                }
+                else {
+                    // From below a tick to beyond the span of the wheel
+                    final long ttl = 1 + random.nextLong(1L << (10 + random.nextInt(42)));
+                    assertEquals(live ? key : null, map.put(key, key, ttl, TimeUnit.NANOSECONDS));
+                    if (!live) {
+                        expiresAt.remove(key);
+                    }
+                    expiresAt.put(key, now + ttl);
+                    ttls.put(key, ttl);
+                }
+                if (step % 10 == 9) {
+                    now += random.nextInt(20) == 0 ? random.nextLong(1L << 40) : random.nextLong(4 * TICK);
+                }
+                if (step % 1000 == 0) {
+                    assertMatches(expiresAt, map);
+                }
+            });
+            now += 1L << 62;
+            assertMatches(expiresAt, map);
+            assertEquals(0, map.size());
+        }
+    }
+
+    @Test
+    void clearDropsScheduledEntries() {
+        final ExpiringMap<Integer, Integer> map =
+            new ExpiringMap<>(10, TimeUnit.MILLISECONDS, ExpiringMap.Expiry.AFTER_WRITE, () -> now);
+        for (int i = 0; i < 100; ++i) {
+            map.put(i, i);
+        }
+        map.clear();
+        map.put(1, 1);
+        now += TimeUnit.MILLISECONDS.toNanos(5);
+        assertEquals(1, map.get(1));
+        now += TimeUnit.MILLISECONDS.toNanos(10);
+        assertNull(map.get(1));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void nonPositiveTtlIsRejected() {
+        final ExpiringMap<Integer, Integer> map =
+            new ExpiringMap<>(1, TimeUnit.SECONDS, ExpiringMap.Expiry.AFTER_WRITE, () -> now);
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, 1, 0, TimeUnit.SECONDS));
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, 1, -1, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalArgumentException.class,
+            () -> new ExpiringMap<>(0, TimeUnit.SECONDS, ExpiringMap.Expiry.AFTER_WRITE, () -> now));
+        assertEquals(0, map.size());
+    }
+
+    // Entries expired within the last two ticks may still be counted by size()
+    private void assertMatches(final Map<Integer, Long> expiresAt, final ExpiringMap<Integer, Integer> map) {
+        final List<Integer> live = new ArrayList<>();
+        int recent = 0;
+        for (final Map.Entry<Integer, Long> entry : expiresAt.entrySet()) {
+            final long left = entry.getValue() - now;
+            assertEquals(left > 0, map.containsKey(entry.getKey()));
+            if (left > 0) {
+                live.add(entry.getKey());
+            }
+            else if (left > -2 * TICK) {
+                ++recent;
+            }
+        }
+        final List<Integer> visited = new ArrayList<>();
+        map.forEach((key, value) -> {
+            assertEquals(key, value);
+            visited.add(key);
+        });
+        assertEquals(live, visited);
+        final int size = map.size();
+        final int least = live.size();
+        assertTrue(size >= least && size <= least + recent, size + " not in [" + least + ", " + (least + recent) + "]");
+    }
+}
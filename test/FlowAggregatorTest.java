@@ -0,0 +1,192 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Demand and cancellation of FlowAggregator, driven by a SubmissionPublisher
+ * or by hand.
+ */
+class FlowAggregatorTest {
+    private static final int BATCH = 8;
+    private static final int ELEMENTS = 10000;
+
+    @Test
+    void demandStaysWithinOneBatch() throws Exception {
+        final Tracked tracked = new Tracked();
+        final FlowAggregator<Integer, Long> aggregator = FlowAggregator.countIf(elem -> elem % 3 == 0, BATCH);
+        try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>()) {
+            tracked.subscribe(publisher, aggregator);
+            for (int i = 0; i < ELEMENTS; ++i) {
+                publisher.submit(i);
+            }
+        }
+        assertEquals((ELEMENTS + 2) / 3, aggregator.result().get(10, TimeUnit.SECONDS));
+        assertTrue(tracked.maxOutstanding.get() <= BATCH, tracked.maxOutstanding + " elements requested ahead");
+        assertEquals(ELEMENTS, tracked.delivered.get());
+        assertFalse(tracked.cancelled.get());
+    }
+
+    @Test
+    void findIfCancelsUpstream() throws Exception {
+        final Tracked tracked = new Tracked();
+        final FlowAggregator<Integer, Optional<Integer>> aggregator = FlowAggregator.findIf(elem -> elem == 100, BATCH);
+        try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>()) {
+            tracked.subscribe(publisher, aggregator);
+            for (int i = 0; i < ELEMENTS && !tracked.cancelled.get(); ++i) {
+                publisher.submit(i);
+            }
+        }
+        assertEquals(Optional.of(100), aggregator.result().get(10, TimeUnit.SECONDS));
+        assertTrue(tracked.cancelled.get());
+        // Nothing beyond the demand outstanding at the match is delivered
+        assertTrue(tracked.delivered.get() <= 101 + BATCH, tracked.delivered + " elements delivered");
+    }
+
+    @Test
+    void requestsInHalfBatches() {
+        final Manual subscription = new Manual();
+        final FlowAggregator<Integer, Long> aggregator = FlowAggregator.count(1, BATCH);
+        aggregator.onSubscribe(subscription);
+        assertEquals(List.of((long) BATCH), subscription.requests);
+        for (int i = 0; i < BATCH / 2 - 1; ++i) {
+            aggregator.onNext(0);
+        }
+        assertEquals(List.of((long) BATCH), subscription.requests);
+        aggregator.onNext(1);
+        assertEquals(List.of((long) BATCH, (long) BATCH / 2), subscription.requests);
+        for (int i = 0; i < BATCH / 2; ++i) {
+            aggregator.onNext(1);
+        }
+        assertEquals(List.of((long) BATCH, (long) BATCH / 2, (long) BATCH / 2), subscription.requests);
+        aggregator.onComplete();
+        assertEquals(BATCH / 2 + 1, aggregator.await());
+        assertFalse(subscription.cancelled);
+    }
+
+    @Test
+    void cancellingResultCancelsSubscription() {
+        final Manual subscription = new Manual();
+        final FlowAggregator<Integer, Long> aggregator = FlowAggregator.count(1, BATCH);
+        aggregator.onSubscribe(subscription);
+        assertTrue(aggregator.result().cancel(false));
+        assertTrue(subscription.cancelled);
+        // Later elements are ignored and request nothing more
+        for (int i = 0; i < BATCH; ++i) {
+            aggregator.onNext(1);
+        }
+        assertEquals(List.of((long) BATCH), subscription.requests);
+        assertThrows(CancellationException.class, aggregator::await);
+    }
+
+    @Test
+    void subscriptionAfterCancelIsCancelled() {
+        final FlowAggregator<Integer, Long> aggregator = FlowAggregator.count(1, BATCH);
+        aggregator.cancel();
+        final Manual late = new Manual();
+        aggregator.onSubscribe(late);
+        assertTrue(late.cancelled);
+        assertTrue(late.requests.isEmpty());
+        // A second subscription is refused as well
+        final FlowAggregator<Integer, Long> subscribed = FlowAggregator.count(1, BATCH);
+        final Manual first = new Manual();
+        final Manual second = new Manual();
+        subscribed.onSubscribe(first);
+        subscribed.onSubscribe(second);
+        assertFalse(first.cancelled);
+        assertTrue(second.cancelled);
+        assertTrue(second.requests.isEmpty());
+    }
+
+    @Test
+    void distinctKeepsFirstOccurrences() {
+        final List<Integer> elements = Differential.ints(79, ELEMENTS, ELEMENTS / 4);
+        final ArrayHashSet<Integer> distinct;
+        try (SubmissionPublisher<Integer> publisher = new SubmissionPublisher<>()) {
+            final FlowAggregator<Integer, ArrayHashSet<Integer>> aggregator = FlowAggregator.distinct(BATCH);
+            publisher.subscribe(aggregator);
+            elements.forEach(publisher::submit);
+            publisher.close();
+            distinct = aggregator.await();
+        }
+        assertEquals(Differential.elements(new LinkedHashSet<>(elements)), Differential.elements(distinct));
+    }
+
+    // Subscription recording requests, for aggregators driven by hand
+    private static final class Manual implements Flow.Subscription {
+        private final List<Long> requests = new ArrayList<>();
+        private boolean cancelled;
+
+        @Override
+        public void request(final long n) {
+            requests.add(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    // Sits between publisher and aggregator and counts demand and deliveries
+    private static final class Tracked {
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong maxOutstanding = new AtomicLong();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        <T> void subscribe(final Flow.Publisher<T> publisher, final Flow.Subscriber<T> subscriber) {
+            publisher.subscribe(new Flow.Subscriber<T>() {
+                @Override
+                public void onSubscribe(final Flow.Subscription subscription) {
+                    subscriber.onSubscribe(new Flow.Subscription() {
+                        @Override
+                        public void request(final long n) {
+                            final long outstanding = requested.addAndGet(n) - delivered.get();
+                            maxOutstanding.accumulateAndGet(outstanding, Math::max);
+                            subscription.request(n);
+                        }
+
+                        @Override
+                        public void cancel() {
+                            cancelled.set(true);
+                            subscription.cancel();
+                        }
+                    });
+                }
+
+                @Override
+                public void onNext(final T item) {
+                    delivered.incrementAndGet();
+                    subscriber.onNext(item);
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                    subscriber.onError(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    subscriber.onComplete();
+                }
+            });
+        }
+    }
+}
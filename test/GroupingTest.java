@@ -0,0 +1,48 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Grouping operations of Algorithms against straightforward LinkedHashMap
+ * versions.
+ */
+class GroupingTest {
+    private static final Function<Integer, Integer> KEY = row -> Math.floorMod(row * 31, 997);
+
+    @Test
+    void groupsMatchLinkedHashMap() {
+        // Below and above the parallel threshold
+        for (final int size : new int[] {0, 1, 1000, 100000}) {
+            final List<Integer> rows = Differential.ints(47, size, size / 4 + 1);
+            final LinkedHashMap<Integer, List<Integer>> groups = new LinkedHashMap<>();
+            final LinkedHashMap<Integer, Long> counts = new LinkedHashMap<>();
+            final LinkedHashMap<Integer, Long> sums = new LinkedHashMap<>();
+            for (final Integer row : rows) {
+                groups.computeIfAbsent(KEY.apply(row), key -> new ArrayList<>()).add(row);
+                counts.merge(KEY.apply(row), 1L, Long::sum);
+                sums.merge(KEY.apply(row), (long) row, Long::sum);
+            }
+            for (final boolean parallel : new boolean[] {false, true}) {
+                final ArrayMultimap<Integer, Integer> grouped =
+                    Algorithms.groupBy(rows, KEY, Function.identity(), parallel);
+                assertEquals(groups.size(), grouped.keyCount());
+                assertEquals(new ArrayList<>(groups.keySet()), grouped.keys());
+                groups.forEach((key, values) -> assertEquals(values, grouped.get(key)));
+                assertEquals(Differential.entries(counts),
+                    Differential.entries(Algorithms.groupCount(rows, KEY, parallel)));
+                assertEquals(Differential.entries(sums),
+                    Differential.entries(Algorithms.groupReduce(rows, KEY, row -> (long) row, Long::sum, parallel)));
+            }
+            assertEquals(Differential.entries(counts),
+                Differential.entries(Algorithms.groupCount(rows.iterator(), KEY)));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.HashMap;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * HashIndex and SwissIndex against HashMap. Long runs of colliding hashes
+ * exercise backward shift deletion and tombstone reuse.
+ */
+class KeyIndexTest {
+    private static final int ABSENT = -1;
+
+    @Test
+    void matchesHashMap() {
+        for (final HashEngine engine : HashEngine.values()) {
+            for (final int hashes : new int[] {Integer.MAX_VALUE, 64, 1}) {
+                final KeyIndex<Integer> index = KeyIndex.create(engine, 4, colliding(hashes));
+                final HashMap<Integer, Integer> expected = new HashMap<>();
+                final int keys = hashes == 1 ? 200 : 5000;
+                Differential.run(31, 60000, (random, i) -> {
+                    final int key = random.nextInt(keys);
+                    if (random.nextInt(hashes == 1 ? 2 : 3) == 0) {
+                        final Integer removed = expected.remove(key);
+                        assertEquals(removed == null ? ABSENT : removed, index.remove(key, ABSENT));
+                    }
+                    else {
+                        final Integer old = expected.put(key, i);
+                        assertEquals(old == null ? ABSENT : old, index.put(key, i, ABSENT));
+                    }
+                    assertEquals(expected.size(), index.size());
+                });
+                for (int key = 0; key < keys; ++key) {
+                    assertEquals((int) expected.getOrDefault(key, ABSENT), index.get(key, ABSENT));
+                    assertEquals(expected.containsKey(key), index.containsKey(key));
+                }
+            }
+        }
+    }
+
+    private static HashStrategy<Integer> colliding(final int hashes) {
+        return new HashStrategy<>() {
+            @Override
+            public int hash(final Integer value) {
+                return Differential.hash(value, hashes);
+            }
+
+            @Override
+            public boolean equals(final Integer first, final Integer second) {
+                return Objects.equals(first, second);
+            }
+        };
+    }
+}
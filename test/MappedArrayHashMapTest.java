@@ -0,0 +1,144 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MappedArrayHashMap files against the LinkedHashMap they were written from.
+ */
+class MappedArrayHashMapTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsWhatWasWritten() throws IOException {
+        final SplittableRandom random = new SplittableRandom(7);
+        // Small segments make many entries move to the next segment
+        for (final int segmentBits : new int[] {12, 30}) {
+            for (final int size : new int[] {0, 1, 5, 1000, 20000}) {
+                final LinkedHashMap<String, Long> expected = new LinkedHashMap<>();
+                final Path file = directory.resolve("map" + segmentBits + "-" + size);
+                try (MappedArrayHashMap.Writer<String, Long> writer = new MappedArrayHashMap.Writer<>(
+                    file, Codec.strings(), Codec.longs(), segmentBits)) {
+                    while (expected.size() < size) {
+                        final String key = "k" + random.nextInt(size * 4) + "x".repeat(random.nextInt(40));
+                        if (!expected.containsKey(key)) {
+                            final long value = random.nextLong();
+                            expected.put(key, value);
+                            writer.put(key, value);
+                        }
+                    }
+                    writer.finish();
+                }
+                try (MappedArrayHashMap<String, Long> map =
+                         MappedArrayHashMap.open(file, Codec.strings(), Codec.longs())) {
+                    assertEquals(expected, map);
+                    assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+                    final List<String> keys = new ArrayList<>(expected.keySet());
+                    for (int i = 0; i < keys.size(); ++i) {
+                        assertEquals(keys.get(i), map.keyAt(i));
+                        assertEquals(expected.get(keys.get(i)), map.get(keys.get(i)));
+                    }
+                    for (int i = 0; i < 1000; ++i) {
+                        assertNull(map.get("missing" + i));
+                        assertFalse(map.containsKey("k" + i + "y"));
+                    }
+                    assertNull(map.get(42));
+                }
+            }
+        }
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    void writesArrayHashMapInInsertionOrder() throws IOException {
+        final ArrayHashMap<Integer, Integer> source = new ArrayHashMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            source.put(i * 7919 % 1000, i);
+        }
+        final Path file = directory.resolve("ordered");
+        MappedArrayHashMap.write(file, source, Codec.integers(), Codec.integers());
+        try (MappedArrayHashMap<Integer, Integer> map =
+                 MappedArrayHashMap.open(file, Codec.integers(), Codec.integers())) {
+            final List<Map.Entry<Integer, Integer>> expected = new ArrayList<>();
+            source.forEach((key, value) -> expected.add(Map.entry(key, value)));
+            final List<Map.Entry<Integer, Integer>> actual = new ArrayList<>();
+            map.forEach((key, value) -> actual.add(Map.entry(key, value)));
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void failedWriteKeepsPreviousFile() throws IOException {
+        final Path file = directory.resolve("failed");
+        MappedArrayHashMap.write(file, Map.of("a", 1), Codec.strings(), Codec.integers());
+        final LinkedHashMap<String, Integer> nullValue = new LinkedHashMap<>();
+        nullValue.put("b", 2);
+        nullValue.put("c", null);
+        nullValue.put("d", 4);
+        assertThrows(NullPointerException.class,
+            () -> MappedArrayHashMap.write(file, nullValue, Codec.strings(), Codec.integers()));
+        try (MappedArrayHashMap<String, Integer> map =
+                 MappedArrayHashMap.open(file, Codec.strings(), Codec.integers())) {
+            assertEquals(Map.of("a", 1), map);
+        }
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    void unfinishedWriterLeavesNoFile() throws IOException {
+        final Path file = directory.resolve("unfinished");
+        try (MappedArrayHashMap.Writer<String, Integer> writer =
+                 MappedArrayHashMap.writer(file, Codec.strings(), Codec.integers())) {
+            writer.put("a", 1);
+        }
+        assertFalse(Files.exists(file));
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    void duplicateKeysAreRejected() throws IOException {
+        final Path file = directory.resolve("duplicate");
+        try (MappedArrayHashMap.Writer<Integer, Integer> writer =
+                 MappedArrayHashMap.writer(file, Codec.integers(), Codec.integers())) {
+            writer.put(1, 1);
+            writer.put(2, 2);
+            writer.put(1, 3);
+            assertThrows(IllegalArgumentException.class, writer::finish);
+        }
+        assertFalse(Files.exists(file));
+        assertNoTemporaryFiles();
+    }
+
+    @Test
+    void foreignFilesAreRejected() throws IOException {
+        final Path file = directory.resolve("foreign");
+        Files.write(file, new byte[5]);
+        assertThrows(IOException.class, () -> MappedArrayHashMap.open(file, Codec.strings(), Codec.longs()));
+        Files.write(file, new byte[64]);
+        assertThrows(IOException.class, () -> MappedArrayHashMap.open(file, Codec.strings(), Codec.longs()));
+    }
+
+    private void assertNoTemporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.toString().endsWith(".tmp")));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * PersistentArrayHashMap and PersistentArrayHashSet against LinkedHashMap and
+ * LinkedHashSet, including older versions after later changes.
+ */
+class PersistentArrayHashMapTest {
+    private static final int OPERATIONS = 30000;
+
+    // Latest versions, replaced by every change
+    private PersistentArrayHashMap<Differential.Key, Integer> map;
+    private PersistentArrayHashSet<Integer> set;
+
+    @Test
+    void mapMatchesLinkedHashMap() {
+        // Few distinct hashes put many keys into collision nodes
+        for (final int hashes : new int[] {Integer.MAX_VALUE, 16}) {
+            map = PersistentArrayHashMap.empty();
+            final LinkedHashMap<Differential.Key, Integer> expected = new LinkedHashMap<>();
+            final List<PersistentArrayHashMap<Differential.Key, Integer>> versions = new ArrayList<>();
+            final List<List<Map.Entry<Differential.Key, Integer>>> contents = new ArrayList<>();
+            Differential.run(17, OPERATIONS, (random, i) -> {
+                final Differential.Key key = new Differential.Key(random.nextInt(2000), hashes);
+                // Removals win sometimes, so the map shrinks and the order vector is rebuilt
+                if (random.nextInt(i % 10000 < 5000 ? 4 : 2) == 0) {
+                    expected.remove(key);
+                    map = map.without(key);
+                }
+                else {
+                    expected.put(key, i);
+                    map = map.with(key, i);
+                }
+                assertEquals(expected.size(), map.size());
+                assertEquals(expected.get(key), map.get(key));
+                if (i % 1000 == 0) {
+                    versions.add(map);
+                    contents.add(Differential.entries(expected));
+                }
+            });
+            assertEquals(expected, map);
+            assertEquals(Differential.entries(expected), Differential.entries(map));
+            for (final Differential.Key key : expected.keySet()) {
+                assertEquals(expected.get(key), map.get(key));
+            }
+            for (int v = 0; v < versions.size(); ++v) {
+                assertEquals(contents.get(v), Differential.entries(versions.get(v)));
+            }
+            assertEquals(Differential.entries(map), Differential.entries(map.toBuilder().build()));
+        }
+    }
+
+    @Test
+    void builderMatchesLinkedHashMap() {
+        for (final int size : new int[] {0, 1, 31, 32, 33, 1024, 1025, 40000}) {
+            final LinkedHashMap<Differential.Key, Integer> expected = new LinkedHashMap<>();
+            final PersistentArrayHashMap.Builder<Differential.Key, Integer> builder = PersistentArrayHashMap.builder();
+            Differential.run(19, size, (random, i) -> {
+                final Differential.Key key = new Differential.Key(random.nextInt(size * 2), 1 << 12);
+                expected.put(key, i);
+                builder.put(key, i);
+            });
+            final PersistentArrayHashMap<Differential.Key, Integer> built = builder.build();
+            assertEquals(Differential.entries(expected), Differential.entries(built));
+            for (final Differential.Key key : expected.keySet()) {
+                assertEquals(expected.get(key), built.get(key));
+            }
+            // New keys go after the built ones
+            assertEquals(built.size() + 1, built.with(new Differential.Key(-1, 1 << 12), -1).size());
+        }
+    }
+
+    @Test
+    void unchangedValueKeepsVersion() {
+        final PersistentArrayHashMap<String, String> single = PersistentArrayHashMap.<String, String>empty()
+            .with("a", "1");
+        assertSame(single, single.with("a", single.get("a")));
+        assertSame(single, single.without("b"));
+    }
+
+    @Test
+    void setMatchesLinkedHashSet() {
+        set = PersistentArrayHashSet.empty();
+        final LinkedHashSet<Integer> expected = new LinkedHashSet<>();
+        Differential.run(23, OPERATIONS, (random, i) -> {
+            final int value = random.nextInt(3000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(value);
+                set = set.without(value);
+            }
+            else {
+                expected.add(value);
+                set = set.with(value);
+            }
+            assertEquals(expected.size(), set.size());
+            assertEquals(expected.contains(value), set.contains(value));
+        });
+        assertEquals(Differential.elements(expected), Differential.elements(set));
+        assertEquals(Differential.elements(expected),
+            Differential.elements(PersistentArrayHashSet.<Integer>builder().addAll(expected).build()));
+    }
+}
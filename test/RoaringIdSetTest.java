@@ -0,0 +1,119 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * RoaringIdSet against a TreeSet in unsigned order, across array, bitmap and
+ * run containers.
+ */
+class RoaringIdSetTest {
+    // Random steps between range additions
+    private static final int ROUND = 30000;
+
+    @Test
+    void matchesTreeSet() {
+        final RoaringIdSet set = new RoaringIdSet();
+        final TreeSet<Integer> expected = new TreeSet<>(Integer::compareUnsigned);
+        Differential.run(37, 4 * ROUND, (random, i) -> {
+            final int id = id(random);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id), set.remove(id));
+            }
+            else {
+                assertEquals(expected.add(id), set.add(id));
+            }
+            assertEquals(expected.contains(id), set.contains(id));
+            if (i % ROUND == ROUND - 1) {
+                final long from = random.nextInt(1 << 18);
+                final long to = from + random.nextInt(1 << 17);
+                set.addRange(from, to);
+                for (long range = from; range < to; ++range) {
+                    expected.add((int) range);
+                }
+                if (i / ROUND % 2 == 1) {
+                    set.runOptimize();
+                }
+                assertMatches(expected, set);
+            }
+        });
+        set.addRange((1L << 32) - 5, 1L << 32);
+        for (int id = -5; id < 0; ++id) {
+            expected.add(id);
+        }
+        assertMatches(expected, set);
+    }
+
+    @Test
+    void setOperationsMatchTreeSet() {
+        final RoaringIdSet first = new RoaringIdSet();
+        final RoaringIdSet second = new RoaringIdSet();
+        final TreeSet<Integer> firstExpected = new TreeSet<>(Integer::compareUnsigned);
+        final TreeSet<Integer> secondExpected = new TreeSet<>(Integer::compareUnsigned);
+        Differential.run(41, 40000, (random, i) -> {
+            final int id = id(random);
+            if (random.nextBoolean()) {
+                first.add(id);
+                firstExpected.add(id);
+            }
+            else {
+                second.add(id);
+                secondExpected.add(id);
+            }
+        });
+        first.addRange(1000, 50000);
+        second.addRange(30000, 90000);
+        for (int id = 1000; id < 50000; ++id) {
+            firstExpected.add(id);
+        }
+        for (int id = 30000; id < 90000; ++id) {
+            secondExpected.add(id);
+        }
+        second.runOptimize();
+        final TreeSet<Integer> and = new TreeSet<>(firstExpected);
+        and.retainAll(secondExpected);
+        assertMatches(and, RoaringIdSet.and(first, second));
+        final TreeSet<Integer> or = new TreeSet<>(firstExpected);
+        or.addAll(secondExpected);
+        assertMatches(or, RoaringIdSet.or(first, second));
+        final TreeSet<Integer> andNot = new TreeSet<>(firstExpected);
+        andNot.removeAll(secondExpected);
+        assertMatches(andNot, RoaringIdSet.andNot(first, second));
+        // Operands are unchanged
+        assertMatches(firstExpected, first);
+        assertMatches(secondExpected, second);
+    }
+
+    // Dense ids fill bitmap containers, sparse ones spread over many keys
+    private static int id(final SplittableRandom random) {
+        switch (random.nextInt(3)) {
+            case 0:
+                return random.nextInt(1 << 16);
+            case 1:
+                return (1 << 16) + random.nextInt(3000);
+            default:
+                return random.nextInt();
+        }
+    }
+
+    private static void assertMatches(final TreeSet<Integer> expected, final RoaringIdSet set) {
+        assertEquals(expected.size(), set.cardinality());
+        final List<Integer> ids = new ArrayList<>();
+        set.forEachId(ids::add);
+        assertEquals(new ArrayList<>(expected), ids);
+        final List<Integer> iterated = new ArrayList<>();
+        set.iterator().forEachRemaining((int id) -> iterated.add(id));
+        assertEquals(ids, iterated);
+        for (int i = 0; i < ids.size(); i += 97) {
+            assertEquals(ids.get(i), set.select(i));
+            assertEquals(i + 1, set.rank(ids.get(i)));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+// This is a personal academic project. Dear PVS-Studio, please check it.
+// PVS-Studio Static Code Analyzer for C, C++, C#, and Java: http://www.viva64.com
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ids of UniqueArray elements stay equal to their position plus one, and
+ * every add hashes its element once.
+ */
+class UniqueArrayTest {
+    @Test
+    void removeRenumbersLaterElements() {
+        final UniqueArray<String> array = new UniqueArray<>();
+        for (final String s : List.of("a", "b", "c", "d")) {
+            array.add(s);
+        }
+        assertEquals("b", array.remove(1));
+        assertIdsMatchPositions(array);
+        assertEquals(3, array.idFor("d"));
+        assertEquals("d", array.getById(3));
+    }
+
+    @Test
+    void removeIfKeepsOrderAndIds() {
+        for (final HashEngine engine : HashEngine.values()) {
+            final UniqueArray<Integer> array = new UniqueArray<>(4, HashStrategy.natural(), engine);
+            for (int i = 0; i < 100; ++i) {
+                array.add(i);
+            }
+            assertTrue(array.removeIf(value -> value % 3 == 0));
+            final List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 100; ++i) {
+                if (i % 3 != 0) {
+                    expected.add(i);
+                }
+            }
+            final List<Integer> actual = new ArrayList<>();
+            array.forEach(actual::add);
+            assertEquals(expected, actual);
+            assertIdsMatchPositions(array);
+        }
+    }
+
+    @Test
+    void addHashesOnceWithPrefilter() {
+        for (final HashEngine engine : HashEngine.values()) {
+            final int[] hashes = new int[1];
+            final HashStrategy<Integer> counting = new HashStrategy<>() {
+                @Override
+                public int hash(final Integer value) {
+                    ++hashes[0];
+                    return Objects.hashCode(value);
+                }
+
+                @Override
+                public boolean equals(final Integer first, final Integer second) {
+                    return Objects.equals(first, second);
+                }
+            };
+            // Large enough that neither the index nor the prefilter is rebuilt
+            final UniqueArray<Integer> array = new UniqueArray<>(1024, counting, engine, true);
+            for (int i = 0; i < 100; ++i) {
+                array.add(i);
+            }
+            assertEquals(100, hashes[0]);
+            assertEquals(43, array.add(42));
+            assertEquals(101, hashes[0]);
+            assertEquals(43, array.idFor(42));
+            assertEquals(102, hashes[0]);
+        }
+    }
+
+    private static <T> void assertIdsMatchPositions(final UniqueArray<T> array) {
+        for (int i = 0; i < array.size(); ++i) {
+            assertEquals(i + 1, array.idFor(array.get(i)));
+        }
+    }
+}